@@ -33,12 +33,19 @@ public class PointStyle extends ChartPart {
     // The minimum amount of space between symbols/tags to avoid excessive overlap
     private int  _pointSpacing = DEFAULT_POINT_SPACING;
 
+    // The RenderMode (how points are painted)
+    private RenderMode  _renderMode = DEFAULT_RENDER_MODE;
+
+    // Constants for RenderMode: Symbols paints a symbol per point, Density paints point counts per pixel with color map
+    public enum RenderMode { Symbols, Density }
+
     // Constants for properties
     public static final String SymbolSize_Prop = "SymbolSize";
     public static final String SymbolId_Prop = "SymbolId";
     public static final String PointSpacing_Prop = "PointSpacing";
     public static final String MaxPointCount_Prop = "MaxPointCount";
     public static final String SkipPointCount_Prop = "SkipPointCount";
+    public static final String RenderMode_Prop = "RenderMode";
 
     // Constants for property defaults
     public static final int DEFAULT_SYMBOL_SIZE = 8;
@@ -48,6 +55,7 @@ public class PointStyle extends ChartPart {
     public static final int DEFAULT_POINT_SPACING = 0;
     public static final int DEFAULT_MAX_POINT_COUNT = 0;
     public static final int DEFAULT_SKIP_POINT_COUNT = 0;
+    public static final RenderMode DEFAULT_RENDER_MODE = RenderMode.Symbols;
 
     /**
      * Constructor.
@@ -147,6 +155,25 @@ public class PointStyle extends ChartPart {
         firePropChange(SkipPointCount_Prop, _skipPointCount, _skipPointCount = aValue);
     }
 
+    /**
+     * Returns the RenderMode (how points are painted).
+     */
+    public RenderMode getRenderMode()  { return _renderMode; }
+
+    /**
+     * Sets the RenderMode (how points are painted).
+     */
+    public void setRenderMode(RenderMode aValue)
+    {
+        if (aValue == getRenderMode()) return;
+        firePropChange(RenderMode_Prop, _renderMode, _renderMode = aValue);
+    }
+
+    /**
+     * Returns whether points are painted as density (point counts per pixel with color map).
+     */
+    public boolean isRenderDensity()  { return _renderMode == RenderMode.Density; }
+
     /**
      * Override to dynamically get line color if not explicitly set.
      */
@@ -204,6 +231,9 @@ public class PointStyle extends ChartPart {
         aPropSet.addPropNamed(PointSpacing_Prop, int.class, DEFAULT_POINT_SPACING);
         aPropSet.addPropNamed(MaxPointCount_Prop, int.class, DEFAULT_MAX_POINT_COUNT);
         aPropSet.addPropNamed(SkipPointCount_Prop, int.class, DEFAULT_SKIP_POINT_COUNT);
+
+        // RenderMode
+        aPropSet.addPropNamed(RenderMode_Prop, RenderMode.class, DEFAULT_RENDER_MODE);
     }
 
     /**
@@ -224,6 +254,9 @@ public class PointStyle extends ChartPart {
             case MaxPointCount_Prop: return getMaxPointCount();
             case SkipPointCount_Prop: return getSkipPointCount();
 
+            // Handle RenderMode
+            case RenderMode_Prop: return getRenderMode();
+
             // Handle super class properties (or unknown)
             default: return super.getPropValue(aPropName);
         }
@@ -247,6 +280,9 @@ public class PointStyle extends ChartPart {
             case MaxPointCount_Prop: setMaxPointCount(Convert.intValue(aValue)); break;
             case SkipPointCount_Prop: setSkipPointCount(Convert.intValue(aValue)); break;
 
+            // Handle RenderMode
+            case RenderMode_Prop: setRenderMode((RenderMode) aValue); break;
+
             // Handle super class properties (or unknown)
             default: super.setPropValue(aPropName, aValue); break;
         }
@@ -92,7 +92,15 @@ public class SnapCharts {
     }
 
     /**
-     * Creates and return a DataArray.
+     * Creates and return a FloatArray.
+     */
+    public static FloatArray floatArray(Object anObj)
+    {
+        return FloatArray.of(anObj);
+    }
+
+    /**
+     * Creates and return a DataArray. Given double[] and float[] arrays are used directly (not copied).
      */
     public static DataArray dataArray(Object anObj)
     {
@@ -103,10 +111,30 @@ public class SnapCharts {
         if (anObj instanceof DataArray)
             return (DataArray) anObj;
 
+        // Handle double[]
+        if (anObj instanceof double[])
+            return DoubleArray.wrap((double[]) anObj);
+
+        // Handle float[]
+        if (anObj instanceof float[])
+            return FloatArray.wrap((float[]) anObj);
+
         // Handle array of anything
         return doubleArray(anObj);
     }
 
+    /**
+     * Creates and return a DataArray with numbers stored at given precision.
+     */
+    public static DataArray dataArray(Object anObj, NumberPrecision aPrecision)
+    {
+        // Get normal DataArray and convert if number array
+        DataArray dataArray = dataArray(anObj);
+        if (dataArray instanceof NumberArray && aPrecision != null)
+            return ((NumberArray) dataArray).copyForPrecision(aPrecision);
+        return dataArray;
+    }
+
     /**
      * Creates and returns a Dataset.
      */
@@ -175,7 +203,7 @@ public class SnapCharts {
         }
 
         // Return new double Array
-        return new DoubleArray(z);
+        return DoubleArray.wrap(z);
     }
 
     /**
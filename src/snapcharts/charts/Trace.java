@@ -116,6 +116,9 @@ public abstract class Trace extends ChartPart {
     public static final String Point_Prop = "Points";
     public static final String ThetaUnit_Prop = "ThetaUnit";
 
+    // Property for batch of points added at end (new value is point count, index is index of first point)
+    public static final String PointsAdded_Prop = "PointsAdded";
+
     // Constants for defaults
     public static final boolean DEFAULT_SHOW_LINE = true;
     public static final int DEFAULT_LINE_WIDTH = 1;
@@ -509,6 +512,23 @@ public abstract class Trace extends ChartPart {
         firePropChange(Point_Prop, aPoint, null, anIndex);
     }
 
+    /**
+     * Adds points at end for given range of channel data arrays (arrays can be null for missing channels).
+     */
+    public void addPoints(double[] dataX, double[] dataY, double[] dataZ, String[] dataC, int aStart, int aCount)
+    {
+        // If no points, just return
+        if (aCount <= 0) return;
+
+        // Forward to DataSet
+        int index = getPointCount();
+        _dataSet.addPoints(dataX, dataY, dataZ, dataC, aStart, aCount);
+
+        // Clear cache and firePropChange once for whole batch
+        clearCachedData();
+        firePropChange(PointsAdded_Prop, null, aCount, index);
+    }
+
     /**
      * Removes a point at given index.
      */
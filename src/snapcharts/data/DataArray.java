@@ -111,22 +111,54 @@ public abstract class DataArray implements Cloneable {
      */
     public static DataArray newDataArrayForArray(Object anArray)
     {
+        // Handle DataArray
+        if (anArray instanceof DataArray)
+            return (DataArray) anArray;
+
         // Handle double
         if (anArray instanceof double[])
             return new DoubleArray((double[]) anArray);
 
+        // Handle float
+        if (anArray instanceof float[])
+            return new FloatArray((float[]) anArray);
+
         // Handle String
         if (anArray instanceof String[])
             return new StringArray((String[]) anArray);
 
+        // Handle other primitive number arrays (converted to double)
+        if (anArray instanceof int[] || anArray instanceof long[] || anArray instanceof short[])
+            return DoubleArray.of(anArray);
+
         // Throw a fit
         throw new RuntimeException("DataArray.newDataArrayForArray: Unsupported array type: " + anArray.getClass());
     }
 
+    /**
+     * Creates a new DataArray for given value array, with numbers stored at given precision.
+     */
+    public static DataArray newDataArrayForArray(Object anArray, NumberPrecision aPrecision)
+    {
+        // Get normal DataArray and convert if number array
+        DataArray dataArray = newDataArrayForArray(anArray);
+        if (dataArray instanceof NumberArray && aPrecision != null)
+            return ((NumberArray) dataArray).copyForPrecision(aPrecision);
+        return dataArray;
+    }
+
     /**
      * Returns an array of DataArray for given double/String arrays.
      */
     public static DataArray[] newDataArraysForArrays(Object ... theValues)
+    {
+        return newDataArraysForArraysAndPrecision(null, theValues);
+    }
+
+    /**
+     * Returns an array of DataArray for given double/String arrays, with numbers stored at given precision.
+     */
+    public static DataArray[] newDataArraysForArraysAndPrecision(NumberPrecision aPrecision, Object ... theValues)
     {
         // Get DataArrays
         int arrayCount = 0;
@@ -134,7 +166,7 @@ public abstract class DataArray implements Cloneable {
         for (Object valueArray : theValues) {
             if (valueArray == null)
                 continue;
-            DataArray dataArray = DataArray.newDataArrayForArray(valueArray);
+            DataArray dataArray = DataArray.newDataArrayForArray(valueArray, aPrecision);
             dataArrays[arrayCount++] = dataArray;
         }
 
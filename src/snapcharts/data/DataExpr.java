@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a compiled expression of DataSet channel values (like "x * 2" or "sqrt(y) + x"). The expression string
+ * is parsed once into a tree of primitive evaluators, so evaluating for points doesn't box values or do key lookups.
+ *
+ * Supported: numbers, x/y/z, + - * / %, parens and common Math functions (sin, cos, sqrt, pow, min, max, etc.).
+ * Anything else fails to compile (returns null), so callers can fall back to KeyChain.
+ */
+public abstract class DataExpr {
+
+    // Expressions that return channel values
+    public static final DataExpr X = new ChanExpr(DataChan.X);
+    public static final DataExpr Y = new ChanExpr(DataChan.Y);
+    public static final DataExpr Z = new ChanExpr(DataChan.Z);
+
+    // Constants for chunked parallel evaluation
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Returns the expression value for given X, Y, Z values.
+     */
+    public abstract double eval(double x, double y, double z);
+
+    /**
+     * Returns whether expression is constant.
+     */
+    public boolean isConstant()  { return false; }
+
+    /**
+     * Returns the expression values for points in given DataSet (large DataSets are evaluated in parallel chunks).
+     */
+    public double[] evalForDataSet(DataSet aDataSet)
+    {
+        // Create values array
+        int pointCount = aDataSet.getPointCount();
+        double[] values = new double[pointCount];
+
+        // If small, just evaluate in this thread
+        if (pointCount < CHUNK_SIZE * 2) {
+            evalForDataSet(aDataSet, values, 0, pointCount);
+            return values;
+        }
+
+        // Evaluate chunks in parallel
+        int chunkCount = (pointCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int start = chunk * CHUNK_SIZE;
+            int end = Math.min(start + CHUNK_SIZE, pointCount);
+            evalForDataSet(aDataSet, values, start, end);
+        });
+
+        // Return
+        return values;
+    }
+
+    /**
+     * Evaluates expression for given range of points in DataSet and puts results in given array.
+     */
+    private void evalForDataSet(DataSet aDataSet, double[] theValues, int aStart, int anEnd)
+    {
+        boolean hasZ = aDataSet.getDataType().hasZ();
+        for (int i = aStart; i < anEnd; i++) {
+            double x = aDataSet.getX(i);
+            double y = aDataSet.getY(i);
+            double z = hasZ ? aDataSet.getZ(i) : 0;
+            theValues[i] = eval(x, y, z);
+        }
+    }
+
+    /**
+     * Returns a compiled expression for given expression string (or null if expression isn't supported).
+     */
+    public static DataExpr compile(String anExpr)
+    {
+        try {
+            ExprParser parser = new ExprParser(anExpr.toLowerCase());
+            return parser.parseAll();
+        }
+        catch (IllegalArgumentException e) { return null; }
+    }
+
+    /**
+     * A DataExpr for a constant value.
+     */
+    private static class ConstExpr extends DataExpr {
+
+        // The value
+        private double  _value;
+
+        /** Constructor. */
+        ConstExpr(double aValue)  { _value = aValue; }
+
+        @Override
+        public double eval(double x, double y, double z)  { return _value; }
+
+        @Override
+        public boolean isConstant()  { return true; }
+    }
+
+    /**
+     * A DataExpr for a channel value.
+     */
+    private static class ChanExpr extends DataExpr {
+
+        // The channel
+        private DataChan  _chan;
+
+        /** Constructor. */
+        ChanExpr(DataChan aChan)  { _chan = aChan; }
+
+        @Override
+        public double eval(double x, double y, double z)
+        {
+            switch (_chan) {
+                case X: return x;
+                case Y: return y;
+                default: return z;
+            }
+        }
+    }
+
+    /**
+     * A DataExpr for a unary function or operator.
+     */
+    private static class UnaryExpr extends DataExpr {
+
+        // The operator and operand
+        private DoubleUnaryOperator  _op;
+        private DataExpr  _expr;
+
+        /** Constructor. */
+        UnaryExpr(DoubleUnaryOperator anOp, DataExpr anExpr)  { _op = anOp; _expr = anExpr; }
+
+        @Override
+        public double eval(double x, double y, double z)
+        {
+            return _op.applyAsDouble(_expr.eval(x, y, z));
+        }
+    }
+
+    /**
+     * A DataExpr for a binary function or operator.
+     */
+    private static class BinaryExpr extends DataExpr {
+
+        // The operator and operands
+        private DoubleBinaryOperator  _op;
+        private DataExpr  _expr1, _expr2;
+
+        /** Constructor. */
+        BinaryExpr(DoubleBinaryOperator anOp, DataExpr anExpr1, DataExpr anExpr2)
+        {
+            _op = anOp; _expr1 = anExpr1; _expr2 = anExpr2;
+        }
+
+        @Override
+        public double eval(double x, double y, double z)
+        {
+            return _op.applyAsDouble(_expr1.eval(x, y, z), _expr2.eval(x, y, z));
+        }
+    }
+
+    /**
+     * A simple recursive descent parser for expression strings.
+     */
+    private static class ExprParser {
+
+        // The expression string and char index
+        private String  _str;
+        private int  _index;
+
+        /** Constructor. */
+        ExprParser(String aStr)  { _str = aStr; }
+
+        /**
+         * Parses whole string (complains if extra chars).
+         */
+        DataExpr parseAll()
+        {
+            DataExpr expr = parseSum();
+            skipWhiteSpace();
+            if (_index < _str.length())
+                throw new IllegalArgumentException("DataExpr: Unexpected char: " + _str.charAt(_index));
+            return expr;
+        }
+
+        /**
+         * Parses sum: product [+- product]*
+         */
+        DataExpr parseSum()
+        {
+            DataExpr expr = parseProduct();
+            for (char c = peekChar(); c == '+' || c == '-'; c = peekChar()) {
+                _index++;
+                DataExpr expr2 = parseProduct();
+                expr = c == '+' ? newBinaryExpr((a, b) -> a + b, expr, expr2) : newBinaryExpr((a, b) -> a - b, expr, expr2);
+            }
+            return expr;
+        }
+
+        /**
+         * Parses product: unary [* / % unary]*
+         */
+        DataExpr parseProduct()
+        {
+            DataExpr expr = parseUnary();
+            for (char c = peekChar(); c == '*' || c == '/' || c == '%'; c = peekChar()) {
+                _index++;
+                DataExpr expr2 = parseUnary();
+                switch (c) {
+                    case '*': expr = newBinaryExpr((a, b) -> a * b, expr, expr2); break;
+                    case '/': expr = newBinaryExpr((a, b) -> a / b, expr, expr2); break;
+                    default: expr = newBinaryExpr((a, b) -> a % b, expr, expr2); break;
+                }
+            }
+            return expr;
+        }
+
+        /**
+         * Parses unary: [+-] unary | primary
+         */
+        DataExpr parseUnary()
+        {
+            char c = peekChar();
+            if (c == '-') {
+                _index++;
+                return newUnaryExpr(a -> -a, parseUnary());
+            }
+            if (c == '+') {
+                _index++;
+                return parseUnary();
+            }
+            return parsePrimary();
+        }
+
+        /**
+         * Parses primary: number | channel | function(args) | (sum)
+         */
+        DataExpr parsePrimary()
+        {
+            // Handle parens
+            char c = peekChar();
+            if (c == '(') {
+                _index++;
+                DataExpr expr = parseSum();
+                expectChar(')');
+                return expr;
+            }
+
+            // Handle number
+            if (Character.isDigit(c) || c == '.')
+                return new ConstExpr(parseNumber());
+
+            // Handle name: Get name
+            if (!Character.isLetter(c))
+                throw new IllegalArgumentException("DataExpr: Unexpected char: " + c);
+            String name = parseName();
+
+            // Handle function call
+            if (peekChar() == '(') {
+                _index++;
+                List<DataExpr> args = new ArrayList<>();
+                if (peekChar() != ')') {
+                    args.add(parseSum());
+                    while (peekChar() == ',') {
+                        _index++;
+                        args.add(parseSum());
+                    }
+                }
+                expectChar(')');
+                return newFunctionExpr(name, args);
+            }
+
+            // Handle channel
+            switch (name) {
+                case "x": return X;
+                case "y": return Y;
+                case "z": return Z;
+                default: throw new IllegalArgumentException("DataExpr: Unknown name: " + name);
+            }
+        }
+
+        /**
+         * Returns a new function expression for given name and args.
+         */
+        DataExpr newFunctionExpr(String aName, List<DataExpr> theArgs)
+        {
+            // Handle one arg functions
+            if (theArgs.size() == 1) {
+                DataExpr arg = theArgs.get(0);
+                switch (aName) {
+                    case "abs": return newUnaryExpr(Math::abs, arg);
+                    case "sqrt": return newUnaryExpr(Math::sqrt, arg);
+                    case "exp": return newUnaryExpr(Math::exp, arg);
+                    case "sin": return newUnaryExpr(Math::sin, arg);
+                    case "cos": return newUnaryExpr(Math::cos, arg);
+                    case "tan": return newUnaryExpr(Math::tan, arg);
+                    case "asin": return newUnaryExpr(Math::asin, arg);
+                    case "acos": return newUnaryExpr(Math::acos, arg);
+                    case "atan": return newUnaryExpr(Math::atan, arg);
+                    case "floor": return newUnaryExpr(Math::floor, arg);
+                    case "ceil": return newUnaryExpr(Math::ceil, arg);
+                    default: break;
+                }
+            }
+
+            // Handle two arg functions
+            if (theArgs.size() == 2) {
+                DataExpr arg1 = theArgs.get(0);
+                DataExpr arg2 = theArgs.get(1);
+                switch (aName) {
+                    case "pow": return newBinaryExpr(Math::pow, arg1, arg2);
+                    case "min": return newBinaryExpr(Math::min, arg1, arg2);
+                    case "max": return newBinaryExpr(Math::max, arg1, arg2);
+                    case "atan2": return newBinaryExpr(Math::atan2, arg1, arg2);
+                    default: break;
+                }
+            }
+
+            // Complain
+            throw new IllegalArgumentException("DataExpr: Unsupported function: " + aName);
+        }
+
+        /**
+         * Returns a new unary expression (folded if constant).
+         */
+        DataExpr newUnaryExpr(DoubleUnaryOperator anOp, DataExpr anExpr)
+        {
+            if (anExpr.isConstant())
+                return new ConstExpr(anOp.applyAsDouble(anExpr.eval(0, 0, 0)));
+            return new UnaryExpr(anOp, anExpr);
+        }
+
+        /**
+         * Returns a new binary expression (folded if constant).
+         */
+        DataExpr newBinaryExpr(DoubleBinaryOperator anOp, DataExpr anExpr1, DataExpr anExpr2)
+        {
+            if (anExpr1.isConstant() && anExpr2.isConstant())
+                return new ConstExpr(anOp.applyAsDouble(anExpr1.eval(0, 0, 0), anExpr2.eval(0, 0, 0)));
+            return new BinaryExpr(anOp, anExpr1, anExpr2);
+        }
+
+        /**
+         * Parses a number.
+         */
+        double parseNumber()
+        {
+            // Get number chars (digits, decimal point and exponent)
+            int start = _index;
+            while (_index < _str.length()) {
+                char c = _str.charAt(_index);
+                boolean isExpSign = (c == '+' || c == '-') && _index > start && _str.charAt(_index - 1) == 'e';
+                if (Character.isDigit(c) || c == '.' || c == 'e' || isExpSign)
+                    _index++;
+                else break;
+            }
+
+            // Return number
+            try { return Double.parseDouble(_str.substring(start, _index)); }
+            catch (NumberFormatException e) { throw new IllegalArgumentException("DataExpr: Invalid number", e); }
+        }
+
+        /**
+         * Parses a name.
+         */
+        String parseName()
+        {
+            int start = _index;
+            while (_index < _str.length() && (Character.isLetterOrDigit(_str.charAt(_index)) || _str.charAt(_index) == '_'))
+                _index++;
+            return _str.substring(start, _index);
+        }
+
+        /**
+         * Returns next non-whitespace char (or 0 if at end).
+         */
+        char peekChar()
+        {
+            skipWhiteSpace();
+            return _index < _str.length() ? _str.charAt(_index) : 0;
+        }
+
+        /**
+         * Advances past given char or complains.
+         */
+        void expectChar(char aChar)
+        {
+            if (peekChar() != aChar)
+                throw new IllegalArgumentException("DataExpr: Expected char: " + aChar);
+            _index++;
+        }
+
+        /**
+         * Skips whitespace.
+         */
+        void skipWhiteSpace()
+        {
+            while (_index < _str.length() && Character.isWhitespace(_str.charAt(_index)))
+                _index++;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import snap.props.PropObject;
 import snap.props.PropSet;
 import snap.util.ArrayUtils;
 import snap.util.Convert;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -258,6 +259,41 @@ public abstract class DataSet extends PropObject implements Cloneable {
         return _dataC != null ? _dataC.getString(anIndex) : null;
     }
 
+    /**
+     * Copies given range of X values to given array.
+     */
+    public void copyDataX(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        // If no X values, X is index
+        if (_dataX == null) {
+            for (int i = 0; i < aCount; i++)
+                anArray[anArrayStart + i] = aStart + i;
+        }
+
+        // Otherwise, forward to array
+        else _dataX.copyToArray(aStart, anArray, anArrayStart, aCount);
+    }
+
+    /**
+     * Copies given range of Y values to given array.
+     */
+    public void copyDataY(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        if (_dataY == null)
+            Arrays.fill(anArray, anArrayStart, anArrayStart + aCount, 0);
+        else _dataY.copyToArray(aStart, anArray, anArrayStart, aCount);
+    }
+
+    /**
+     * Copies given range of Z values to given array.
+     */
+    public void copyDataZ(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        if (_dataZ == null)
+            Arrays.fill(anArray, anArrayStart, anArrayStart + aCount, 0);
+        else _dataZ.copyToArray(aStart, anArray, anArrayStart, aCount);
+    }
+
     /**
      * Returns the Theta value at given index.
      */
@@ -296,6 +332,11 @@ public abstract class DataSet extends PropObject implements Cloneable {
      */
     public abstract void addPoint(DataPoint aPoint, int anIndex);
 
+    /**
+     * Adds points at end for given range of channel data arrays (arrays can be null for missing channels).
+     */
+    public abstract void addPoints(double[] dataX, double[] dataY, double[] dataZ, String[] dataC, int aStart, int aCount);
+
     /**
      * Removes a point at index.
      */
@@ -434,11 +475,13 @@ public abstract class DataSet extends PropObject implements Cloneable {
         aPropSet.addPropNamed(Name_Prop, String.class, null);
         aPropSet.addPropNamed(DataType_Prop, DataType.class, DataType.XY);
 
-        // Add props for all DataChan channels and channel units
+        // Add props for all DataChan channels, channel units and channel precisions
         for (DataChan dataChan : DataChan.values())
             aPropSet.addPropNamed(dataChan.toString(), dataChan.getDataArrayClass(), null);
         for (DataChan dataChan : DataChan.values())
             aPropSet.addPropNamed(dataChan + "Unit", DataUnit.class, null);
+        for (DataChan dataChan : DataChan.values())
+            aPropSet.addPropNamed(dataChan + "Precision", NumberPrecision.class, null);
     }
 
     /**
@@ -452,8 +495,8 @@ public abstract class DataSet extends PropObject implements Cloneable {
         if (dataTypePropValue != null)
             return null;
 
-        // Handle DataType Unit props
-        if (propName.endsWith("Unit"))
+        // Handle DataType Unit, Precision props
+        if (propName.endsWith("Unit") || propName.endsWith("Precision"))
             return null;
 
         // Do normal version
@@ -475,6 +518,10 @@ public abstract class DataSet extends PropObject implements Cloneable {
         if (propName.endsWith("Unit"))
             return getDataTypeUnitPropValue(propName);
 
+        // Handle DataType Precision props
+        if (propName.endsWith("Precision"))
+            return getDataTypePrecisionPropValue(propName);
+
         // Handle standard props
         return switch (propName) {
 
@@ -546,6 +593,23 @@ public abstract class DataSet extends PropObject implements Cloneable {
         return dataArray != null ? dataArray.getUnit() : null;
     }
 
+    /**
+     * Returns a DataArray precision for PropName if it matches DataType channel + "Precision" (null for default Double).
+     */
+    private Object getDataTypePrecisionPropValue(String propName)
+    {
+        // Get DataChan for PropName (just return null if not found)
+        DataType dataType = getDataType();
+        DataChan dataChan = dataType.getChannelForName(propName.replace("Precision", ""));
+        if (dataChan == null)
+            return null;
+
+        // Get NumberArray for DataChan and return precision if not default
+        NumberArray dataArray = getNumberArrayForChannel(dataChan);
+        NumberPrecision precision = dataArray != null ? dataArray.getPrecision() : null;
+        return precision != NumberPrecision.Double ? precision : null;
+    }
+
     /**
      * Standard toStringProps implementation.
      */
@@ -82,6 +82,45 @@ public class DataSetImpl extends DataSet {
         _pointCount++;
     }
 
+    /**
+     * Adds points at end for given range of channel data arrays (arrays can be null for missing channels).
+     */
+    @Override
+    public void addPoints(double[] dataX, double[] dataY, double[] dataZ, String[] dataC, int aStart, int aCount)
+    {
+        // Get DataType
+        DataType dataType = getDataType();
+        DataChan[] dataChans = dataType.getChannelsXY();
+
+        // Add channel values (missing channels get default values, like addPoint)
+        for (DataChan chan : dataChans) {
+            switch (chan) {
+                case X: addDoublesToArray(_dataX, dataX, aStart, aCount); break;
+                case Y: addDoublesToArray(_dataY, dataY, aStart, aCount); break;
+                case Z: addDoublesToArray(_dataZ, dataZ, aStart, aCount); break;
+                case C:
+                    if (dataC != null)
+                        _dataC.addStrings(dataC, aStart, aCount);
+                    else _dataC.addStrings(new String[aCount], 0, aCount);
+                    break;
+                default: break;
+            }
+        }
+
+        // Update point count
+        _pointCount += aCount;
+    }
+
+    /**
+     * Adds the given range of double values to given NumberArray (or zeros if values array is null).
+     */
+    private static void addDoublesToArray(NumberArray aNumberArray, double[] theValues, int aStart, int aCount)
+    {
+        if (theValues != null)
+            aNumberArray.addDoubles(theValues, aStart, aCount);
+        else aNumberArray.addDoubles(new double[aCount], 0, aCount);
+    }
+
     /**
      * Removes a point at given index.
      */
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+
+/**
+ * This DataSetView subclass is an arbitrary selection of the points of another DataSet, defined by an index map
+ * (like points that pass a filter or points in sorted order).
+ */
+public class DataSetIndexed extends DataSetView {
+
+    // The source DataSet point index for each view point
+    private int[]  _indexes;
+
+    /**
+     * Constructor for source DataSet and source point indexes (array is used directly, not copied).
+     */
+    public DataSetIndexed(DataSet aDataSet, int[] theIndexes)
+    {
+        super(aDataSet);
+        _indexes = theIndexes;
+        initDataArrays(theIndexes.length);
+    }
+
+    /**
+     * Returns the source DataSet point indexes.
+     */
+    public int[] getIndexes()  { return _indexes; }
+
+    /**
+     * Returns the source DataSet point index for given view point index.
+     */
+    @Override
+    public int getSourceIndex(int anIndex)
+    {
+        return _indexes[anIndex];
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+import java.io.File;
+
+/**
+ * This DataSet subclass maps a directory of raw little-endian float64 column files (one file per channel, named for
+ * channel: x.bin, y.bin, z.bin) as read-only MappedDoubleArrays. Data is read from the mapped files on demand, so it
+ * isn't subject to the DataSetImpl point limit or heap size.
+ *
+ * Not all trace paths keep data mapped. These still copy full columns to the heap: log axis data, expression data,
+ * the theta column of polar data and cloned (stacked) data. Display data and the point index for selection only
+ * convert the visible range of points (found by binary search, since X values are expected to be sorted).
+ */
+public class DataSetMapped extends DataSet {
+
+    // The directory
+    private File  _dir;
+
+    /**
+     * Constructor for directory of column files.
+     */
+    public DataSetMapped(File aDir)
+    {
+        _dir = aDir;
+
+        // Get column files for X, Y, Z
+        File fileX = getColumnFile(aDir, DataChan.X);
+        File fileY = getColumnFile(aDir, DataChan.Y);
+        File fileZ = getColumnFile(aDir, DataChan.Z);
+        if (fileX == null || fileY == null)
+            throw new IllegalArgumentException("DataSetMapped: X and Y column files not found in: " + aDir);
+
+        // Set DataType
+        DataType dataType = fileZ != null ? DataType.XYZ : DataType.XY;
+        setDataType(dataType);
+        setName(aDir.getName());
+
+        // Create/set DataArrays
+        DataArray[] dataArrays = fileZ != null ?
+            new DataArray[] { new MappedDoubleArray(fileX), new MappedDoubleArray(fileY), new MappedDoubleArray(fileZ) } :
+            new DataArray[] { new MappedDoubleArray(fileX), new MappedDoubleArray(fileY) };
+        setDataArrays(dataArrays);
+
+        // Make sure PointCount is min of columns (in case files differ)
+        for (DataArray dataArray : dataArrays)
+            _pointCount = Math.min(_pointCount, dataArray.length());
+    }
+
+    /**
+     * Returns the directory.
+     */
+    public File getDir()  { return _dir; }
+
+    /**
+     * Returns the number of points.
+     */
+    @Override
+    public int getPointCount()  { return _pointCount; }
+
+    @Override
+    public void setPointCount(int aValue)
+    {
+        throw new RuntimeException("DataSetMapped: setPointCount not implemented");
+    }
+
+    @Override
+    public void addPoint(DataPoint aPoint, int anIndex)
+    {
+        throw new RuntimeException("DataSetMapped: addPoint not implemented");
+    }
+
+    @Override
+    public void addPoints(double[] dataX, double[] dataY, double[] dataZ, String[] dataC, int aStart, int aCount)
+    {
+        throw new RuntimeException("DataSetMapped: addPoints not implemented");
+    }
+
+    @Override
+    public void removePoint(int anIndex)
+    {
+        throw new RuntimeException("DataSetMapped: removePoint not implemented");
+    }
+
+    @Override
+    public void setPoint(DataPoint aPoint, int anIndex)
+    {
+        throw new RuntimeException("DataSetMapped: setPoint not implemented");
+    }
+
+    @Override
+    public void clearPoints()
+    {
+        throw new RuntimeException("DataSetMapped: clearPoints not implemented");
+    }
+
+    @Override
+    public boolean isClear()  { return _pointCount == 0; }
+
+    /**
+     * Override to return an editable heap copy (clones are used to modify data, like for stacking).
+     */
+    @Override
+    public DataSet clone()
+    {
+        DataType dataType = getDataType();
+        DataSet clone = DataSet.newDataSetForTypeAndValues(dataType, getDataX(), getDataY(), getDataZ());
+        clone.setName(getName());
+        return clone;
+    }
+
+    /**
+     * Returns the column file for given channel in given directory (file name without extension matches channel).
+     */
+    private static File getColumnFile(File aDir, DataChan aChan)
+    {
+        File[] files = aDir.listFiles();
+        if (files == null)
+            return null;
+
+        // Iterate over files and return first with matching name
+        String chanName = aChan.getName();
+        for (File file : files) {
+            String fileName = file.getName();
+            int extIndex = fileName.lastIndexOf('.');
+            String baseName = extIndex > 0 ? fileName.substring(0, extIndex) : fileName;
+            if (baseName.equalsIgnoreCase(chanName) && file.isFile())
+                return file;
+        }
+
+        // Return not found
+        return null;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+
+/**
+ * This DataSet subclass holds the last N points of a stream (like live telemetry) in fixed capacity ring buffers.
+ * Adding a point to the end of a full DataSet evicts the first point, so memory stays bounded and appends are O(1).
+ */
+public class DataSetRing extends DataSet {
+
+    // The maximum number of points
+    private int  _capacity;
+
+    /**
+     * Constructor for DataType and capacity.
+     */
+    public DataSetRing(DataType aDataType, int aCapacity)
+    {
+        _capacity = aCapacity;
+        setDataType(aDataType);
+
+        // Create ring DataArrays for channels
+        DataChan[] channels = aDataType.getChannelsXY();
+        DataArray[] dataArrays = new DataArray[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            DataChan chan = channels[i];
+            switch (chan) {
+                case X: case Y: case Z: dataArrays[i] = new DoubleRingArray(aCapacity); break;
+                default: throw new IllegalArgumentException("DataSetRing: Unsupported channel: " + chan);
+            }
+        }
+
+        // Set DataArrays
+        setDataArrays(dataArrays);
+    }
+
+    /**
+     * Returns the maximum number of points.
+     */
+    public int getCapacity()  { return _capacity; }
+
+    /**
+     * Sets the maximum number of points (keeps the last points if capacity shrinks).
+     */
+    public void setCapacity(int aValue)
+    {
+        // If already set, just return
+        if (aValue == _capacity) return;
+
+        // Forward to DataArrays
+        for (DataArray dataArray : _dataArrays)
+            ((DoubleRingArray) dataArray).setCapacity(aValue);
+
+        // Update capacity and point count
+        _capacity = aValue;
+        _pointCount = Math.min(_pointCount, aValue);
+    }
+
+    /**
+     * Returns the number of points.
+     */
+    @Override
+    public int getPointCount()  { return _pointCount; }
+
+    /**
+     * Sets the number of points.
+     */
+    @Override
+    public void setPointCount(int aValue)
+    {
+        // Forward to DataArrays
+        int pointCount = Math.min(Math.max(aValue, 0), _capacity);
+        for (DataArray dataArray : _dataArrays)
+            dataArray.setLength(pointCount);
+        _pointCount = pointCount;
+    }
+
+    /**
+     * Adds a point for X and Y values (evicting first point if full).
+     */
+    @Override
+    public void addPoint(DataPoint aPoint, int anIndex)
+    {
+        // Get DataType
+        DataType dataType = getDataType();
+        DataChan[] dataChans = dataType.getChannelsXY();
+
+        // Set channel values
+        for (DataChan chan : dataChans) {
+            switch (chan) {
+                case X: _dataX.addDouble(aPoint.getX(), anIndex); break;
+                case Y: _dataY.addDouble(aPoint.getY(), anIndex); break;
+                case Z: _dataZ.addDouble(aPoint.getZ(), anIndex); break;
+                default: break;
+            }
+        }
+
+        // Update point count
+        _pointCount = Math.min(_pointCount + 1, _capacity);
+    }
+
+    /**
+     * Adds points at end for given range of channel data arrays (evicting first points as needed).
+     */
+    @Override
+    public void addPoints(double[] dataX, double[] dataY, double[] dataZ, String[] dataC, int aStart, int aCount)
+    {
+        // Get DataType
+        DataType dataType = getDataType();
+        DataChan[] dataChans = dataType.getChannelsXY();
+
+        // Add channel values (missing channels get zeros)
+        double[] zeros = null;
+        for (DataChan chan : dataChans) {
+            double[] values = chan == DataChan.X ? dataX : chan == DataChan.Y ? dataY : dataZ;
+            int start = aStart;
+            if (values == null) {
+                if (zeros == null)
+                    zeros = new double[aCount];
+                values = zeros;
+                start = 0;
+            }
+            NumberArray dataArray = chan == DataChan.X ? _dataX : chan == DataChan.Y ? _dataY : _dataZ;
+            dataArray.addDoubles(values, start, aCount);
+        }
+
+        // Update point count
+        _pointCount = Math.min(_pointCount + aCount, _capacity);
+    }
+
+    /**
+     * Removes a point at given index.
+     */
+    @Override
+    public void removePoint(int anIndex)
+    {
+        // Iterate over DataArrays and remove index
+        for (DataArray dataArray : _dataArrays)
+            dataArray.removeIndex(anIndex);
+
+        // Update point count
+        _pointCount--;
+    }
+
+    /**
+     * Sets a point for X and Y values.
+     */
+    @Override
+    public void setPoint(DataPoint aPoint, int anIndex)
+    {
+        // Get DataType
+        DataType dataType = getDataType();
+        DataChan[] dataChans = dataType.getChannelsXY();
+
+        // Set channel values
+        for (DataChan chan : dataChans) {
+            switch (chan) {
+                case X: _dataX.setDouble(aPoint.getX(), anIndex); break;
+                case Y: _dataY.setDouble(aPoint.getY(), anIndex); break;
+                case Z: _dataZ.setDouble(aPoint.getZ(), anIndex); break;
+                default: break;
+            }
+        }
+    }
+
+    /**
+     * Clears all points.
+     */
+    @Override
+    public void clearPoints()
+    {
+        // Iterate over DataArrays and reset length
+        for (DataArray dataArray : _dataArrays)
+            dataArray.setLength(0);
+
+        _pointCount = 0;
+    }
+
+    /**
+     * Returns whether this dataset is clear (no name and no values).
+     */
+    @Override
+    public boolean isClear()
+    {
+        return _pointCount == 0;
+    }
+
+    /**
+     * Override to copy arrays.
+     */
+    @Override
+    public DataSet clone()
+    {
+        // Do normal version
+        DataSetRing clone = (DataSetRing) super.clone();
+
+        // Clone DataArrays
+        DataArray[] dataArrays = _dataArrays.clone();
+        for (int i = 0; i < dataArrays.length; i++)
+            dataArrays[i] = ((DoubleRingArray) dataArrays[i]).clone();
+        clone.setDataArrays(dataArrays);
+
+        // Return
+        return clone;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+
+/**
+ * This DataSetView subclass is a contiguous or strided range of the points of another DataSet.
+ */
+public class DataSetSlice extends DataSetView {
+
+    // The start index in source DataSet
+    private int  _start;
+
+    // The index stride in source DataSet
+    private int  _stride;
+
+    /**
+     * Constructor for source DataSet and contiguous range.
+     */
+    public DataSetSlice(DataSet aDataSet, int aStart, int aCount)
+    {
+        this(aDataSet, aStart, aCount, 1);
+    }
+
+    /**
+     * Constructor for source DataSet, start index, point count and stride (like 2 for every other point).
+     */
+    public DataSetSlice(DataSet aDataSet, int aStart, int aCount, int aStride)
+    {
+        super(aDataSet);
+
+        // Check range
+        int lastIndex = aStart + (aCount - 1) * aStride;
+        if (aStride < 1 || aCount < 0 || aStart < 0 || aCount > 0 && lastIndex >= aDataSet.getPointCount())
+            throw new IndexOutOfBoundsException("DataSetSlice: Invalid range: " + aStart + ", " + aCount + ", " + aStride);
+
+        // Set ivars and create view arrays
+        _start = aStart;
+        _stride = aStride;
+        initDataArrays(aCount);
+    }
+
+    /**
+     * Returns the start index in source DataSet.
+     */
+    public int getStart()  { return _start; }
+
+    /**
+     * Returns the index stride in source DataSet.
+     */
+    public int getStride()  { return _stride; }
+
+    /**
+     * Returns the source DataSet point index for given view point index.
+     */
+    @Override
+    public int getSourceIndex(int anIndex)
+    {
+        return _start + anIndex * _stride;
+    }
+
+    /**
+     * Override to forward contiguous slices to source DataSet bulk copy.
+     */
+    @Override
+    public void copyDataX(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        if (_stride == 1)
+            _dataSet.copyDataX(_start + aStart, anArray, anArrayStart, aCount);
+        else super.copyDataX(aStart, anArray, anArrayStart, aCount);
+    }
+
+    /**
+     * Override to forward contiguous slices to source DataSet bulk copy.
+     */
+    @Override
+    public void copyDataY(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        if (_stride == 1)
+            _dataSet.copyDataY(_start + aStart, anArray, anArrayStart, aCount);
+        else super.copyDataY(aStart, anArray, anArrayStart, aCount);
+    }
+
+    /**
+     * Override to forward contiguous slices to source DataSet bulk copy.
+     */
+    @Override
+    public void copyDataZ(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        if (_stride == 1)
+            _dataSet.copyDataZ(_start + aStart, anArray, anArrayStart, aCount);
+        else super.copyDataZ(aStart, anArray, anArrayStart, aCount);
+    }
+}
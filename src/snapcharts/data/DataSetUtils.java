@@ -2,7 +2,6 @@ package snapcharts.data;
 import snap.util.KeyChain;
 import snap.util.MathUtils;
 import snapcharts.view.ChartViewUtils;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,16 +24,8 @@ public class DataSetUtils {
         if (len == Integer.MAX_VALUE)
             return;
 
-        // Iterate over data arrays and add to DataSet
-        for (int i = 0; i < len; i++) {
-            Double valX = dataX != null ? dataX[i] : null;
-            Double valY = dataY != null ? dataY[i] : null;
-            Double valZ = dataZ != null ? dataZ[i] : null;
-            String valC = dataC != null ? dataC[i] : null;
-            DataPoint dataPoint = new DataPoint(valX, valY, valZ, valC);
-            int index = aDataSet.getPointCount();
-            aDataSet.addPoint(dataPoint, index);
-        }
+        // Add data arrays to DataSet in one batch
+        aDataSet.addPoints(dataX, dataY, dataZ, dataC, 0, len);
     }
 
     /**
@@ -42,8 +33,17 @@ public class DataSetUtils {
      */
     public static int getStartIndexForRange(DataSet aDataSet, double aMin, double aMax)
     {
-        int start = 0;
+        // If X values sorted, use binary search: Start is point before first point at or above min
         int pointCount = aDataSet.getPointCount();
+        if (pointCount > 0 && isSortedX(aDataSet)) {
+            int index = getIndexForXBinarySearch(aDataSet, aMin, 0);
+            if (index > 0 && index < pointCount)
+                return index - 1;
+            return index == 0 && aDataSet.getX(0) <= aMax ? 0 : pointCount;
+        }
+
+        // Otherwise, scan from start
+        int start = 0;
         while (start<pointCount && !isArrayValueAtIndexInsideOrInsideAdjacent(aDataSet, start, pointCount, aMin, aMax))
             start++;
         return start;
@@ -54,7 +54,16 @@ public class DataSetUtils {
      */
     public static int getEndIndexForRange(DataSet aDataSet, double aMin, double aMax)
     {
+        // If X values sorted, use binary search: End is first point above max
         int pointCount = aDataSet.getPointCount();
+        if (pointCount > 0 && isSortedX(aDataSet)) {
+            int index = getIndexForXBinarySearch(aDataSet, Math.nextUp(aMax), 0);
+            if (index > 0 && index < pointCount)
+                return index;
+            return index == pointCount && aDataSet.getX(pointCount - 1) >= aMin ? pointCount - 1 : 0;
+        }
+
+        // Otherwise, scan from end
         int end = pointCount - 1;
         while (end>0 && !isArrayValueAtIndexInsideOrInsideAdjacent(aDataSet, end, pointCount, aMin, aMax))
             end--;
@@ -91,6 +100,105 @@ public class DataSetUtils {
         return false;
     }
 
+    /**
+     * Returns the indexes of the points needed to draw a line for given DataSet (sorted by X) for given X range and
+     * number of pixel columns: The first, min Y, max Y and last point of each column (M4), plus the adjacent points
+     * outside range. Returns null if DataSet can't be decimated (X not sorted, Y has NaNs or isn't index aligned).
+     */
+    public static int[] getDecimatedIndexesForRange(DataSet aDataSet, double aMinX, double aMaxX, int aColumnCount)
+    {
+        // If DataSet points aren't DataArray values, just return
+        int pointCount = aDataSet.getPointCount();
+        NumberArray dataArrayY = aDataSet.getDataArrayY();
+        if (dataArrayY == null || dataArrayY.length() != pointCount)
+            return null;
+
+        // If Y has NaN values (line breaks) or X isn't sorted, just return
+        if (dataArrayY.getNaNCount() > 0 || !isSortedX(aDataSet))
+            return null;
+
+        // Get MinMaxPyramid for Y (cached by array and extended for added points)
+        MinMaxPyramid minMaxPyramid = dataArrayY.getMinMaxPyramid();
+        IntArray indexes = new IntArray();
+
+        // Add point before range
+        int startIndex = getIndexForXBinarySearch(aDataSet, aMinX, 0);
+        if (startIndex > 0)
+            indexes.add(startIndex - 1);
+
+        // Iterate over pixel columns and add first, min, max, last point indexes
+        double columnWidth = (aMaxX - aMinX) / aColumnCount;
+        int columnStart = startIndex;
+        for (int col = 0; col < aColumnCount && columnStart < pointCount; col++) {
+
+            // Get column end (last column includes points at max X)
+            int columnEnd = col + 1 < aColumnCount ? getIndexForXBinarySearch(aDataSet, aMinX + columnWidth * (col + 1), columnStart) :
+                getIndexForXBinarySearch(aDataSet, Math.nextUp(aMaxX), columnStart);
+            if (columnEnd <= columnStart)
+                continue;
+
+            // Get first, min, max, last indexes and add in order (skipping dupes)
+            int minIndex = minMaxPyramid.getMinIndex(columnStart, columnEnd);
+            int maxIndex = minMaxPyramid.getMaxIndex(columnStart, columnEnd);
+            int lowIndex = Math.min(minIndex, maxIndex);
+            int highIndex = Math.max(minIndex, maxIndex);
+            int lastIndex = columnEnd - 1;
+            indexes.add(columnStart);
+            if (lowIndex > columnStart)
+                indexes.add(lowIndex);
+            if (highIndex > lowIndex && highIndex > columnStart)
+                indexes.add(highIndex);
+            if (lastIndex > highIndex)
+                indexes.add(lastIndex);
+            columnStart = columnEnd;
+        }
+
+        // Add point after range
+        if (columnStart < pointCount)
+            indexes.add(columnStart);
+
+        // Return
+        return indexes.intArray();
+    }
+
+    /**
+     * Returns whether given DataSet X values are sorted (ascending).
+     */
+    public static boolean isSortedX(DataSet aDataSet)
+    {
+        // If X values are DataArray values, return DataArray sort order (tracked by array) - no DataArray means X is index
+        int pointCount = aDataSet.getPointCount();
+        NumberArray dataArrayX = aDataSet.getDataArrayX();
+        if (dataArrayX == null)
+            return true;
+        if (dataArrayX.length() == pointCount)
+            return dataArrayX.isSortedAscending();
+
+        // Iterate over X values and return false if any value is less than previous
+        for (int i = 1; i < pointCount; i++)
+            if (!(aDataSet.getX(i) >= aDataSet.getX(i - 1)))
+                return false;
+
+        // Return true
+        return true;
+    }
+
+    /**
+     * Returns the index of the first point with X value greater than or equal to given value (DataSet X must be sorted).
+     */
+    public static int getIndexForXBinarySearch(DataSet aDataSet, double aX, int aStart)
+    {
+        int low = aStart;
+        int high = aDataSet.getPointCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (aDataSet.getX(mid) < aX)
+                low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
     /**
      * Returns a copy of given DataSet processed with given expressions.
      */
@@ -103,6 +211,35 @@ public class DataSetUtils {
         if (isEmptyX && isEmptyY && isEmptyZ)
             return aDataSet;
 
+        // Get compiled expressions (empty expressions just return channel value)
+        DataExpr dataExprX = isEmptyX ? DataExpr.X : DataExpr.compile(exprX);
+        DataExpr dataExprY = isEmptyY ? DataExpr.Y : DataExpr.compile(exprY);
+        DataExpr dataExprZ = isEmptyZ ? DataExpr.Z : DataExpr.compile(exprZ);
+
+        // If all expressions compiled, evaluate over DataSet points and return new DataSet for type and values
+        if (dataExprX != null && dataExprY != null && dataExprZ != null) {
+            DataType dataType = aDataSet.getDataType();
+            double[] dataX = dataExprX.evalForDataSet(aDataSet);
+            double[] dataY = dataExprY.evalForDataSet(aDataSet);
+            double[] dataZ = dataType.hasZ() ? dataExprZ.evalForDataSet(aDataSet) : null;
+            return DataSet.newDataSetForTypeAndValues(dataType, DoubleArray.wrap(dataX), DoubleArray.wrap(dataY),
+                dataZ != null ? DoubleArray.wrap(dataZ) : null);
+        }
+
+        // Otherwise, process with KeyChains
+        return getProcessedDataForKeyChains(aDataSet, exprX, exprY, exprZ);
+    }
+
+    /**
+     * Returns a copy of given DataSet processed with given expressions using KeyChain (for unsupported expressions).
+     */
+    private static DataSet getProcessedDataForKeyChains(DataSet aDataSet, String exprX, String exprY, String exprZ)
+    {
+        // Get whether expressions are empty
+        boolean isEmptyX = exprX == null || exprX.length() == 0;
+        boolean isEmptyY = exprY == null || exprY.length() == 0;
+        boolean isEmptyZ = exprZ == null || exprZ.length() == 0;
+
         // Get KeyChains
         KeyChain keyChainX = !isEmptyX ? KeyChain.getKeyChain(exprX.toLowerCase()) : null;
         KeyChain keyChainY = !isEmptyY ? KeyChain.getKeyChain(exprY.toLowerCase()) : null;
@@ -131,8 +268,9 @@ public class DataSetUtils {
                 dataZ[i] = isEmptyZ ? valZ : KeyChain.getDoubleValue(map, keyChainZ);
         }
 
-        // Return new DataSet for type and values
-        return DataSet.newDataSetForTypeAndValues(dataType, dataX, dataY, dataZ);
+        // Return new DataSet for type and values (arrays are new, so no need to copy)
+        return DataSet.newDataSetForTypeAndValues(dataType, DoubleArray.wrap(dataX), DoubleArray.wrap(dataY),
+            dataZ != null ? DoubleArray.wrap(dataZ) : null);
     }
 
     /**
@@ -159,7 +297,8 @@ public class DataSetUtils {
         }
 
         // Return new DataSet for type and values
-        return DataSet.newDataSetForTypeAndValues(dataType, dataX, dataY, dataZ);
+        return DataSet.newDataSetForTypeAndValues(dataType, DoubleArray.wrap(dataX), DoubleArray.wrap(dataY),
+            dataZ != null ? DoubleArray.wrap(dataZ) : null);
     }
 
     /**
@@ -191,14 +330,14 @@ public class DataSetUtils {
             dataT[i] = valTheta;
         }
 
-        // Get DataR and DataZ
-        double[] dataR = aDataSet.getDataY();
-        double[] dataZ = aDataSet.getDataType().hasZ() ? aDataSet.getDataZ() : null;
+        // Get DataR and DataZ (source arrays are shared, not copied, since they might be large or memory-mapped)
+        Object dataR = aDataSet.getDataArrayY();
+        Object dataZ = aDataSet.getDataType().hasZ() ? aDataSet.getDataArrayZ() : null;
         if (aDataType.hasZ() && dataZ == null)
             dataZ = new double[pointCount];
 
         // Create new DataSet for type and values and return
-        DataSet polarData = DataSet.newDataSetForTypeAndValues(aDataType, dataT, dataR, dataZ);
+        DataSet polarData = DataSet.newDataSetForTypeAndValues(aDataType, DoubleArray.wrap(dataT), dataR, dataZ);
         polarData.setThetaUnit(DataUnit.Radians);
         return polarData;
     }
@@ -240,7 +379,7 @@ public class DataSetUtils {
         DataType dataType = dataZ == null ? DataType.XY : DataType.XYZ;
 
         // Return new DataSet for type and values
-        return DataSet.newDataSetForTypeAndValues(dataType, dataX, dataY, dataZ);
+        return DataSet.newDataSetForTypeAndValues(dataType, DoubleArray.wrap(dataX), DoubleArray.wrap(dataY), dataZ);
     }
 
     /**
@@ -311,14 +450,12 @@ public class DataSetUtils {
         if (pointCount == 0)
             return 0;
 
-        // Get index for given X value
-        double[] dataX = aDataSet.getDataX();
-        int index = Arrays.binarySearch(dataX, aX);
-        if (index >= 0)
-            return aDataSet.getY(index);
+        // Get index for given X value (without copying X values)
+        int highIndex = getIndexForXBinarySearch(aDataSet, aX, 0);
+        if (highIndex < pointCount && aDataSet.getX(highIndex) == aX)
+            return aDataSet.getY(highIndex);
 
-        // Get lower/upper indexes
-        int highIndex = -index - 1;
+        // Get lower index
         int lowIndex = highIndex - 1;
 
         // If beyond end, just return last Y
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+
+/**
+ * This DataSet subclass is a read-only view of the points of another DataSet (like a slice, an index map or periodic
+ * wrap). No values are copied: Views map each point index to a source point index, and their DataArrays forward to
+ * the view, so array methods (min/max, sort order, bulk copy) work as expected for view points.
+ */
+public abstract class DataSetView extends DataSet {
+
+    // The source DataSet
+    protected DataSet  _dataSet;
+
+    /**
+     * Constructor for source DataSet.
+     */
+    public DataSetView(DataSet aDataSet)
+    {
+        _dataSet = aDataSet;
+        setName(aDataSet.getName());
+        setDataType(aDataSet.getDataType());
+    }
+
+    /**
+     * Returns the source DataSet.
+     */
+    public DataSet getDataSet()  { return _dataSet; }
+
+    /**
+     * Creates the view DataArrays for given point count (subclasses call this when point count is known).
+     */
+    protected void initDataArrays(int aPointCount)
+    {
+        // Create view DataArrays for number channels (C values are forwarded by getC)
+        DataChan[] channels = getDataType().getChannelsXY();
+        DataArray[] dataArrays = new DataArray[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            DataChan chan = channels[i];
+            if (chan == DataChan.X || chan == DataChan.Y || chan == DataChan.Z)
+                dataArrays[i] = new ViewArray(this, chan, aPointCount);
+        }
+
+        // Set DataArrays and point count
+        setDataArrays(dataArrays);
+        _pointCount = aPointCount;
+    }
+
+    /**
+     * Returns the source DataSet point index for given view point index.
+     */
+    public abstract int getSourceIndex(int anIndex);
+
+    /**
+     * Returns the number of points.
+     */
+    @Override
+    public int getPointCount()  { return _pointCount; }
+
+    /**
+     * Returns the X value at given index.
+     */
+    @Override
+    public double getX(int anIndex)
+    {
+        return _dataSet.getX(getSourceIndex(anIndex));
+    }
+
+    /**
+     * Returns the Y value at given index.
+     */
+    @Override
+    public double getY(int anIndex)
+    {
+        return _dataSet.getY(getSourceIndex(anIndex));
+    }
+
+    /**
+     * Returns the Z value at given index.
+     */
+    @Override
+    public double getZ(int anIndex)
+    {
+        return _dataSet.getZ(getSourceIndex(anIndex));
+    }
+
+    /**
+     * Returns the C value at given index.
+     */
+    @Override
+    public String getC(int anIndex)
+    {
+        return _dataSet.getC(getSourceIndex(anIndex));
+    }
+
+    /**
+     * Copies given range of X values to given array.
+     */
+    @Override
+    public void copyDataX(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        for (int i = 0; i < aCount; i++)
+            anArray[anArrayStart + i] = getX(aStart + i);
+    }
+
+    /**
+     * Copies given range of Y values to given array.
+     */
+    @Override
+    public void copyDataY(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        for (int i = 0; i < aCount; i++)
+            anArray[anArrayStart + i] = getY(aStart + i);
+    }
+
+    /**
+     * Copies given range of Z values to given array.
+     */
+    @Override
+    public void copyDataZ(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        for (int i = 0; i < aCount; i++)
+            anArray[anArrayStart + i] = getZ(aStart + i);
+    }
+
+    /**
+     * Returns the C values.
+     */
+    @Override
+    public String[] getDataC()
+    {
+        // If no C values, just return
+        if (_dataSet.getDataArrayC() == null)
+            return null;
+
+        // Get C values for view points
+        String[] dataC = new String[_pointCount];
+        for (int i = 0; i < _pointCount; i++)
+            dataC[i] = getC(i);
+        return dataC;
+    }
+
+    /**
+     * Override to forward to view channel values.
+     */
+    @Override
+    public Object getValueForChannel(DataChan aChan, int anIndex)
+    {
+        switch (aChan) {
+            case X: case T: return getX(anIndex);
+            case Y: case R: return getY(anIndex);
+            case Z: return getZ(anIndex);
+            default: return _dataSet.getValueForChannel(aChan, getSourceIndex(anIndex));
+        }
+    }
+
+    @Override
+    public void setPointCount(int aValue)
+    {
+        throw new RuntimeException("DataSetView: setPointCount not implemented");
+    }
+
+    @Override
+    public void addPoint(DataPoint aPoint, int anIndex)
+    {
+        throw new RuntimeException("DataSetView: addPoint not implemented");
+    }
+
+    @Override
+    public void addPoints(double[] dataX, double[] dataY, double[] dataZ, String[] dataC, int aStart, int aCount)
+    {
+        throw new RuntimeException("DataSetView: addPoints not implemented");
+    }
+
+    @Override
+    public void removePoint(int anIndex)
+    {
+        throw new RuntimeException("DataSetView: removePoint not implemented");
+    }
+
+    @Override
+    public void setPoint(DataPoint aPoint, int anIndex)
+    {
+        throw new RuntimeException("DataSetView: setPoint not implemented");
+    }
+
+    @Override
+    public void clearPoints()
+    {
+        throw new RuntimeException("DataSetView: clearPoints not implemented");
+    }
+
+    @Override
+    public boolean isClear()  { return _pointCount == 0; }
+
+    /**
+     * Override to return an editable heap copy of view points (clones are used to modify data, like for stacking).
+     */
+    @Override
+    public DataSet clone()
+    {
+        // Get values for channels
+        DataType dataType = getDataType();
+        DataChan[] channels = dataType.getChannelsXY();
+        Object[] dataArrays = new Object[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            switch (channels[i]) {
+                case X: dataArrays[i] = getDataX(); break;
+                case Y: dataArrays[i] = getDataY(); break;
+                case Z: dataArrays[i] = getDataZ(); break;
+                case C: dataArrays[i] = getDataC(); break;
+                default: break;
+            }
+        }
+
+        // Create/return new DataSet
+        DataSet clone = DataSet.newDataSetForTypeAndValues(dataType, dataArrays);
+        clone.setName(getName());
+        return clone;
+    }
+
+    /**
+     * A NumberArray that forwards to view channel values.
+     */
+    private static class ViewArray extends NumberArray {
+
+        // The view and channel
+        private DataSetView  _view;
+        private DataChan  _chan;
+
+        /**
+         * Constructor.
+         */
+        public ViewArray(DataSetView aView, DataChan aChan, int aLength)
+        {
+            _view = aView;
+            _chan = aChan;
+            _length = aLength;
+        }
+
+        @Override
+        public double getDouble(int anIndex)
+        {
+            switch (_chan) {
+                case X: return _view.getX(anIndex);
+                case Y: return _view.getY(anIndex);
+                default: return _view.getZ(anIndex);
+            }
+        }
+
+        @Override
+        public void copyToArray(int aStart, double[] anArray, int anArrayStart, int aCount)
+        {
+            switch (_chan) {
+                case X: _view.copyDataX(aStart, anArray, anArrayStart, aCount); break;
+                case Y: _view.copyDataY(aStart, anArray, anArrayStart, aCount); break;
+                default: _view.copyDataZ(aStart, anArray, anArrayStart, aCount); break;
+            }
+        }
+
+        @Override
+        public double[] doubleArray()
+        {
+            // If already set, just return
+            if (_doubleArray != null) return _doubleArray;
+
+            // Create, set, return
+            double[] doubleArray = new double[_length];
+            copyToArray(0, doubleArray, 0, _length);
+            return _doubleArray = doubleArray;
+        }
+
+        @Override
+        public void setLength(int aValue)
+        {
+            throw new RuntimeException("DataSetView.ViewArray: setLength not implemented");
+        }
+
+        @Override
+        public void setDouble(double aValue, int anIndex)
+        {
+            throw new RuntimeException("DataSetView.ViewArray: setDouble not implemented");
+        }
+
+        @Override
+        public void addDouble(double aValue, int anIndex)
+        {
+            throw new RuntimeException("DataSetView.ViewArray: addDouble not implemented");
+        }
+
+        @Override
+        public void removeIndex(int anIndex)
+        {
+            throw new RuntimeException("DataSetView.ViewArray: removeIndex not implemented");
+        }
+    }
+}
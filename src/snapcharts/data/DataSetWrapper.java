@@ -5,12 +5,10 @@ package snapcharts.data;
 import snap.util.Range;
 
 /**
- * A DataSet implementation that wraps around another DataSet and extends its data to any min/max.
+ * A DataSetView that wraps around another DataSet and extends its data to any min/max, by repeating source points
+ * (shifted by cycle X range) for each cycle.
  */
-public class DataSetWrapper extends DataSet {
-
-    // The wrapped DataSet
-    private DataSet  _dataSet;
+public class DataSetWrapper extends DataSetView {
 
     // The raw min/max X
     private double  _rawMinX, _rawMaxX;
@@ -18,58 +16,48 @@ public class DataSetWrapper extends DataSet {
     // The raw pointCount
     private int  _rawPointCount;
 
-    // The wrap pointCount
-    private int  _wrapPointCount;
-
-    // The start index in wrapped DataSet
+    // The start index in wrapped DataSet (can be negative)
     private int  _start;
 
-    // The end index in wrapped DataSet
-    private int  _end;
-
-    // The maximum number of wrapped points allowed
-    private static int MAX_WRAPPED_POINTS = 10000;
-
     /**
      * Constructor.
      */
     public DataSetWrapper(DataSet aDataSet, double aRawMinX, double aRawMaxX, double aWrapMinX, double aWrapMaxX)
     {
-        // Get DataSet info
-        _dataSet = aDataSet;
-        _dataArrays = _dataSet.getDataArrays();
-        _dataX = _dataSet.getDataArrayX();
-        _dataY = _dataSet.getDataArrayY();
-        _dataZ = _dataSet.getDataArrayZ();
-        _dataC = _dataSet.getDataArrayC();
+        super(aDataSet);
 
         // Get info
         _rawPointCount = aDataSet.getPointCount();
         _rawMinX = aRawMinX;
         _rawMaxX = aRawMaxX;
 
-        // Get cycle range (make sure cycles * points doesn't exceed MAX_WRAPPED_POINTS)
+        // Get cycle range and set start index
         Range cycleRange = getCycleRange(aRawMinX, aRawMaxX, aWrapMinX, aWrapMaxX);
-        while (cycleRange.getLength() > 2 && cycleRange.length * _rawPointCount > MAX_WRAPPED_POINTS)
-            cycleRange = new Range(cycleRange.getStart() + 1, cycleRange.getEnd() - 1);
-
-        // Set point start/end indexes
         _start = cycleRange.start * _rawPointCount;
-        _end = cycleRange.end * _rawPointCount;
 
-        // Calc/set total number of wrapped points
-        _wrapPointCount = _end - _start;
+        // Get total number of wrapped points (if it exceeds int indexes, complain and trim cycles)
+        long wrapPointCount = (long) cycleRange.getLength() * _rawPointCount;
+        if (wrapPointCount > Integer.MAX_VALUE) {
+            System.err.println("DataSetWrapper: Too many wrapped points: " + wrapPointCount);
+            wrapPointCount = Integer.MAX_VALUE / _rawPointCount * _rawPointCount;
+        }
+
+        // Create view arrays for wrapped points
+        initDataArrays((int) wrapPointCount);
     }
 
     /**
-     * Override to return point count for wrapped data.
+     * Returns the source DataSet point index for given view point index.
      */
     @Override
-    public int getPointCount()
+    public int getSourceIndex(int anIndex)
     {
-        return _wrapPointCount;
+        return floorMod(_start + anIndex, _rawPointCount);
     }
 
+    /**
+     * Override to shift X value by cycle offset.
+     */
     @Override
     public double getX(int anIndex)
     {
@@ -83,49 +71,85 @@ public class DataSetWrapper extends DataSet {
         return valX;
     }
 
+    /**
+     * Override to return source X range (so wrapped points don't feed back into data driven axis range).
+     */
     @Override
-    public double getY(int anIndex)
-    {
-        // Get index of wrapped DataSet point and get value Y
-        int rawIndex = floorMod(_start + anIndex, _rawPointCount);
-        double valY = _dataSet.getY(rawIndex);
-        return valY;
-    }
+    public MinMax getMinMaxX()  { return _dataSet.getMinMaxX(); }
 
+    /**
+     * Override to return source Y range (same values, without scanning each cycle).
+     */
     @Override
-    public void setPointCount(int aValue)
-    {
-        throw new RuntimeException("DataSetWrapper: setPointCount not implemented");
-    }
+    public MinMax getMinMaxY()  { return _dataSet.getMinMaxY(); }
 
+    /**
+     * Override to return source Z range (same values, without scanning each cycle).
+     */
     @Override
-    public void addPoint(DataPoint aPoint, int anIndex)
-    {
-        throw new RuntimeException("DataSetWrapper: addPoint not implemented");
-    }
+    public MinMax getMinMaxZ()  { return _dataSet.getMinMaxZ(); }
 
+    /**
+     * Override to copy source values in contiguous runs (one per cycle), shifted by cycle offset.
+     */
     @Override
-    public void removePoint(int anIndex)
+    public void copyDataX(int aStart, double[] anArray, int anArrayStart, int aCount)
     {
-        throw new RuntimeException("DataSetWrapper: removePoint not implemented");
+        copyDataForChannel(DataChan.X, aStart, anArray, anArrayStart, aCount);
     }
 
+    /**
+     * Override to copy source values in contiguous runs (one per cycle).
+     */
     @Override
-    public void setPoint(DataPoint aPoint, int anIndex)
+    public void copyDataY(int aStart, double[] anArray, int anArrayStart, int aCount)
     {
-        throw new RuntimeException("DataSetWrapper: setPoint not implemented");
+        copyDataForChannel(DataChan.Y, aStart, anArray, anArrayStart, aCount);
     }
 
+    /**
+     * Override to copy source values in contiguous runs (one per cycle).
+     */
     @Override
-    public void clearPoints()
+    public void copyDataZ(int aStart, double[] anArray, int anArrayStart, int aCount)
     {
-        _dataSet.clearPoints();
+        copyDataForChannel(DataChan.Z, aStart, anArray, anArrayStart, aCount);
     }
 
-    @Override
-    public boolean isClear()
+    /**
+     * Copies given range of values for channel to given array, using source DataSet bulk copy for each cycle.
+     */
+    private void copyDataForChannel(DataChan aChan, int aStart, double[] anArray, int anArrayStart, int aCount)
     {
-        return _dataSet.isClear();
+        // Iterate over cycles in range
+        int index = _start + aStart;
+        int endIndex = index + aCount;
+        int arrayIndex = anArrayStart;
+        while (index < endIndex) {
+
+            // Get cycle, raw index and number of points left in cycle
+            int cycle = floorDiv(index, _rawPointCount);
+            int rawIndex = index - cycle * _rawPointCount;
+            int count = Math.min(endIndex - index, _rawPointCount - rawIndex);
+
+            // Copy source values
+            switch (aChan) {
+                case X: _dataSet.copyDataX(rawIndex, anArray, arrayIndex, count); break;
+                case Y: _dataSet.copyDataY(rawIndex, anArray, arrayIndex, count); break;
+                default: _dataSet.copyDataZ(rawIndex, anArray, arrayIndex, count); break;
+            }
+
+            // If X, shift values by cycle offset
+            double shiftX = aChan == DataChan.X ? cycle * (_rawMaxX - _rawMinX) : 0;
+            if (shiftX != 0) {
+                for (int i = arrayIndex, iMax = arrayIndex + count; i < iMax; i++)
+                    anArray[i] += shiftX;
+            }
+
+            // Update indexes
+            index += count;
+            arrayIndex += count;
+        }
     }
 
     /**
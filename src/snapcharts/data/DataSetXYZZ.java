@@ -22,11 +22,11 @@ public class DataSetXYZZ extends DataSet {
      */
     public DataSetXYZZ(Object ... theArrays)
     {
-        // Create/set DataArrays
-        double[] dataX = (double[]) theArrays[0];
-        double[] dataY = (double[]) theArrays[1];
-        double[] dataZ = (double[]) theArrays[2];
-        initFromArraysXYZ(dataX, dataY, dataZ);
+        // Create/set DataArrays (arrays can be double[] or NumberArray)
+        NumberArray dataX = (NumberArray) DataArray.newDataArrayForArray(theArrays[0]);
+        NumberArray dataY = (NumberArray) DataArray.newDataArrayForArray(theArrays[1]);
+        NumberArray dataZ = (NumberArray) DataArray.newDataArrayForArray(theArrays[2]);
+        initFromDataArraysXYZ(dataX, dataY, dataZ);
     }
 
     /**
@@ -41,14 +41,22 @@ public class DataSetXYZZ extends DataSet {
      * Sets DataArrays.
      */
     private void initFromArraysXYZ(double[] dataX, double[] dataY, double[] dataZ)
+    {
+        initFromDataArraysXYZ(new DoubleArray(dataX), new DoubleArray(dataY), new DoubleArray(dataZ));
+    }
+
+    /**
+     * Sets DataArrays.
+     */
+    private void initFromDataArraysXYZ(NumberArray dataX, NumberArray dataY, NumberArray dataZ)
     {
         // Set DataType XYZZ
         setDataType(DataType.XYZZ);
 
-        // Create/set DataArrays
-        _dataX = new DoubleArray(dataX);
-        _dataY = new DoubleArray(dataY);
-        _dataZ = new DoubleArray(dataZ);
+        // Set DataArrays
+        _dataX = dataX;
+        _dataY = dataY;
+        _dataZ = dataZ;
         _dataArrays = new DataArray[] { _dataX, _dataY, _dataZ };
     }
 
@@ -90,6 +98,26 @@ public class DataSetXYZZ extends DataSet {
         return _dataY.getDouble(index);
     }
 
+    /**
+     * Override to forward to getX.
+     */
+    @Override
+    public void copyDataX(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        for (int i = 0; i < aCount; i++)
+            anArray[anArrayStart + i] = getX(aStart + i);
+    }
+
+    /**
+     * Override to forward to getY.
+     */
+    @Override
+    public void copyDataY(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        for (int i = 0; i < aCount; i++)
+            anArray[anArrayStart + i] = getY(aStart + i);
+    }
+
     /**
      * Override to forward to getX/Y.
      */
@@ -111,6 +139,9 @@ public class DataSetXYZZ extends DataSet {
     @Override
     public void addPoint(DataPoint aPoint, int anIndex)  { }
 
+    @Override
+    public void addPoints(double[] dataX, double[] dataY, double[] dataZ, String[] dataC, int aStart, int aCount)  { }
+
     @Override
     public void removePoint(int anIndex)  { }
 
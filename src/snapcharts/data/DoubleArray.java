@@ -57,6 +57,15 @@ public class DoubleArray extends NumberArray {
         return _doubleArray;
     }
 
+    /**
+     * Override to copy values with array copy.
+     */
+    @Override
+    public void copyToArray(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        System.arraycopy(_doubleArray, aStart, anArray, anArrayStart, aCount);
+    }
+
     /**
      * Sets the double array.
      */
@@ -82,11 +91,13 @@ public class DoubleArray extends NumberArray {
     @Override
     public final void setDouble(double aValue, int anIndex)
     {
-        // Set value
+        // Set value and update stats
+        double oldValue = _doubleArray[anIndex];
         _doubleArray[anIndex] = aValue;
+        valueDidChange(oldValue, aValue);
 
         // Clear caches
-        clearCaches();
+        clearValueCaches();
     }
 
     /**
@@ -99,15 +110,38 @@ public class DoubleArray extends NumberArray {
             _doubleArray = Arrays.copyOf(_doubleArray, Math.max(_doubleArray.length * 2, 20));
 
         // If index is inside current length, shift existing elements over
-        if (anIndex < _length)
+        if (anIndex < _length) {
             System.arraycopy(_doubleArray, anIndex, _doubleArray, anIndex + 1, _length - anIndex);
+            clearIndexCaches();
+        }
 
         // Set value and increment length
         _doubleArray[anIndex] = aValue;
         _length++;
 
-        // Clear caches
-        clearCaches();
+        // Update stats and clear caches
+        valueDidAdd(aValue);
+        clearValueCaches();
+    }
+
+    /**
+     * Override to grow array and copy values once for whole range.
+     */
+    @Override
+    public void addDoubles(double[] theValues, int aStart, int aCount)
+    {
+        // Expand components array if needed
+        int newLength = _length + aCount;
+        if (newLength > _doubleArray.length)
+            _doubleArray = Arrays.copyOf(_doubleArray, Math.max(_doubleArray.length * 2, newLength));
+
+        // Copy values and update length
+        System.arraycopy(theValues, aStart, _doubleArray, _length, aCount);
+        _length = newLength;
+
+        // Update stats and clear caches
+        valuesDidAdd(theValues, aStart, aCount);
+        clearValueCaches();
     }
 
     /**
@@ -116,19 +150,22 @@ public class DoubleArray extends NumberArray {
     public void removeIndex(int anIndex)
     {
         // Shift remaining elements in
+        double oldValue = _doubleArray[anIndex];
         System.arraycopy(_doubleArray, anIndex + 1, _doubleArray, anIndex, _length - anIndex - 1);
         _length--;
 
-        // Clear caches
-        clearCaches();
+        // Update stats and clear caches
+        valueDidRemove(anIndex, oldValue);
+        clearValueCaches();
     }
 
     /**
-     * Override to customize.
+     * Override to clear float array.
      */
-    public void clearCaches()
+    @Override
+    protected void clearValueCaches()
     {
-        super.clearCaches();
+        super.clearValueCaches();
         _floatArray = null;
     }
 
@@ -141,7 +178,7 @@ public class DoubleArray extends NumberArray {
         DoubleStream doubleStream = DoubleStream.of(doubleArray);
         DoubleStream doubleStreamMapped = doubleStream.map(mapper);
         double[] doubleArrayMapped = doubleStreamMapped.toArray();
-        return new DoubleArray(doubleArrayMapped);
+        return wrap(doubleArrayMapped);
     }
 
     /**
@@ -153,7 +190,7 @@ public class DoubleArray extends NumberArray {
         DoubleStream doubleStream = DoubleStream.of(doubleArray);
         DoubleStream doubleStreamFiltered = doubleStream.filter(predicate);
         double[] doubleArrayFiltered = doubleStreamFiltered.toArray();
-        return new DoubleArray(doubleArrayFiltered);
+        return wrap(doubleArrayFiltered);
     }
 
     /**
@@ -189,6 +226,17 @@ public class DoubleArray extends NumberArray {
         return clone;
     }
 
+    /**
+     * Returns DoubleArray that uses given array directly (not copied), so caller shouldn't modify it afterwards.
+     */
+    public static DoubleArray wrap(double[] theValues)
+    {
+        DoubleArray doubleArray = new DoubleArray();
+        doubleArray._doubleArray = theValues;
+        doubleArray._length = theValues.length;
+        return doubleArray;
+    }
+
     /**
      * Returns DoubleArray from raw double values or array.
      */
@@ -202,7 +250,17 @@ public class DoubleArray extends NumberArray {
         if (anObj instanceof double[])
             return new DoubleArray((double[]) anObj);
 
-        // Handle Array (could be int[], float[], etc.)
+        // Handle primitive arrays
+        if (anObj instanceof int[])
+            return of((int[]) anObj);
+        if (anObj instanceof long[])
+            return of((long[]) anObj);
+        if (anObj instanceof float[])
+            return of((float[]) anObj);
+        if (anObj instanceof short[])
+            return of((short[]) anObj);
+
+        // Handle Array (could be Integer[], Number[], etc.)
         if (anObj.getClass().isArray()) {
 
             // Get double[] using Array get()
@@ -212,14 +270,22 @@ public class DoubleArray extends NumberArray {
                 Object val = Array.get(anObj, i);
                 doubleArray[i] = Convert.doubleValue(val);
             }
-            return new DoubleArray(doubleArray);
+            return wrap(doubleArray);
         }
 
+        // Handle primitive streams
+        if (anObj instanceof DoubleStream)
+            return wrap(((DoubleStream) anObj).toArray());
+        if (anObj instanceof IntStream)
+            return wrap(((IntStream) anObj).asDoubleStream().toArray());
+        if (anObj instanceof LongStream)
+            return wrap(((LongStream) anObj).asDoubleStream().toArray());
+
         // Handle Stream
         if (anObj instanceof Stream) {
             Stream<?> stream = (Stream<?>) anObj;
             double[] doubleArray = stream.mapToDouble(obj -> Convert.doubleValue(obj)).toArray();
-            return new DoubleArray(doubleArray);
+            return wrap(doubleArray);
         }
 
         // Handle BaseStream
@@ -233,7 +299,51 @@ public class DoubleArray extends NumberArray {
 
         // Just get double value of object and return as array
         double doubleValue = Convert.doubleValue(anObj);
-        return new DoubleArray(new double[] { doubleValue });
+        return wrap(new double[] { doubleValue });
+    }
+
+    /**
+     * Returns DoubleArray for given int values.
+     */
+    public static DoubleArray of(int[] theValues)
+    {
+        double[] doubleArray = new double[theValues.length];
+        for (int i = 0; i < theValues.length; i++)
+            doubleArray[i] = theValues[i];
+        return wrap(doubleArray);
+    }
+
+    /**
+     * Returns DoubleArray for given long values.
+     */
+    public static DoubleArray of(long[] theValues)
+    {
+        double[] doubleArray = new double[theValues.length];
+        for (int i = 0; i < theValues.length; i++)
+            doubleArray[i] = theValues[i];
+        return wrap(doubleArray);
+    }
+
+    /**
+     * Returns DoubleArray for given float values.
+     */
+    public static DoubleArray of(float[] theValues)
+    {
+        double[] doubleArray = new double[theValues.length];
+        for (int i = 0; i < theValues.length; i++)
+            doubleArray[i] = theValues[i];
+        return wrap(doubleArray);
+    }
+
+    /**
+     * Returns DoubleArray for given short values.
+     */
+    public static DoubleArray of(short[] theValues)
+    {
+        double[] doubleArray = new double[theValues.length];
+        for (int i = 0; i < theValues.length; i++)
+            doubleArray[i] = theValues[i];
+        return wrap(doubleArray);
     }
 
     /**
@@ -247,7 +357,7 @@ public class DoubleArray extends NumberArray {
             doubleArray[i] = Convert.doubleValue(theDoubles[i]);
 
         // Return
-        return new DoubleArray(doubleArray);
+        return wrap(doubleArray);
     }
 
     /**
@@ -274,6 +384,6 @@ public class DoubleArray extends NumberArray {
             doubleArray[i] = aMin + incr * i;
 
         // Return
-        return new DoubleArray(doubleArray);
+        return wrap(doubleArray);
     }
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+
+/**
+ * This NumberArray subclass stores values in a fixed capacity double ring buffer. Adding a value to the end of a full
+ * array evicts the first value, so appending and removing from either end are O(1).
+ */
+public class DoubleRingArray extends NumberArray {
+
+    // The ring buffer
+    private double[]  _ringArray;
+
+    // The ring buffer index of the first value
+    private int  _head;
+
+    /**
+     * Constructor for given capacity.
+     */
+    public DoubleRingArray(int aCapacity)
+    {
+        if (aCapacity < 1)
+            throw new IllegalArgumentException("DoubleRingArray: Invalid capacity: " + aCapacity);
+        _ringArray = new double[aCapacity];
+        _length = 0;
+    }
+
+    /**
+     * Returns the maximum number of values held by this array.
+     */
+    public int getCapacity()  { return _ringArray.length; }
+
+    /**
+     * Sets the maximum number of values held by this array (keeps the last values if array shrinks).
+     */
+    public void setCapacity(int aValue)
+    {
+        // If already set, just return
+        if (aValue == _ringArray.length) return;
+        if (aValue < 1)
+            throw new IllegalArgumentException("DoubleRingArray.setCapacity: Invalid capacity: " + aValue);
+
+        // Copy last values to new ring buffer
+        int length = Math.min(_length, aValue);
+        double[] ringArray = new double[aValue];
+        copyToArray(_length - length, ringArray, 0, length);
+
+        // Set new ring buffer and reset head
+        _ringArray = ringArray;
+        _head = 0;
+        _length = length;
+        clearCaches();
+    }
+
+    /**
+     * Returns whether array is at capacity (next add will evict first value).
+     */
+    public boolean isFull()  { return _length == _ringArray.length; }
+
+    /**
+     * Sets the length.
+     */
+    @Override
+    public void setLength(int aValue)
+    {
+        // Clamp to capacity
+        int length = Math.min(Math.max(aValue, 0), _ringArray.length);
+
+        // If growing, clear newly exposed values
+        for (int i = _length; i < length; i++)
+            _ringArray[getRingIndex(i)] = 0;
+
+        // If cleared, reset head
+        if (length == 0)
+            _head = 0;
+
+        // Do normal version
+        super.setLength(length);
+    }
+
+    /**
+     * Returns the double value at index.
+     */
+    @Override
+    public final double getDouble(int anIndex)
+    {
+        return _ringArray[getRingIndex(anIndex)];
+    }
+
+    /**
+     * Sets the double value at index.
+     */
+    @Override
+    public final void setDouble(double aValue, int anIndex)
+    {
+        // Set value and update stats
+        int ringIndex = getRingIndex(anIndex);
+        double oldValue = _ringArray[ringIndex];
+        _ringArray[ringIndex] = aValue;
+        valueDidChange(oldValue, aValue);
+
+        // Clear caches
+        clearValueCaches();
+    }
+
+    /**
+     * Adds the double value at end (evicting first value if full).
+     */
+    @Override
+    public void addDouble(double aValue)
+    {
+        // If full, evict first value
+        if (isFull())
+            evictFirst();
+
+        // Set value and increment length
+        _ringArray[getRingIndex(_length)] = aValue;
+        _length++;
+
+        // Update stats and clear caches
+        valueDidAdd(aValue);
+        clearValueCaches();
+    }
+
+    /**
+     * Adds the double value at index (evicting first value if full).
+     */
+    @Override
+    public void addDouble(double aValue, int anIndex)
+    {
+        // Handle add at end
+        if (anIndex == _length) {
+            addDouble(aValue);
+            return;
+        }
+
+        // If full, evict first value (if inserted value would be first, it is evicted instead)
+        if (isFull()) {
+            if (anIndex == 0)
+                return;
+            evictFirst();
+            anIndex--;
+        }
+
+        // Shift values after index over and set value
+        for (int i = _length; i > anIndex; i--)
+            _ringArray[getRingIndex(i)] = _ringArray[getRingIndex(i - 1)];
+        _ringArray[getRingIndex(anIndex)] = aValue;
+        _length++;
+        clearIndexCaches();
+
+        // Update stats and clear caches
+        valueDidAdd(aValue);
+        clearValueCaches();
+    }
+
+    /**
+     * Override to copy values with at most two array copies (only the last capacity values are kept).
+     */
+    @Override
+    public void addDoubles(double[] theValues, int aStart, int aCount)
+    {
+        // If more values than capacity, skip to last values that will survive
+        int capacity = _ringArray.length;
+        if (aCount > capacity) {
+            aStart += aCount - capacity;
+            aCount = capacity;
+        }
+
+        // Evict first values as needed
+        int overflow = _length + aCount - capacity;
+        if (overflow > 0) {
+            for (int i = 0; i < overflow; i++)
+                valueDidRemove(0, getDouble(i));
+            _head = (_head + overflow) % capacity;
+            _length -= overflow;
+        }
+
+        // Copy values in up to two segments (end of ring buffer, then start)
+        int tail = getRingIndex(_length);
+        int count1 = Math.min(aCount, capacity - tail);
+        System.arraycopy(theValues, aStart, _ringArray, tail, count1);
+        if (count1 < aCount)
+            System.arraycopy(theValues, aStart + count1, _ringArray, 0, aCount - count1);
+        _length += aCount;
+
+        // Update stats and clear caches
+        valuesDidAdd(theValues, aStart, aCount);
+        clearValueCaches();
+    }
+
+    /**
+     * Removes the value at index.
+     */
+    @Override
+    public void removeIndex(int anIndex)
+    {
+        // Update stats for removed value
+        valueDidRemove(anIndex, getDouble(anIndex));
+
+        // Handle remove first: Just advance head
+        if (anIndex == 0)
+            _head = (_head + 1) % _ringArray.length;
+
+        // Handle other: Shift values after index in
+        else {
+            for (int i = anIndex; i < _length - 1; i++)
+                _ringArray[getRingIndex(i)] = _ringArray[getRingIndex(i + 1)];
+        }
+
+        // Decrement length
+        _length--;
+
+        // Clear caches
+        clearValueCaches();
+    }
+
+    /**
+     * Returns the simple double array (trimmed to length and unrolled to start at first value).
+     */
+    @Override
+    public double[] doubleArray()
+    {
+        // If already set, just return
+        if (_doubleArray != null) return _doubleArray;
+
+        // Create, set, return
+        double[] doubleArray = new double[_length];
+        copyToArray(0, doubleArray, 0, _length);
+        return _doubleArray = doubleArray;
+    }
+
+    /**
+     * Copies given range of values to given array.
+     */
+    @Override
+    public void copyToArray(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        // Copy values in up to two segments (end of ring buffer, then start)
+        int ringStart = getRingIndex(aStart);
+        int count1 = Math.min(aCount, _ringArray.length - ringStart);
+        System.arraycopy(_ringArray, ringStart, anArray, anArrayStart, count1);
+        if (count1 < aCount)
+            System.arraycopy(_ringArray, 0, anArray, anArrayStart + count1, aCount - count1);
+    }
+
+    /**
+     * Override to clear unrolled arrays.
+     */
+    @Override
+    protected void clearValueCaches()
+    {
+        super.clearValueCaches();
+        _doubleArray = null;
+        _floatArray = null;
+    }
+
+    /**
+     * Returns the ring buffer index for given array index.
+     */
+    private int getRingIndex(int anIndex)
+    {
+        int index = _head + anIndex;
+        int capacity = _ringArray.length;
+        return index < capacity ? index : index - capacity;
+    }
+
+    /**
+     * Evicts the first value.
+     */
+    private void evictFirst()
+    {
+        valueDidRemove(0, getDouble(0));
+        _head = (_head + 1) % _ringArray.length;
+        _length--;
+    }
+
+    /**
+     * Override to return as this subclass.
+     */
+    @Override
+    public DoubleRingArray clone()
+    {
+        // Do normal version
+        DoubleRingArray clone = (DoubleRingArray) super.clone();
+
+        // Clone arrays
+        clone._ringArray = _ringArray.clone();
+        clone._doubleArray = null;
+        clone._floatArray = null;
+
+        // Return
+        return clone;
+    }
+
+    /**
+     * Standard toStringProps implementation.
+     */
+    @Override
+    public String toStringProps()
+    {
+        return super.toStringProps() + ", Capacity=" + getCapacity();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+import snap.util.Convert;
+import java.util.Arrays;
+
+/**
+ * This NumberArray subclass stores values in a float array (half the memory of DoubleArray).
+ */
+public class FloatArray extends NumberArray {
+
+    /**
+     * Constructor.
+     */
+    public FloatArray()
+    {
+        _floatArray = new float[0];
+        _length = 0;
+    }
+
+    /**
+     * Constructor.
+     */
+    public FloatArray(float[] floatArray)
+    {
+        _floatArray = floatArray.clone();
+        _length = _floatArray.length;
+    }
+
+    /**
+     * Constructor for double values (converted to float).
+     */
+    public FloatArray(double[] doubleArray)
+    {
+        _floatArray = Convert.doubleArrayToFloat(doubleArray);
+        _length = _floatArray.length;
+    }
+
+    /**
+     * Returns the precision used to store values.
+     */
+    @Override
+    public NumberPrecision getPrecision()  { return NumberPrecision.Float; }
+
+    /**
+     * Sets the length.
+     */
+    @Override
+    public void setLength(int aValue)
+    {
+        // Expand components array if needed
+        if (aValue >= _length)
+            _floatArray = Arrays.copyOf(_floatArray, aValue);
+
+        // Do normal version
+        super.setLength(aValue);
+    }
+
+    /**
+     * Returns the simple float array (trimmed to length).
+     */
+    @Override
+    public float[] floatArray()
+    {
+        if (_length != _floatArray.length)
+            _floatArray = Arrays.copyOf(_floatArray, _length);
+        return _floatArray;
+    }
+
+    /**
+     * Sets the float array.
+     */
+    public void setFloatArray(float[] floatArray)
+    {
+        _floatArray = floatArray;
+        _length = _floatArray.length;
+        clearCaches();
+    }
+
+    /**
+     * Returns the double value at index.
+     */
+    @Override
+    public final double getDouble(int anIndex)
+    {
+        return _floatArray[anIndex];
+    }
+
+    /**
+     * Sets the double value at index.
+     */
+    @Override
+    public final void setDouble(double aValue, int anIndex)
+    {
+        setFloat((float) aValue, anIndex);
+    }
+
+    /**
+     * Returns the float value at index.
+     */
+    @Override
+    public final float getFloat(int anIndex)
+    {
+        return _floatArray[anIndex];
+    }
+
+    /**
+     * Sets the float value at index.
+     */
+    @Override
+    public final void setFloat(float aValue, int anIndex)
+    {
+        // Set value and update stats
+        float oldValue = _floatArray[anIndex];
+        _floatArray[anIndex] = aValue;
+        valueDidChange(oldValue, aValue);
+
+        // Clear caches
+        clearValueCaches();
+    }
+
+    /**
+     * Adds the double value at index.
+     */
+    @Override
+    public void addDouble(double aValue, int anIndex)
+    {
+        // Expand components array if needed
+        if (_length == _floatArray.length)
+            _floatArray = Arrays.copyOf(_floatArray, Math.max(_floatArray.length * 2, 20));
+
+        // If index is inside current length, shift existing elements over
+        if (anIndex < _length) {
+            System.arraycopy(_floatArray, anIndex, _floatArray, anIndex + 1, _length - anIndex);
+            clearIndexCaches();
+        }
+
+        // Set value and increment length
+        float value = (float) aValue;
+        _floatArray[anIndex] = value;
+        _length++;
+
+        // Update stats and clear caches
+        valueDidAdd(value);
+        clearValueCaches();
+    }
+
+    /**
+     * Override to grow array once for whole range.
+     */
+    @Override
+    public void addDoubles(double[] theValues, int aStart, int aCount)
+    {
+        // Expand components array if needed
+        int newLength = _length + aCount;
+        if (newLength > _floatArray.length)
+            _floatArray = Arrays.copyOf(_floatArray, Math.max(_floatArray.length * 2, newLength));
+
+        // Convert values and update stats
+        for (int i = 0; i < aCount; i++) {
+            float value = (float) theValues[aStart + i];
+            _floatArray[_length + i] = value;
+            valueDidAdd(value);
+        }
+
+        // Update length and clear caches
+        _length = newLength;
+        clearValueCaches();
+    }
+
+    /**
+     * Removes the value at index.
+     */
+    @Override
+    public void removeIndex(int anIndex)
+    {
+        // Shift remaining elements in
+        float oldValue = _floatArray[anIndex];
+        System.arraycopy(_floatArray, anIndex + 1, _floatArray, anIndex, _length - anIndex - 1);
+        _length--;
+
+        // Update stats and clear caches
+        valueDidRemove(anIndex, oldValue);
+        clearValueCaches();
+    }
+
+    /**
+     * Override to clear double array.
+     */
+    @Override
+    protected void clearValueCaches()
+    {
+        super.clearValueCaches();
+        _doubleArray = null;
+    }
+
+    /**
+     * Override to return as this subclass.
+     */
+    @Override
+    public FloatArray clone()
+    {
+        // Do normal version
+        FloatArray clone = (FloatArray) super.clone();
+
+        // Clone arrays
+        if (_floatArray != null)
+            clone._floatArray = _floatArray.clone();
+        clone._doubleArray = null;
+
+        // Return
+        return clone;
+    }
+
+    /**
+     * Returns FloatArray that uses given array directly (not copied), so caller shouldn't modify it afterwards.
+     */
+    public static FloatArray wrap(float[] theValues)
+    {
+        FloatArray floatArray = new FloatArray();
+        floatArray._floatArray = theValues;
+        floatArray._length = theValues.length;
+        return floatArray;
+    }
+
+    /**
+     * Returns FloatArray from raw float/double values or array.
+     */
+    public static FloatArray of(Object anObj)
+    {
+        // Handle FloatArray
+        if (anObj instanceof FloatArray)
+            return (FloatArray) anObj;
+
+        // Handle float[]
+        if (anObj instanceof float[])
+            return new FloatArray((float[]) anObj);
+
+        // Handle NumberArray
+        if (anObj instanceof NumberArray)
+            return new FloatArray(((NumberArray) anObj).doubleArray());
+
+        // Handle anything else: Get as DoubleArray and convert
+        DoubleArray doubleArray = DoubleArray.of(anObj);
+        return new FloatArray(doubleArray.doubleArray());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+import java.io.File;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This NumberArray subclass reads values from a memory-mapped file of raw float64 values, so columns can be much larger
+ * than the heap. The file is mapped in chunks (a single mapping is limited to 2GB) and is read-only.
+ *
+ * Values are only paged in on demand when read per value (getDouble) or by range (copyToArray). Calls to doubleArray()
+ * or floatArray() (and DataSet.getDataX/Y/Z) still make a full heap copy each time.
+ */
+public class MappedDoubleArray extends NumberArray {
+
+    // The file
+    private File  _file;
+
+    // The mapped chunks of file as DoubleBuffers
+    private DoubleBuffer[]  _buffers;
+
+    // Constants for chunk size (2^27 doubles = 1GB per mapping)
+    private static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Constructor for file of little-endian float64 values.
+     */
+    public MappedDoubleArray(File aFile)
+    {
+        this(aFile, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Constructor for file of float64 values and byte order.
+     */
+    public MappedDoubleArray(File aFile, ByteOrder aByteOrder)
+    {
+        _file = aFile;
+
+        // Map file in chunks
+        try (FileChannel fileChannel = FileChannel.open(aFile.toPath(), StandardOpenOption.READ)) {
+
+            // Get value count (int indexes limit this to Integer.MAX_VALUE values)
+            long valueCount = fileChannel.size() / Double.BYTES;
+            if (valueCount > Integer.MAX_VALUE) {
+                System.err.println("MappedDoubleArray: File exceeds max value count: " + aFile);
+                valueCount = Integer.MAX_VALUE;
+            }
+
+            // Create DoubleBuffer for each chunk
+            int chunkCount = (int) ((valueCount + CHUNK_SIZE - 1) >> CHUNK_SHIFT);
+            _buffers = new DoubleBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long chunkStart = (long) i << CHUNK_SHIFT;
+                long chunkLength = Math.min(CHUNK_SIZE, valueCount - chunkStart);
+                long byteStart = chunkStart * Double.BYTES;
+                long byteLength = chunkLength * Double.BYTES;
+                _buffers[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, byteStart, byteLength).order(aByteOrder).asDoubleBuffer();
+            }
+
+            // Set length
+            _length = (int) valueCount;
+        }
+
+        // Rethrow exceptions
+        catch (Exception e) { throw new RuntimeException(e); }
+    }
+
+    /**
+     * Returns the file.
+     */
+    public File getFile()  { return _file; }
+
+    /**
+     * Returns the double value at index.
+     */
+    @Override
+    public final double getDouble(int anIndex)
+    {
+        return _buffers[anIndex >>> CHUNK_SHIFT].get(anIndex & CHUNK_MASK);
+    }
+
+    /**
+     * Copies given range of values to given array.
+     */
+    @Override
+    public void copyToArray(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        // Iterate over chunks in range and do bulk copy
+        int index = aStart;
+        int end = aStart + aCount;
+        while (index < end) {
+            int chunkIndex = index & CHUNK_MASK;
+            int count = Math.min(end - index, CHUNK_SIZE - chunkIndex);
+            _buffers[index >>> CHUNK_SHIFT].get(chunkIndex, anArray, anArrayStart + index - aStart, count);
+            index += count;
+        }
+    }
+
+    /**
+     * Returns a heap copy of values (not cached, since column may be larger than heap - avoid in render path).
+     */
+    @Override
+    public double[] doubleArray()
+    {
+        double[] doubleArray = new double[_length];
+        copyToArray(0, doubleArray, 0, _length);
+        return doubleArray;
+    }
+
+    /**
+     * Returns a heap copy of values as floats (not cached).
+     */
+    @Override
+    public float[] floatArray()
+    {
+        float[] floatArray = new float[_length];
+        for (int i = 0; i < _length; i++)
+            floatArray[i] = (float) getDouble(i);
+        return floatArray;
+    }
+
+    /**
+     * Override to complain (read-only).
+     */
+    @Override
+    public void setLength(int aValue)
+    {
+        throw new RuntimeException("MappedDoubleArray: setLength not implemented");
+    }
+
+    /**
+     * Override to complain (read-only).
+     */
+    @Override
+    public void setDouble(double aValue, int anIndex)
+    {
+        throw new RuntimeException("MappedDoubleArray: setDouble not implemented");
+    }
+
+    /**
+     * Override to complain (read-only).
+     */
+    @Override
+    public void addDouble(double aValue, int anIndex)
+    {
+        throw new RuntimeException("MappedDoubleArray: addDouble not implemented");
+    }
+
+    /**
+     * Override to complain (read-only).
+     */
+    @Override
+    public void removeIndex(int anIndex)
+    {
+        throw new RuntimeException("MappedDoubleArray: removeIndex not implemented");
+    }
+
+    /**
+     * Override to return as this subclass (buffers are shared, since read-only).
+     */
+    @Override
+    public MappedDoubleArray clone()
+    {
+        return (MappedDoubleArray) super.clone();
+    }
+
+    /**
+     * Standard toStringProps implementation.
+     */
+    @Override
+    public String toStringProps()
+    {
+        return super.toStringProps() + ", File=" + _file.getName();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+import java.util.Arrays;
+
+/**
+ * This class indexes a NumberArray to quickly find the index of the min/max value in any index range (in log time).
+ * Values are grouped into small blocks and a tree of block min/max indexes is kept, so it can be extended cheaply when
+ * values are added at the end (like for streaming data) or removed from the start (like for ring buffer eviction).
+ * NaN values are never returned as min or max.
+ *
+ * This is used to decimate large sorted data for display (M4: first/min/max/last point for each pixel column).
+ */
+public class MinMaxPyramid {
+
+    // The NumberArray
+    private NumberArray  _array;
+
+    // The number of values indexed (including values removed from start)
+    private int  _count;
+
+    // The number of values removed from start since index was last reset (tree indexes are offset by this)
+    private int  _offset;
+
+    // The number of tree leaves (a power of 2 that is at least the number of blocks)
+    private int  _leafCount;
+
+    // The tree of indexes of min/max values (node 1 is root, children of node N are 2N and 2N+1, leaves start at _leafCount)
+    private int[]  _minIndexes, _maxIndexes;
+
+    // Constants for number of values in leaf blocks
+    private static final int BLOCK_SHIFT = 4;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    /**
+     * Constructor for NumberArray.
+     */
+    public MinMaxPyramid(NumberArray anArray)
+    {
+        _array = anArray;
+        _leafCount = 1;
+        _minIndexes = new int[] { -1, -1 };
+        _maxIndexes = new int[] { -1, -1 };
+        update();
+    }
+
+    /**
+     * Returns the NumberArray.
+     */
+    public NumberArray getArray()  { return _array; }
+
+    /**
+     * Returns the number of values indexed.
+     */
+    public int getCount()  { return _count - _offset; }
+
+    /**
+     * Updates index for values added to end of array since last update.
+     */
+    public void update()
+    {
+        // If no new values, just return
+        int length = _array.length();
+        if (_offset + length == _count) return;
+
+        // If array shrank, reset
+        if (_offset + length < _count)
+            reset();
+
+        // If tree must grow after values were removed from start, reset so indexes start at array start again
+        int blockCount = (_offset + length + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        boolean rebase = _offset > 0 && blockCount > _leafCount;
+        if (rebase) {
+            reset();
+            blockCount = (length + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        }
+
+        // If more blocks than leaves, grow tree (and re-index all blocks) - when rebasing, leave room for removes at start
+        int startBlock = _count >> BLOCK_SHIFT;
+        if (blockCount > _leafCount || rebase) {
+            int leafCount = rebase ? blockCount * 2 : blockCount;
+            while (_leafCount < leafCount)
+                _leafCount *= 2;
+            _minIndexes = new int[_leafCount * 2];
+            _maxIndexes = new int[_leafCount * 2];
+            Arrays.fill(_minIndexes, -1);
+            Arrays.fill(_maxIndexes, -1);
+            startBlock = 0;
+        }
+
+        // Update leaves for new/changed blocks
+        for (int block = startBlock; block < blockCount; block++) {
+            int start = block << BLOCK_SHIFT;
+            int end = Math.min(start + BLOCK_SIZE, _offset + length);
+            _minIndexes[_leafCount + block] = getMinIndexForScan(start, end);
+            _maxIndexes[_leafCount + block] = getMaxIndexForScan(start, end);
+        }
+
+        // Update parents of changed leaves, level by level
+        int start = (_leafCount + startBlock) >> 1;
+        int end = (_leafCount + blockCount - 1) >> 1;
+        while (start > 0) {
+            for (int node = start; node <= end; node++) {
+                _minIndexes[node] = getLesserIndex(_minIndexes[node * 2], _minIndexes[node * 2 + 1]);
+                _maxIndexes[node] = getGreaterIndex(_maxIndexes[node * 2], _maxIndexes[node * 2 + 1]);
+            }
+            start >>= 1;
+            end >>= 1;
+        }
+
+        // Update count
+        _count = _offset + length;
+    }
+
+    /**
+     * Updates index for given number of values removed from start of array (indexes of remaining values shift down).
+     */
+    public void removeFirst(int aCount)
+    {
+        _offset += aCount;
+    }
+
+    /**
+     * Resets index to be rebuilt from array start.
+     */
+    private void reset()
+    {
+        _count = _offset = 0;
+        Arrays.fill(_minIndexes, -1);
+        Arrays.fill(_maxIndexes, -1);
+    }
+
+    /**
+     * Returns the index of the min value in given range (start inclusive, end exclusive) or -1 if all values are NaN.
+     */
+    public int getMinIndex(int aStart, int anEnd)
+    {
+        // Get range in tree indexes
+        int start = aStart + _offset;
+        int end = anEnd + _offset;
+
+        // Get blocks fully inside range - if none, just scan values
+        int startBlock = (start + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int endBlock = end >> BLOCK_SHIFT;
+        if (startBlock >= endBlock)
+            return getArrayIndex(getMinIndexForScan(start, end));
+
+        // Scan partial blocks at ends of range
+        int minIndex = getMinIndexForScan(start, startBlock << BLOCK_SHIFT);
+        minIndex = getLesserIndex(minIndex, getMinIndexForScan(endBlock << BLOCK_SHIFT, end));
+
+        // Walk tree for full blocks
+        for (int lo = startBlock + _leafCount, hi = endBlock + _leafCount; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1)
+                minIndex = getLesserIndex(minIndex, _minIndexes[lo++]);
+            if ((hi & 1) == 1)
+                minIndex = getLesserIndex(minIndex, _minIndexes[--hi]);
+        }
+
+        // Return
+        return getArrayIndex(minIndex);
+    }
+
+    /**
+     * Returns the index of the max value in given range (start inclusive, end exclusive) or -1 if all values are NaN.
+     */
+    public int getMaxIndex(int aStart, int anEnd)
+    {
+        // Get range in tree indexes
+        int start = aStart + _offset;
+        int end = anEnd + _offset;
+
+        // Get blocks fully inside range - if none, just scan values
+        int startBlock = (start + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int endBlock = end >> BLOCK_SHIFT;
+        if (startBlock >= endBlock)
+            return getArrayIndex(getMaxIndexForScan(start, end));
+
+        // Scan partial blocks at ends of range
+        int maxIndex = getMaxIndexForScan(start, startBlock << BLOCK_SHIFT);
+        maxIndex = getGreaterIndex(maxIndex, getMaxIndexForScan(endBlock << BLOCK_SHIFT, end));
+
+        // Walk tree for full blocks
+        for (int lo = startBlock + _leafCount, hi = endBlock + _leafCount; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1)
+                maxIndex = getGreaterIndex(maxIndex, _maxIndexes[lo++]);
+            if ((hi & 1) == 1)
+                maxIndex = getGreaterIndex(maxIndex, _maxIndexes[--hi]);
+        }
+
+        // Return
+        return getArrayIndex(maxIndex);
+    }
+
+    /**
+     * Returns the array value for given tree index.
+     */
+    private double getValue(int anIndex)  { return _array.getDouble(anIndex - _offset); }
+
+    /**
+     * Returns the array index for given tree index (or -1 if none).
+     */
+    private int getArrayIndex(int anIndex)  { return anIndex < 0 ? -1 : anIndex - _offset; }
+
+    /**
+     * Returns the tree index of min value in given range by scanning values.
+     */
+    private int getMinIndexForScan(int aStart, int anEnd)
+    {
+        int minIndex = -1;
+        for (int i = Math.max(aStart, _offset); i < anEnd; i++)
+            minIndex = getLesserIndex(minIndex, i);
+        return minIndex;
+    }
+
+    /**
+     * Returns the tree index of max value in given range by scanning values.
+     */
+    private int getMaxIndexForScan(int aStart, int anEnd)
+    {
+        int maxIndex = -1;
+        for (int i = Math.max(aStart, _offset); i < anEnd; i++)
+            maxIndex = getGreaterIndex(maxIndex, i);
+        return maxIndex;
+    }
+
+    /**
+     * Returns the index of the lesser value for given indexes (or first index, if equal).
+     */
+    private int getLesserIndex(int anIndex1, int anIndex2)
+    {
+        if (anIndex2 < _offset) return anIndex1 < _offset ? -1 : anIndex1;
+        if (anIndex1 < _offset) return Double.isNaN(getValue(anIndex2)) ? -1 : anIndex2;
+        return getValue(anIndex2) < getValue(anIndex1) ? anIndex2 : anIndex1;
+    }
+
+    /**
+     * Returns the index of the greater value for given indexes (or first index, if equal).
+     */
+    private int getGreaterIndex(int anIndex1, int anIndex2)
+    {
+        if (anIndex2 < _offset) return anIndex1 < _offset ? -1 : anIndex1;
+        if (anIndex1 < _offset) return Double.isNaN(getValue(anIndex2)) ? -1 : anIndex2;
+        return getValue(anIndex2) > getValue(anIndex1) ? anIndex2 : anIndex1;
+    }
+}
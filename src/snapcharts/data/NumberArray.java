@@ -21,6 +21,27 @@ public abstract class NumberArray extends DataArray {
     // Min/Max for values
     private MinMax  _minMax;
 
+    // Whether statistics below are valid (they are updated incrementally on add/set/remove, when possible)
+    private boolean  _statsValid;
+
+    // Whether min/max statistics are valid (cleared when an extreme is removed, so they can be found from sort order)
+    private boolean  _statsMinMaxValid;
+
+    // The min/max/sum of non-NaN values
+    private double  _statsMin, _statsMax, _statsSum;
+
+    // The number of non-NaN values and NaN values
+    private int  _statsCount, _statsNaNCount;
+
+    // The MinMaxPyramid (extended when values are added at end, shifted when first value is removed, cleared otherwise)
+    private MinMaxPyramid  _minMaxPyramid;
+
+    // The number of leading values checked for sort order (extended when needed, reset when values before end change)
+    private int  _sortCount;
+
+    // Whether checked values are ascending/descending (NaN is neither)
+    private boolean  _sortAscending = true, _sortDescending = true;
+
     /**
      * Constructor.
      */
@@ -42,13 +63,33 @@ public abstract class NumberArray extends DataArray {
         _unit = aValue;
     }
 
+    /**
+     * Returns the precision used to store values.
+     */
+    public NumberPrecision getPrecision()  { return NumberPrecision.Double; }
+
+    /**
+     * Returns this array if already given precision, otherwise a copy with values stored at given precision.
+     */
+    public NumberArray copyForPrecision(NumberPrecision aPrecision)
+    {
+        // If already set, just return
+        if (aPrecision == getPrecision()) return this;
+
+        // Create copy with name and unit
+        NumberArray copy = aPrecision.newNumberArrayForValues(doubleArray());
+        copy.setName(getName());
+        copy.setUnit(getUnit());
+        return copy;
+    }
+
     /**
      * Returns the Object value at index.
      */
     @Override
     public Double getValue(int anIndex)
     {
-        return _doubleArray[anIndex];
+        return getDouble(anIndex);
     }
 
     /**
@@ -64,7 +105,7 @@ public abstract class NumberArray extends DataArray {
      */
     public void setDouble(double aValue, int anIndex)
     {
-        setFloat(anIndex, anIndex);
+        setFloat((float) aValue, anIndex);
     }
 
     /**
@@ -80,6 +121,15 @@ public abstract class NumberArray extends DataArray {
      */
     public abstract void addDouble(double aValue, int anIndex);
 
+    /**
+     * Adds the given range of double values at end.
+     */
+    public void addDoubles(double[] theValues, int aStart, int aCount)
+    {
+        for (int i = aStart, iMax = aStart + aCount; i < iMax; i++)
+            addDouble(theValues[i]);
+    }
+
     /**
      * Returns the float value at index.
      */
@@ -101,6 +151,15 @@ public abstract class NumberArray extends DataArray {
      */
     public abstract void removeIndex(int anIndex);
 
+    /**
+     * Copies given range of values to given array.
+     */
+    public void copyToArray(int aStart, double[] anArray, int anArrayStart, int aCount)
+    {
+        for (int i = 0; i < aCount; i++)
+            anArray[anArrayStart + i] = getDouble(aStart + i);
+    }
+
     /**
      * Returns the simple double array (trimmed to length).
      */
@@ -130,29 +189,287 @@ public abstract class NumberArray extends DataArray {
     }
 
     /**
-     * Returns the minimum X value in this dataset.
+     * Returns the min/max of values (NaN values are ignored).
      */
     public MinMax getMinMax()
     {
         // If already set, just return
         if (_minMax != null) return _minMax;
 
-        // If no points, just return 0,0
-        int length = length();
-        if (length == 0)
+        // If no values, just return 0,0
+        updateStats();
+        if (_statsCount == 0)
             return _minMax = new MinMax(0, 0);
 
-        // Iterate over values to get min/max
-        double min = Float.MAX_VALUE;
-        double max = -Float.MAX_VALUE;
-        for (int i = 0; i < length; i++) {
+        // Return MinMax
+        return _minMax = new MinMax(_statsMin, _statsMax);
+    }
+
+    /**
+     * Returns the number of values that are not NaN.
+     */
+    public int getValueCount()
+    {
+        updateStats();
+        return _statsCount;
+    }
+
+    /**
+     * Returns the number of values that are NaN.
+     */
+    public int getNaNCount()
+    {
+        updateStats();
+        return _statsNaNCount;
+    }
+
+    /**
+     * Returns the sum of values that are not NaN.
+     */
+    public double getSum()
+    {
+        updateStats();
+        return _statsSum;
+    }
+
+    /**
+     * Returns the MinMaxPyramid to quickly find min/max value index for index ranges.
+     */
+    public MinMaxPyramid getMinMaxPyramid()
+    {
+        // If already set, update for any values added at end and return
+        if (_minMaxPyramid != null) {
+            _minMaxPyramid.update();
+            return _minMaxPyramid;
+        }
+
+        // Create, set, return
+        return _minMaxPyramid = new MinMaxPyramid(this);
+    }
+
+    /**
+     * Returns whether values are sorted in ascending order (equal values allowed, NaN not allowed).
+     */
+    public boolean isSortedAscending()
+    {
+        updateSortOrder();
+        return _sortAscending;
+    }
+
+    /**
+     * Returns whether values are sorted in descending order (equal values allowed, NaN not allowed).
+     */
+    public boolean isSortedDescending()
+    {
+        updateSortOrder();
+        return _sortDescending;
+    }
+
+    /**
+     * Checks values added since last check to update sort order.
+     */
+    private void updateSortOrder()
+    {
+        // If all values checked or already unsorted, just return
+        int length = length();
+        if (_sortCount >= length || !_sortAscending && !_sortDescending) return;
+
+        // Check first value for NaN
+        if (_sortCount == 0 && Double.isNaN(getDouble(0)))
+            _sortAscending = _sortDescending = false;
+
+        // Iterate over unchecked values and compare to previous
+        for (int i = Math.max(_sortCount, 1); i < length && (_sortAscending || _sortDescending); i++) {
+            double value0 = getDouble(i - 1);
+            double value1 = getDouble(i);
+            if (!(value1 >= value0))
+                _sortAscending = false;
+            if (!(value1 <= value0))
+                _sortDescending = false;
+        }
+
+        // Update count
+        _sortCount = length;
+    }
+
+    /**
+     * Rescans values to update statistics, if not valid.
+     */
+    private void updateStats()
+    {
+        // If already valid, just return
+        if (_statsValid && _statsMinMaxValid) return;
+
+        // If only min/max invalid and values are sorted, get from first/last values (sorted values have no NaN)
+        if (_statsValid) {
+            int length = length();
+            if (_statsCount == 0 || isSortedAscending() || isSortedDescending()) {
+                if (_statsCount > 0) {
+                    double value0 = getDouble(0);
+                    double value1 = getDouble(length - 1);
+                    _statsMin = Math.min(value0, value1);
+                    _statsMax = Math.max(value0, value1);
+                }
+                _statsMinMaxValid = true;
+                return;
+            }
+        }
+
+        // Iterate over values to get min/max/sum and counts
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        double sum = 0;
+        int count = 0;
+        int nanCount = 0;
+        for (int i = 0, iMax = length(); i < iMax; i++) {
             double value = getDouble(i);
+            if (Double.isNaN(value)) {
+                nanCount++;
+                continue;
+            }
             min = Math.min(min, value);
             max = Math.max(max, value);
+            sum += value;
+            count++;
         }
 
-        // Return MinMax
-        return _minMax = new MinMax(min, max);
+        // Set statistics
+        _statsMin = min;
+        _statsMax = max;
+        _statsSum = sum;
+        _statsCount = count;
+        _statsNaNCount = nanCount;
+        _statsValid = _statsMinMaxValid = true;
+    }
+
+    /**
+     * Called by subclasses when a value is added to update statistics.
+     */
+    protected void valueDidAdd(double aValue)
+    {
+        // If stats not valid, just return
+        if (!_statsValid) return;
+
+        // Handle NaN
+        if (Double.isNaN(aValue)) {
+            _statsNaNCount++;
+            return;
+        }
+
+        // Update min/max/sum/count (min/max are valid again if this is only value)
+        if (_statsCount == 0)
+            _statsMinMaxValid = true;
+        _statsMin = _statsCount > 0 ? Math.min(_statsMin, aValue) : aValue;
+        _statsMax = _statsCount > 0 ? Math.max(_statsMax, aValue) : aValue;
+        _statsSum += aValue;
+        _statsCount++;
+    }
+
+    /**
+     * Called by subclasses when a range of values is added to update statistics.
+     */
+    protected void valuesDidAdd(double[] theValues, int aStart, int aCount)
+    {
+        if (!_statsValid) return;
+        for (int i = aStart, iMax = aStart + aCount; i < iMax; i++)
+            valueDidAdd(theValues[i]);
+    }
+
+    /**
+     * Called by subclasses when a value is removed at given index to update statistics and index caches.
+     */
+    protected void valueDidRemove(int anIndex, double aValue)
+    {
+        // If first value, shift MinMaxPyramid (like ring buffer eviction), otherwise clear it (values after index move)
+        if (anIndex == 0) {
+            if (_minMaxPyramid != null)
+                _minMaxPyramid.removeFirst(1);
+        }
+        else _minMaxPyramid = null;
+
+        // Removing a value doesn't change sort order, so just back up sort check one value (or reset if unsorted)
+        if (_sortAscending || _sortDescending)
+            _sortCount = Math.max(_sortCount - 1, 0);
+        else resetSortOrder();
+
+        // Update stats
+        statsDidRemove(aValue);
+    }
+
+    /**
+     * Updates statistics for removed value (if value was min or max, they are found again from sort order or rescan).
+     */
+    private void statsDidRemove(double aValue)
+    {
+        // If stats not valid, just return
+        if (!_statsValid) return;
+
+        // Handle NaN
+        if (Double.isNaN(aValue)) {
+            _statsNaNCount--;
+            return;
+        }
+
+        // If value was an extreme, min/max must be found again
+        if (aValue <= _statsMin || aValue >= _statsMax)
+            _statsMinMaxValid = false;
+
+        // Update sum/count
+        _statsSum -= aValue;
+        _statsCount--;
+    }
+
+    /**
+     * Called by subclasses when a value is changed to update statistics.
+     */
+    protected void valueDidChange(double oldValue, double newValue)
+    {
+        // Clear index caches
+        clearIndexCaches();
+
+        // If stats not valid, just return
+        if (!_statsValid) return;
+
+        // If NaN involved, min/max invalid or old value was an extreme that moves inward, treat as remove + add
+        boolean keepsMin = oldValue > _statsMin || newValue <= oldValue;
+        boolean keepsMax = oldValue < _statsMax || newValue >= oldValue;
+        if (Double.isNaN(oldValue) || Double.isNaN(newValue) || !_statsMinMaxValid || !keepsMin || !keepsMax) {
+            statsDidRemove(oldValue);
+            valueDidAdd(newValue);
+            return;
+        }
+
+        // Update min/max/sum
+        _statsMin = Math.min(_statsMin, newValue);
+        _statsMax = Math.max(_statsMax, newValue);
+        _statsSum += newValue - oldValue;
+    }
+
+    /**
+     * Called to clear caches that depend on values, but not statistics (which subclasses update incrementally).
+     */
+    protected void clearValueCaches()
+    {
+        _minMax = null;
+    }
+
+    /**
+     * Called to clear caches that depend on value positions, like MinMaxPyramid and sort order (subclasses call this
+     * when values are inserted before end).
+     */
+    protected void clearIndexCaches()
+    {
+        _minMaxPyramid = null;
+        resetSortOrder();
+    }
+
+    /**
+     * Resets sort order so values will be rechecked.
+     */
+    private void resetSortOrder()
+    {
+        _sortCount = 0;
+        _sortAscending = _sortDescending = true;
     }
 
     /**
@@ -161,7 +478,9 @@ public abstract class NumberArray extends DataArray {
     public void clearCaches()
     {
         super.clearCaches();
-        _minMax = null;
+        clearValueCaches();
+        clearIndexCaches();
+        _statsValid = false;
     }
 
     /**
@@ -172,6 +491,7 @@ public abstract class NumberArray extends DataArray {
     {
         // Do normal version
         NumberArray clone = (NumberArray) super.clone();
+        clone._minMaxPyramid = null;
 
         // Return
         return clone;
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+
+/**
+ * Constants for how a NumberArray stores values (trading precision for memory).
+ */
+public enum NumberPrecision {
+
+    /** Values stored as doubles (DoubleArray). */
+    Double,
+
+    /** Values stored as floats (FloatArray). */
+    Float,
+
+    /** Values stored as ints with scale and offset (QuantizedIntArray). */
+    QuantizedInt,
+
+    /** Values stored as shorts with scale and offset (QuantizedShortArray). */
+    QuantizedShort;
+
+    /**
+     * Returns a new NumberArray for this precision and given values.
+     */
+    public NumberArray newNumberArrayForValues(double[] theValues)
+    {
+        return switch (this) {
+            case Double -> new DoubleArray(theValues);
+            case Float -> new FloatArray(theValues);
+            case QuantizedInt -> QuantizedIntArray.of(theValues);
+            case QuantizedShort -> QuantizedShortArray.of(theValues);
+        };
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+
+/**
+ * This NumberArray subclass stores values as quantized integers with a scale and offset:
+ *
+ *     value = offset + scale * quantizedValue
+ *
+ * Values outside the quantized range are clamped and NaN is stored with a reserved quantized value.
+ */
+public abstract class QuantizedArray extends NumberArray {
+
+    // The scale
+    protected double  _scale;
+
+    // The offset
+    protected double  _offset;
+
+    /**
+     * Constructor for scale and offset.
+     */
+    public QuantizedArray(double aScale, double anOffset)
+    {
+        super();
+        _scale = aScale != 0 ? aScale : 1;
+        _offset = anOffset;
+    }
+
+    /**
+     * Returns the scale.
+     */
+    public double getScale()  { return _scale; }
+
+    /**
+     * Returns the offset.
+     */
+    public double getOffset()  { return _offset; }
+
+    /**
+     * Returns the maximum quantized value (minimum is the negative, minus one is reserved for NaN).
+     */
+    protected abstract int getMaxQuantizedValue();
+
+    /**
+     * Returns the quantized value for given double value.
+     */
+    protected final int quantize(double aValue)
+    {
+        // Handle NaN
+        int maxValue = getMaxQuantizedValue();
+        if (Double.isNaN(aValue))
+            return -maxValue - 1;
+
+        // Return rounded and clamped
+        double quantized = Math.rint((aValue - _offset) / _scale);
+        return (int) Math.max(-maxValue, Math.min(maxValue, quantized));
+    }
+
+    /**
+     * Returns the double value for given quantized value.
+     */
+    protected final double dequantize(int aValue)
+    {
+        if (aValue < -getMaxQuantizedValue())
+            return Double.NaN;
+        return _offset + _scale * aValue;
+    }
+
+    /**
+     * Sets the length.
+     */
+    @Override
+    public void setLength(int aValue)
+    {
+        // Expand quantized values array if needed
+        if (aValue >= _length)
+            setCapacity(aValue);
+
+        // Do normal version
+        super.setLength(aValue);
+    }
+
+    /**
+     * Returns the double value at index.
+     */
+    @Override
+    public final double getDouble(int anIndex)
+    {
+        return dequantize(getQuantizedValue(anIndex));
+    }
+
+    /**
+     * Sets the double value at index (value is quantized).
+     */
+    @Override
+    public final void setDouble(double aValue, int anIndex)
+    {
+        // Set value and update stats
+        double oldValue = getDouble(anIndex);
+        setQuantizedValue(quantize(aValue), anIndex);
+        valueDidChange(oldValue, getDouble(anIndex));
+
+        // Clear caches
+        clearValueCaches();
+    }
+
+    /**
+     * Adds the double value at index (value is quantized).
+     */
+    @Override
+    public void addDouble(double aValue, int anIndex)
+    {
+        // Expand quantized values array if needed
+        int capacity = getCapacity();
+        if (_length == capacity)
+            setCapacity(Math.max(capacity * 2, 20));
+
+        // If index is inside current length, shift existing elements over
+        if (anIndex < _length) {
+            moveQuantizedValues(anIndex, anIndex + 1, _length - anIndex);
+            clearIndexCaches();
+        }
+
+        // Set value and increment length
+        setQuantizedValue(quantize(aValue), anIndex);
+        _length++;
+
+        // Update stats and clear caches
+        valueDidAdd(getDouble(anIndex));
+        clearValueCaches();
+    }
+
+    /**
+     * Override to grow array once for whole range.
+     */
+    @Override
+    public void addDoubles(double[] theValues, int aStart, int aCount)
+    {
+        ensureCapacity(_length + aCount);
+        for (int i = aStart, iMax = aStart + aCount; i < iMax; i++)
+            addDouble(theValues[i], _length);
+    }
+
+    /**
+     * Removes the value at index.
+     */
+    @Override
+    public void removeIndex(int anIndex)
+    {
+        // Shift remaining elements in
+        double oldValue = getDouble(anIndex);
+        moveQuantizedValues(anIndex + 1, anIndex, _length - anIndex - 1);
+        _length--;
+
+        // Update stats and clear caches
+        valueDidRemove(anIndex, oldValue);
+        clearValueCaches();
+    }
+
+    /**
+     * Makes sure quantized array can hold given number of values.
+     */
+    protected void ensureCapacity(int aCount)
+    {
+        if (aCount > getCapacity())
+            setCapacity(aCount);
+    }
+
+    /**
+     * Returns the quantized value at index.
+     */
+    protected abstract int getQuantizedValue(int anIndex);
+
+    /**
+     * Sets the quantized value at index.
+     */
+    protected abstract void setQuantizedValue(int aValue, int anIndex);
+
+    /**
+     * Returns the number of values the quantized values array can hold.
+     */
+    protected abstract int getCapacity();
+
+    /**
+     * Resizes the quantized values array to hold given number of values.
+     */
+    protected abstract void setCapacity(int aValue);
+
+    /**
+     * Copies given number of quantized values from source index to destination index (ranges can overlap).
+     */
+    protected abstract void moveQuantizedValues(int aSrcIndex, int aDstIndex, int aCount);
+
+    /**
+     * Returns the simple double array (trimmed to length).
+     */
+    @Override
+    public double[] doubleArray()
+    {
+        // If already set, just return
+        if (_doubleArray != null) return _doubleArray;
+
+        // Create, set, return
+        double[] doubleArray = new double[_length];
+        for (int i = 0; i < _length; i++)
+            doubleArray[i] = getDouble(i);
+        return _doubleArray = doubleArray;
+    }
+
+    /**
+     * Override to clear double/float arrays.
+     */
+    @Override
+    protected void clearValueCaches()
+    {
+        super.clearValueCaches();
+        _doubleArray = null;
+        _floatArray = null;
+    }
+
+    /**
+     * Override to return as this subclass.
+     */
+    @Override
+    protected QuantizedArray clone()
+    {
+        QuantizedArray clone = (QuantizedArray) super.clone();
+        clone._doubleArray = null;
+        clone._floatArray = null;
+        return clone;
+    }
+
+    /**
+     * Standard toStringProps implementation.
+     */
+    @Override
+    public String toStringProps()
+    {
+        return super.toStringProps() + ", Scale=" + _scale + ", Offset=" + _offset;
+    }
+
+    /**
+     * Returns the scale and offset that quantize given values into given max quantized value (offset is range middle).
+     */
+    protected static double[] getScaleAndOffsetForValues(double[] theValues, int aMaxValue)
+    {
+        // Get min/max of non-NaN values
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double value : theValues) {
+            if (Double.isNaN(value)) continue;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        // If no values, just return identity
+        if (min > max)
+            return new double[] { 1, 0 };
+
+        // Return scale and offset
+        double range = max - min;
+        double scale = range > 0 ? range / (2d * aMaxValue) : 1;
+        double offset = (min + max) / 2;
+        return new double[] { scale, offset };
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+import java.util.Arrays;
+
+/**
+ * This QuantizedArray subclass stores values in an int array (half the memory of DoubleArray, ~9 significant digits).
+ */
+public class QuantizedIntArray extends QuantizedArray {
+
+    // The quantized values
+    private int[]  _intArray;
+
+    // Constant for max quantized value
+    private static final int MAX_VALUE = Integer.MAX_VALUE;
+
+    /**
+     * Constructor for scale and offset.
+     */
+    public QuantizedIntArray(double aScale, double anOffset)
+    {
+        super(aScale, anOffset);
+        _intArray = new int[0];
+    }
+
+    /**
+     * Constructor for values, scale and offset.
+     */
+    public QuantizedIntArray(double[] theValues, double aScale, double anOffset)
+    {
+        this(aScale, anOffset);
+        addDoubles(theValues, 0, theValues.length);
+    }
+
+    /**
+     * Returns the maximum quantized value.
+     */
+    @Override
+    protected int getMaxQuantizedValue()  { return MAX_VALUE; }
+
+    /**
+     * Returns the precision used to store values.
+     */
+    @Override
+    public NumberPrecision getPrecision()  { return NumberPrecision.QuantizedInt; }
+
+    /**
+     * Returns the quantized value at index.
+     */
+    @Override
+    protected final int getQuantizedValue(int anIndex)  { return _intArray[anIndex]; }
+
+    /**
+     * Sets the quantized value at index.
+     */
+    @Override
+    protected final void setQuantizedValue(int aValue, int anIndex)  { _intArray[anIndex] = aValue; }
+
+    /**
+     * Returns the number of values the quantized values array can hold.
+     */
+    @Override
+    protected int getCapacity()  { return _intArray.length; }
+
+    /**
+     * Resizes the quantized values array to hold given number of values.
+     */
+    @Override
+    protected void setCapacity(int aValue)
+    {
+        _intArray = Arrays.copyOf(_intArray, aValue);
+    }
+
+    /**
+     * Copies given number of quantized values from source index to destination index (ranges can overlap).
+     */
+    @Override
+    protected void moveQuantizedValues(int aSrcIndex, int aDstIndex, int aCount)
+    {
+        System.arraycopy(_intArray, aSrcIndex, _intArray, aDstIndex, aCount);
+    }
+
+    /**
+     * Override to return as this subclass.
+     */
+    @Override
+    public QuantizedIntArray clone()
+    {
+        QuantizedIntArray clone = (QuantizedIntArray) super.clone();
+        clone._intArray = _intArray.clone();
+        return clone;
+    }
+
+    /**
+     * Returns a QuantizedIntArray for given values with scale and offset to fit value range.
+     */
+    public static QuantizedIntArray of(double[] theValues)
+    {
+        double[] scaleAndOffset = getScaleAndOffsetForValues(theValues, MAX_VALUE);
+        return new QuantizedIntArray(theValues, scaleAndOffset[0], scaleAndOffset[1]);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.data;
+import java.util.Arrays;
+
+/**
+ * This QuantizedArray subclass stores values in a short array (a quarter of the memory of DoubleArray, ~4 significant digits).
+ */
+public class QuantizedShortArray extends QuantizedArray {
+
+    // The quantized values
+    private short[]  _shortArray;
+
+    // Constant for max quantized value
+    private static final int MAX_VALUE = Short.MAX_VALUE;
+
+    /**
+     * Constructor for scale and offset.
+     */
+    public QuantizedShortArray(double aScale, double anOffset)
+    {
+        super(aScale, anOffset);
+        _shortArray = new short[0];
+    }
+
+    /**
+     * Constructor for values, scale and offset.
+     */
+    public QuantizedShortArray(double[] theValues, double aScale, double anOffset)
+    {
+        this(aScale, anOffset);
+        addDoubles(theValues, 0, theValues.length);
+    }
+
+    /**
+     * Returns the maximum quantized value.
+     */
+    @Override
+    protected int getMaxQuantizedValue()  { return MAX_VALUE; }
+
+    /**
+     * Returns the precision used to store values.
+     */
+    @Override
+    public NumberPrecision getPrecision()  { return NumberPrecision.QuantizedShort; }
+
+    /**
+     * Returns the quantized value at index.
+     */
+    @Override
+    protected final int getQuantizedValue(int anIndex)  { return _shortArray[anIndex]; }
+
+    /**
+     * Sets the quantized value at index.
+     */
+    @Override
+    protected final void setQuantizedValue(int aValue, int anIndex)  { _shortArray[anIndex] = (short) aValue; }
+
+    /**
+     * Returns the number of values the quantized values array can hold.
+     */
+    @Override
+    protected int getCapacity()  { return _shortArray.length; }
+
+    /**
+     * Resizes the quantized values array to hold given number of values.
+     */
+    @Override
+    protected void setCapacity(int aValue)
+    {
+        _shortArray = Arrays.copyOf(_shortArray, aValue);
+    }
+
+    /**
+     * Copies given number of quantized values from source index to destination index (ranges can overlap).
+     */
+    @Override
+    protected void moveQuantizedValues(int aSrcIndex, int aDstIndex, int aCount)
+    {
+        System.arraycopy(_shortArray, aSrcIndex, _shortArray, aDstIndex, aCount);
+    }
+
+    /**
+     * Override to return as this subclass.
+     */
+    @Override
+    public QuantizedShortArray clone()
+    {
+        QuantizedShortArray clone = (QuantizedShortArray) super.clone();
+        clone._shortArray = _shortArray.clone();
+        return clone;
+    }
+
+    /**
+     * Returns a QuantizedShortArray for given values with scale and offset to fit value range.
+     */
+    public static QuantizedShortArray of(double[] theValues)
+    {
+        double[] scaleAndOffset = getScaleAndOffsetForValues(theValues, MAX_VALUE);
+        return new QuantizedShortArray(theValues, scaleAndOffset[0], scaleAndOffset[1]);
+    }
+}
@@ -101,6 +101,24 @@ public class StringArray extends DataArray {
         clearCaches();
     }
 
+    /**
+     * Adds the given range of String values at end.
+     */
+    public void addStrings(String[] theValues, int aStart, int aCount)
+    {
+        // Expand components array if needed
+        int newLength = _length + aCount;
+        if (newLength > _stringArray.length)
+            _stringArray = Arrays.copyOf(_stringArray, Math.max(_stringArray.length * 2, newLength));
+
+        // Copy values and update length
+        System.arraycopy(theValues, aStart, _stringArray, _length, aCount);
+        _length = newLength;
+
+        // Clear caches
+        clearCaches();
+    }
+
     /**
      * Removes the value at index.
      */
@@ -143,6 +143,9 @@ public class ChartArchiver extends PropArchiverXML {
         // The DataUnits
         private DataUnit[]  _dataUnits;
 
+        // The NumberPrecisions
+        private NumberPrecision[]  _dataPrecisions;
+
         /**
          * Constructor.
          */
@@ -154,6 +157,7 @@ public class ChartArchiver extends PropArchiverXML {
             DataType dataType = _real.getDataType();
             _dataArrays = new DataArray[dataType.getChannelCount()];
             _dataUnits = new DataUnit[dataType.getChannelCount()];
+            _dataPrecisions = new NumberPrecision[dataType.getChannelCount()];
         }
 
         /**
@@ -162,6 +166,14 @@ public class ChartArchiver extends PropArchiverXML {
         @Override
         public DataSet getReal()
         {
+            // Convert NumberArrays with non-default precision
+            for (int i = 0; i < _dataPrecisions.length; i++) {
+                NumberPrecision precision = _dataPrecisions[i]; if (precision == null) continue;
+                DataArray dataArray = _dataArrays[i];
+                if (dataArray instanceof NumberArray)
+                    _dataArrays[i] = ((NumberArray) dataArray).copyForPrecision(precision);
+            }
+
             // Set DataUnits in DataArrays
             for (int i = 0; i < _dataUnits.length; i++) {
                 DataUnit dataUnit = _dataUnits[i]; if (dataUnit == null) continue;
@@ -188,7 +200,7 @@ public class ChartArchiver extends PropArchiverXML {
             int dataIndex = getDataChannelIndexForPropName(aPropName);
             if (dataIndex >= 0) {
                 if (aValue instanceof double[])
-                    _dataArrays[dataIndex] = new DoubleArray((double[]) aValue);
+                    _dataArrays[dataIndex] = DoubleArray.wrap((double[]) aValue);
                 else if (aValue instanceof String[])
                     _dataArrays[dataIndex] = new StringArray((String[]) aValue);
                 else System.err.println("DataSetProxy.setPropValue: Error setting data: " + aPropName);
@@ -204,6 +216,15 @@ public class ChartArchiver extends PropArchiverXML {
                 return;
             }
 
+            // Set NumberPrecisions
+            if (aValue instanceof NumberPrecision && aPropName.endsWith("Precision")) {
+                dataIndex = getDataChannelIndexForPropName(aPropName.replace("Precision", ""));
+                if (dataIndex >= 0)
+                    _dataPrecisions[dataIndex] = (NumberPrecision) aValue;
+                else System.err.println("DataSetProxy.setPropValue: Error setting data precision: " + aPropName);
+                return;
+            }
+
             // Forward to DataSet
             _real.setPropValue(aPropName, aValue);
 
@@ -212,6 +233,7 @@ public class ChartArchiver extends PropArchiverXML {
                 DataType dataType = _real.getDataType();
                 _dataArrays = new DataArray[dataType.getChannelCount()];
                 _dataUnits = new DataUnit[dataType.getChannelCount()];
+                _dataPrecisions = new NumberPrecision[dataType.getChannelCount()];
             }
         }
 
@@ -3,10 +3,13 @@ import snap.geom.Path2D;
 import snap.geom.Point;
 import snap.geom.Shape;
 import snapcharts.data.DataSet;
+import snapcharts.data.DataSetXYZZ;
+import snapcharts.data.DataType;
 import snapcharts.data.IntArray;
 import snapcharts.util.Mesh.Edge;
 import snapcharts.util.Mesh.Triangle;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * A class to generate contour paths from a DataSet.
@@ -19,6 +22,12 @@ public class ContourMaker {
     // The number of points in dataset
     private int  _pointCount;
 
+    // The grid X/Y/Z arrays for XYZZ data (to make contours with MarchingSquares instead of triangles)
+    private double[]  _gridX, _gridY, _gridZ;
+
+    // Constant for min number of dataset points to make contour levels in parallel
+    private static final int PARALLEL_POINT_COUNT = 10000;
+
     /**
      * Constructor to create mesh for given DataSet and array of triangle vertex indexes.
      */
@@ -26,6 +35,45 @@ public class ContourMaker {
     {
         _mesh = new Mesh(aDataSet);
         _pointCount = _mesh.getPointCount();
+
+        // If DataSet is XYZZ grid, get grid arrays for MarchingSquares
+        if (aDataSet instanceof DataSetXYZZ && aDataSet.getDataType() == DataType.XYZZ) {
+            DataSetXYZZ dataSetXYZZ = (DataSetXYZZ) aDataSet;
+            double[] dataX = dataSetXYZZ.getDataX();
+            double[] dataY = dataSetXYZZ.getDataY();
+            double[] dataZ = dataSetXYZZ.getDataZ();
+            if (dataX != null && dataY != null && dataZ != null && dataZ.length >= dataX.length * dataY.length) {
+                _gridX = dataX;
+                _gridY = dataY;
+                _gridZ = dataZ;
+            }
+        }
+    }
+
+    /**
+     * Returns the contour shapes for given array of contour values. Levels are independent once the mesh is built, so
+     * for large datasets they are made in parallel (on the common ForkJoinPool).
+     */
+    public Shape[] getContourShapes(double[] theValues)
+    {
+        // Prepare mesh (triangles, edges, vertex edge index and hull), so it is only read by contour threads
+        if (_gridZ == null)
+            _mesh.getTriangles();
+        _mesh.getHullPath();
+
+        // If few levels or small dataset, just make shapes in this thread
+        int count = theValues.length;
+        Shape[] shapes = new Shape[count];
+        if (count < 2 || _pointCount < PARALLEL_POINT_COUNT) {
+            for (int i = 0; i < count; i++)
+                shapes[i] = getContourShape(theValues[i]);
+        }
+
+        // Otherwise make shapes in parallel
+        else IntStream.range(0, count).parallel().forEach(i -> shapes[i] = getContourShape(theValues[i]));
+
+        // Return
+        return shapes;
     }
 
     /**
@@ -40,6 +88,13 @@ public class ContourMaker {
      */
     public Shape getContourShape(double valZ)
     {
+        // If grid arrays set (XYZZ), use MarchingSquares instead (if no contours, return path around mesh)
+        if (_gridZ != null) {
+            MarchingSquares marchingSquares = new MarchingSquares(_gridX, _gridY, _gridZ);
+            Shape contourShape = marchingSquares.getContourShape(valZ);
+            return contourShape != null ? contourShape : getMesh().getHullPath();
+        }
+
         // Get line segments
         List<Isoline> isolines = getIsolines(valZ);
 
@@ -47,21 +102,31 @@ public class ContourMaker {
         if (isolines.size()==0)
             return getMesh().getHullPath();
 
+        // Create isolines index (by edge) and subpath points deque
+        IsolineIndex isolineIndex = new IsolineIndex(isolines);
+        PointDeque points = new PointDeque();
+
         // Create path
         Path2D path = new Path2D();
 
         // Add subpaths from isolines until done
-        while (isolines.size() != 0) {
+        for (int i = 0, iMax = isolines.size(); i < iMax; i++) {
 
-            // Find next set of subpath points from isolines list (trims isolines as they are used)
-            List<Point> points = getPointsForOneSubpathForIsolines(isolines, valZ);
+            // If isoline already used by previous subpath, just skip
+            if (isolineIndex.isUsed(i))
+                continue;
+
+            // Find next set of subpath points starting with isoline (marks isolines as they are used)
+            points.clear();
+            addPointsForOneSubpathForIsolines(isolineIndex, i, valZ, points);
 
             // Iterate over points and add to path
-            for (int i=0, iMax=points.size(); i<iMax; i++) {
-                Point point = points.get(i);
-                if (i==0)
-                    path.moveTo(point.x, point.y);
-                else path.lineTo(point.x, point.y);
+            for (int j = 0, jMax = points.size(); j < jMax; j++) {
+                double pointX = points.getX(j);
+                double pointY = points.getY(j);
+                if (j==0)
+                    path.moveTo(pointX, pointY);
+                else path.lineTo(pointX, pointY);
             }
 
             // Close path
@@ -73,48 +138,47 @@ public class ContourMaker {
     }
 
     /**
-     * Returns the points for one subpath for given list of Isolines
+     * Adds the points for one subpath, starting with isoline at given index, to given points deque.
      */
-    private List<Point> getPointsForOneSubpathForIsolines(List<Isoline> theIsolines, double valZ)
+    private void addPointsForOneSubpathForIsolines(IsolineIndex theIsolines, int anIndex, double valZ, PointDeque points)
     {
         // Get info
-        List<Point> points = new ArrayList<>();
-        Isoline firstIso = theIsolines.remove(0);
+        Isoline firstIso = theIsolines.useIsoline(anIndex);
         Edge edge0 = firstIso.edge1;
         Edge edgeN = firstIso.edge2;
-        points.add(firstIso.point1);
-        points.add(firstIso.point2);
+        points.addLast(firstIso.point1);
+        points.addLast(firstIso.point2);
 
         // Iterate until closed
         while (edge0 != edgeN) {
 
             // Expand forward
-            Isoline nextIso = getIsolineForEdge(theIsolines, edgeN);
+            Isoline nextIso = theIsolines.getIsolineForEdge(edgeN);
             while (nextIso != null) {
-                points.add(edgeN == nextIso.edge1 ? nextIso.point2 : nextIso.point1);
+                points.addLast(edgeN == nextIso.edge1 ? nextIso.point2 : nextIso.point1);
                 edgeN = edgeN == nextIso.edge1 ? nextIso.edge2 : nextIso.edge1;
-                nextIso = getIsolineForEdge(theIsolines, edgeN);
+                nextIso = theIsolines.getIsolineForEdge(edgeN);
             }
 
             // Expand back - do I need this?
-            Isoline prevIso = getIsolineForEdge(theIsolines, edge0);
+            Isoline prevIso = theIsolines.getIsolineForEdge(edge0);
             while (prevIso != null) {
-                points.add(0, edge0 == prevIso.edge1 ? prevIso.point2 : prevIso.point1);
+                points.addFirst(edge0 == prevIso.edge1 ? prevIso.point2 : prevIso.point1);
                 edge0 = edge0 == prevIso.edge1 ? prevIso.edge2 : prevIso.edge1;
-                prevIso = getIsolineForEdge(theIsolines, edge0);
+                prevIso = theIsolines.getIsolineForEdge(edge0);
             }
 
             // If closed loop of points, just return
             if (edge0 == edgeN)
-                return points;
+                return;
 
             // Sanity check: Both edges should be on perimeter
             if (!edge0.isPerimeter() || !edgeN.isPerimeter()) {
-                System.err.println("Mesh.getPointsForOneSubpathForIsolines: unconnected edge not on perimeter");
+                System.err.println("ContourMaker.addPointsForOneSubpathForIsolines: unconnected edge not on perimeter");
                 if (!edge0.isPerimeter())
-                    getIsolineForEdge(theIsolines, edge0);
+                    theIsolines.getIsolineForEdge(edge0);
                 if (!edgeN.isPerimeter())
-                    getIsolineForEdge(theIsolines, edgeN);
+                    theIsolines.getIsolineForEdge(edgeN);
             }
 
             // Get next index to add
@@ -126,7 +190,7 @@ public class ContourMaker {
                 // Get edgeN index that is above valZ and get/add point at index
                 double aboveX = getX(aboveInd);
                 double aboveY = getY(aboveInd);
-                points.add(new Point(aboveX, aboveY));
+                points.addLast(aboveX, aboveY);
 
                 // Get next perimeter edge
                 Edge edgeTemp = edgeN;
@@ -135,17 +199,17 @@ public class ContourMaker {
                 // There has to be a next perimeter edge, right?
                 if (edgeN == null) {
                     edgeN = _mesh.getNextPerimeterEdge(edgeTemp, aboveInd);
-                    System.err.println("Mesh.getPointsForOneSubpathForIsolines: Can't find next perimeter edge");
-                    return points;
+                    System.err.println("ContourMaker.addPointsForOneSubpathForIsolines: Can't find next perimeter edge");
+                    return;
                 }
 
                 // If has isoline, add that point and break
-                Isoline edgeIso = getIsolineForEdge(theIsolines, edgeN);
+                Isoline edgeIso = theIsolines.getIsolineForEdge(edgeN);
                 if (edgeIso != null) {
                     Point point1 = edgeIso.edge1 == edgeN ? edgeIso.point1 : edgeIso.point2;
                     Point point2 = edgeIso.edge1 == edgeN ? edgeIso.point2 : edgeIso.point1;
-                    points.add(point1);
-                    points.add(point2);
+                    points.addLast(point1);
+                    points.addLast(point2);
                     edgeN = edgeIso.edge1 == edgeN ? edgeIso.edge2 : edgeIso.edge1;
                     break;
                 }
@@ -155,33 +219,17 @@ public class ContourMaker {
 
                 // Sanity check: There can't possibly be more path points than there are dataset points
                 if (points.size() > getPointCount()*2) {
-                    System.err.println("Mesh.getPointsForOneSubpathForIsolines: Compute error (too many points)");
-                    return points;
+                    System.err.println("ContourMaker.addPointsForOneSubpathForIsolines: Compute error (too many points)");
+                    return;
                 }
             }
 
             // Sanity check: There can't possibly be more path points than there are dataset points
             if (points.size() > getPointCount()*2) {
-                System.err.println("Mesh.getPointsForOneSubpathForIsolines: Compute error (too many points)");
-                return points;
+                System.err.println("ContourMaker.addPointsForOneSubpathForIsolines: Compute error (too many points)");
+                return;
             }
         }
-
-        // Return points
-        return points;
-    }
-
-    /**
-     * Searches the given Isolines list for one that includes given edge. If found, removes and returns (otherwise null).
-     */
-    private Isoline getIsolineForEdge(List<Isoline> theIsolines, Edge anEdge)
-    {
-        for (int i = 0, iMax = theIsolines.size(); i < iMax; i++) {
-            Isoline iso = theIsolines.get(i);
-            if (iso.edge1 == anEdge || iso.edge2 == anEdge)
-                return theIsolines.remove(i);
-        }
-        return null;
     }
 
     /**
@@ -241,7 +289,7 @@ public class ContourMaker {
     private int getPointCount()  { return _pointCount; }
 
     /**
-     * Returns X value at given dataset point index (accounts for 'super-triangle' points).
+     * Returns X value at given dataset point index.
      */
     private double getX(int anIndex)
     {
@@ -249,7 +297,7 @@ public class ContourMaker {
     }
 
     /**
-     * Returns Y at given dataset point index (accounts for 'super-triangle' points).
+     * Returns Y at given dataset point index.
      */
     private double getY(int anIndex)
     {
@@ -257,7 +305,7 @@ public class ContourMaker {
     }
 
     /**
-     * Returns Z at given dataset point index (accounts for 'super-triangle' points).
+     * Returns Z at given dataset point index.
      */
     private double getZ(int anIndex)
     {
@@ -305,4 +353,193 @@ public class ContourMaker {
             return "Isoline { edge1=" + edge1 + ", edge2=" + edge2 + ", point1=" + point1 + ", point2=" + point2 + " } ";
         }
     }
+
+    /**
+     * A class to index isolines by edge (in an open addressing hash table of edge index to the one or two isolines
+     * that cross it), so subpaths can be stitched in constant time per isoline.
+     */
+    private static class IsolineIndex {
+
+        // The isolines
+        private Isoline[]  _isolines;
+
+        // Whether each isoline has been used
+        private boolean[]  _used;
+
+        // The hash table edge index keys (or -1 for empty) and first/second isoline index for each edge (or -1)
+        private int[]  _keys, _isos1, _isos2;
+
+        // The hash table mask (table length - 1)
+        private int  _mask;
+
+        /**
+         * Constructor.
+         */
+        public IsolineIndex(List<Isoline> theIsolines)
+        {
+            _isolines = theIsolines.toArray(new Isoline[0]);
+            int isoCount = _isolines.length;
+            _used = new boolean[isoCount];
+
+            // Create hash table for up to 2 edges per isoline, with load no more than half
+            int tableLen = Integer.highestOneBit(Math.max(isoCount * 4, 2) - 1) << 1;
+            _keys = new int[tableLen];
+            _isos1 = new int[tableLen];
+            _isos2 = new int[tableLen];
+            _mask = tableLen - 1;
+            Arrays.fill(_keys, -1);
+
+            // Add isolines for edges
+            for (int i = 0; i < isoCount; i++) {
+                Isoline iso = _isolines[i];
+                addIsolineForEdge(iso.edge1, i);
+                addIsolineForEdge(iso.edge2, i);
+            }
+        }
+
+        /**
+         * Returns whether isoline at index has been used.
+         */
+        public boolean isUsed(int anIndex)  { return _used[anIndex]; }
+
+        /**
+         * Marks isoline at index as used and returns it.
+         */
+        public Isoline useIsoline(int anIndex)
+        {
+            _used[anIndex] = true;
+            return _isolines[anIndex];
+        }
+
+        /**
+         * Returns the first unused isoline that includes given edge and marks it as used (or null if none).
+         */
+        public Isoline getIsolineForEdge(Edge anEdge)
+        {
+            // Get table slot for edge (just return null if not found)
+            int slot = getSlot(anEdge.index);
+            if (_keys[slot] == -1)
+                return null;
+
+            // Return first unused isoline for edge
+            int iso1 = _isos1[slot];
+            if (!_used[iso1])
+                return useIsoline(iso1);
+            int iso2 = _isos2[slot];
+            if (iso2 >= 0 && !_used[iso2])
+                return useIsoline(iso2);
+            return null;
+        }
+
+        /**
+         * Adds isoline index for given edge.
+         */
+        private void addIsolineForEdge(Edge anEdge, int anIndex)
+        {
+            int slot = getSlot(anEdge.index);
+            if (_keys[slot] == -1) {
+                _keys[slot] = anEdge.index;
+                _isos1[slot] = anIndex;
+                _isos2[slot] = -1;
+            }
+            else if (_isos2[slot] == -1)
+                _isos2[slot] = anIndex;
+            else System.err.println("ContourMaker.IsolineIndex: More than two isolines for edge: " + anEdge);
+        }
+
+        /**
+         * Returns the table slot for given edge index key (either slot with key or first empty slot probed).
+         */
+        private int getSlot(int aKey)
+        {
+            int hash = aKey * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & _mask;
+            while (_keys[slot] != -1 && _keys[slot] != aKey)
+                slot = (slot + 1) & _mask;
+            return slot;
+        }
+    }
+
+    /**
+     * A double-ended queue of point X/Y coords (in primitive arrays), so subpath points can be added at either end.
+     */
+    private static class PointDeque {
+
+        // The point X/Y coords
+        private double[]  _xs = new double[64], _ys = new double[64];
+
+        // The start/end of points in arrays
+        private int  _start = 32, _end = 32;
+
+        /**
+         * Returns the number of points.
+         */
+        public int size()  { return _end - _start; }
+
+        /**
+         * Returns the X for point at index.
+         */
+        public double getX(int anIndex)  { return _xs[_start + anIndex]; }
+
+        /**
+         * Returns the Y for point at index.
+         */
+        public double getY(int anIndex)  { return _ys[_start + anIndex]; }
+
+        /**
+         * Adds a point to start.
+         */
+        public void addFirst(Point aPoint)
+        {
+            if (_start == 0) grow();
+            _start--;
+            _xs[_start] = aPoint.x;
+            _ys[_start] = aPoint.y;
+        }
+
+        /**
+         * Adds a point to end.
+         */
+        public void addLast(Point aPoint)
+        {
+            addLast(aPoint.x, aPoint.y);
+        }
+
+        /**
+         * Adds a point X/Y to end.
+         */
+        public void addLast(double aX, double aY)
+        {
+            if (_end == _xs.length) grow();
+            _xs[_end] = aX;
+            _ys[_end] = aY;
+            _end++;
+        }
+
+        /**
+         * Removes all points.
+         */
+        public void clear()
+        {
+            _start = _end = _xs.length / 2;
+        }
+
+        /**
+         * Grows arrays and centers points, so there is room to add at either end.
+         */
+        private void grow()
+        {
+            int size = size();
+            int newLength = _xs.length * 2;
+            int newStart = (newLength - size) / 2;
+            double[] xs = new double[newLength];
+            double[] ys = new double[newLength];
+            System.arraycopy(_xs, _start, xs, newStart, size);
+            System.arraycopy(_ys, _start, ys, newStart, size);
+            _xs = xs;
+            _ys = ys;
+            _start = newStart;
+            _end = newStart + size;
+        }
+    }
 }
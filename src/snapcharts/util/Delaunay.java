@@ -0,0 +1,504 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ *
+ * Portions ported from Delaunator (https://github.com/mapbox/delaunator), under the ISC License:
+ *
+ * Copyright (c) 2017, Mapbox
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose with or without fee is hereby
+ * granted, provided that the above copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH REGARD TO THIS SOFTWARE INCLUDING ALL
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN
+ * AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR
+ * PERFORMANCE OF THIS SOFTWARE.
+ */
+package snapcharts.util;
+import java.util.Arrays;
+
+/**
+ * This class creates a Delaunay triangulation for a set of X/Y points in O(n log n) using a sweep-hull: Points are
+ * sorted by distance from a seed triangle and added in order, each connecting to the visible edges of the current
+ * convex hull (found with a hash of hull points by angle) and then legalized with edge flips.
+ *
+ * Triangles are returned as a flat array of point indexes (3 per triangle), with a matching array of half-edges
+ * (the index of the opposite half-edge in the adjacent triangle, or -1 if edge is on hull).
+ *
+ * This is a Java port of Mapbox's Delaunator (ISC License, see notice above).
+ */
+public class Delaunay {
+
+    // The point X/Y coords
+    private double[]  _xs, _ys;
+
+    // The number of points
+    private int  _pointCount;
+
+    // The triangle point indexes (3 per triangle) and half-edges
+    private int[]  _triangles, _halfedges;
+    private int  _trianglesLen;
+
+    // The hull linked list (prev/next point index for each hull point), triangle for each hull edge and start point
+    private int[]  _hullPrev, _hullNext, _hullTri;
+    private int  _hullStart;
+
+    // The hash of hull points by angle from center (for finding visible hull edge for new point)
+    private int[]  _hullHash;
+    private int  _hashSize;
+
+    // The hull point indexes (in order)
+    private int[]  _hull;
+
+    // The seed triangle circumcenter
+    private double  _centerX, _centerY;
+
+    // The stack of edges to legalize
+    private int[]  _edgeStack = new int[512];
+
+    // Constant for near duplicate point tolerance
+    private static final double EPSILON = Math.pow(2, -52);
+
+    /**
+     * Constructor for given point X/Y coords and count.
+     */
+    public Delaunay(double[] theXs, double[] theYs, int aCount)
+    {
+        _xs = theXs;
+        _ys = theYs;
+        _pointCount = aCount;
+
+        // Create arrays
+        int maxTriangles = Math.max(2 * aCount - 5, 0);
+        _triangles = new int[maxTriangles * 3];
+        _halfedges = new int[maxTriangles * 3];
+        _hashSize = Math.max((int) Math.ceil(Math.sqrt(aCount)), 1);
+        _hullPrev = new int[aCount];
+        _hullNext = new int[aCount];
+        _hullTri = new int[aCount];
+        _hullHash = new int[_hashSize];
+
+        // Triangulate
+        triangulate();
+    }
+
+    /**
+     * Returns the triangle point indexes (3 per triangle).
+     */
+    public int[] getTriangles()  { return _triangles; }
+
+    /**
+     * Returns the half-edges: For each triangle edge, the index of opposite edge in adjacent triangle (or -1 for hull).
+     */
+    public int[] getHalfedges()  { return _halfedges; }
+
+    /**
+     * Returns the hull point indexes (in order).
+     */
+    public int[] getHull()  { return _hull; }
+
+    /**
+     * Triangulates points.
+     */
+    private void triangulate()
+    {
+        // Get point bounds and initial sort indexes
+        int pointCount = _pointCount;
+        double[] xs = _xs, ys = _ys;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        int[] ids = new int[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+            ids[i] = i;
+        }
+        double midX = (minX + maxX) / 2;
+        double midY = (minY + maxY) / 2;
+
+        // Get seed point closest to center
+        int i0 = -1, i1 = -1, i2 = -1;
+        double minDist = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < pointCount; i++) {
+            double dist = getDistSq(midX, midY, xs[i], ys[i]);
+            if (dist < minDist) { i0 = i; minDist = dist; }
+        }
+
+        // If no seed point (no points or non-finite coords), just return no triangles
+        if (i0 < 0) {
+            _hull = new int[0];
+            _triangles = new int[0];
+            _halfedges = new int[0];
+            return;
+        }
+
+        // Get point closest to seed
+        minDist = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < pointCount; i++) {
+            if (i == i0) continue;
+            double dist = getDistSq(xs[i0], ys[i0], xs[i], ys[i]);
+            if (dist < minDist && dist > 0) { i1 = i; minDist = dist; }
+        }
+
+        // Get third point that forms smallest circumcircle with first two
+        double minRadius = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < pointCount && i1 >= 0; i++) {
+            if (i == i0 || i == i1) continue;
+            double radius = getCircumRadiusSq(xs[i0], ys[i0], xs[i1], ys[i1], xs[i], ys[i]);
+            if (radius < minRadius) { i2 = i; minRadius = radius; }
+        }
+
+        // If no seed triangle (all points collinear or duplicate), set hull to points ordered along line and return
+        if (i2 < 0) {
+            double[] dists = new double[pointCount];
+            for (int i = 0; i < pointCount; i++) {
+                double dx = xs[i] - xs[0];
+                dists[i] = dx != 0 ? dx : ys[i] - ys[0];
+            }
+            sortIds(ids, dists, 0, pointCount - 1);
+            int[] hull = new int[pointCount];
+            int hullSize = 0;
+            double lastDist = Double.NEGATIVE_INFINITY;
+            for (int id : ids) {
+                if (dists[id] > lastDist) {
+                    hull[hullSize++] = id;
+                    lastDist = dists[id];
+                }
+            }
+            _hull = Arrays.copyOf(hull, hullSize);
+            _triangles = new int[0];
+            _halfedges = new int[0];
+            return;
+        }
+
+        // Swap seed points if needed for counter-clockwise orientation
+        if (isOrientCW(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2])) {
+            int temp = i1; i1 = i2; i2 = temp;
+        }
+
+        // Get seed triangle circumcenter and sort points by distance from it
+        setCircumCenter(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2]);
+        double[] dists = new double[pointCount];
+        for (int i = 0; i < pointCount; i++)
+            dists[i] = getDistSq(xs[i], ys[i], _centerX, _centerY);
+        sortIds(ids, dists, 0, pointCount - 1);
+
+        // Set seed triangle as starting hull
+        int[] hullPrev = _hullPrev, hullNext = _hullNext, hullTri = _hullTri, hullHash = _hullHash;
+        _hullStart = i0;
+        int hullSize = 3;
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+        Arrays.fill(hullHash, -1);
+        hullHash[getHashKey(xs[i0], ys[i0])] = i0;
+        hullHash[getHashKey(xs[i1], ys[i1])] = i1;
+        hullHash[getHashKey(xs[i2], ys[i2])] = i2;
+        addTriangle(i0, i1, i2, -1, -1, -1);
+
+        // Iterate over points in order of distance from seed
+        double lastX = 0, lastY = 0;
+        for (int k = 0; k < pointCount; k++) {
+            int i = ids[k];
+            double x = xs[i], y = ys[i];
+
+            // Skip near duplicate points and seed points
+            if (k > 0 && Math.abs(x - lastX) <= EPSILON && Math.abs(y - lastY) <= EPSILON) continue;
+            lastX = x; lastY = y;
+            if (i == i0 || i == i1 || i == i2) continue;
+
+            // Find a visible edge on convex hull using hull hash
+            int start = 0;
+            for (int j = 0, key = getHashKey(x, y); j < _hashSize; j++) {
+                start = hullHash[(key + j) % _hashSize];
+                if (start != -1 && start != hullNext[start]) break;
+            }
+            start = hullPrev[start];
+            int e = start, q;
+            while (!isOrientCW(x, y, xs[e], ys[e], xs[q = hullNext[e]], ys[q])) {
+                e = q;
+                if (e == start) { e = -1; break; }
+            }
+
+            // If no visible edge, skip (likely a near duplicate point)
+            if (e == -1) continue;
+
+            // Add first triangle from point and legalize
+            int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+            hullTri[i] = legalize(t + 2);
+            hullTri[e] = t;
+            hullSize++;
+
+            // Walk forward through hull, adding more triangles and legalizing
+            int n = hullNext[e];
+            while (isOrientCW(x, y, xs[n], ys[n], xs[q = hullNext[n]], ys[q])) {
+                t = addTriangle(n, i, q, hullTri[i], -1, hullTri[n]);
+                hullTri[i] = legalize(t + 2);
+                hullNext[n] = n; // Mark as removed
+                hullSize--;
+                n = q;
+            }
+
+            // Walk backward from other side, adding more triangles and legalizing
+            if (e == start) {
+                while (isOrientCW(x, y, xs[q = hullPrev[e]], ys[q], xs[e], ys[e])) {
+                    t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                    legalize(t + 2);
+                    hullTri[q] = t;
+                    hullNext[e] = e; // Mark as removed
+                    hullSize--;
+                    e = q;
+                }
+            }
+
+            // Update hull indexes and hash
+            _hullStart = hullPrev[i] = e;
+            hullNext[e] = hullPrev[n] = i;
+            hullNext[i] = n;
+            hullHash[getHashKey(x, y)] = i;
+            hullHash[getHashKey(xs[e], ys[e])] = e;
+        }
+
+        // Get hull
+        _hull = new int[hullSize];
+        for (int i = 0, e = _hullStart; i < hullSize; i++) {
+            _hull[i] = e;
+            e = hullNext[e];
+        }
+
+        // Trim triangle arrays
+        _triangles = Arrays.copyOf(_triangles, _trianglesLen);
+        _halfedges = Arrays.copyOf(_halfedges, _trianglesLen);
+    }
+
+    /**
+     * Flips triangle edges (starting with given half-edge) until they satisfy the Delaunay condition. Returns the
+     * half-edge that replaces given one's previous edge.
+     */
+    private int legalize(int a)
+    {
+        int[] triangles = _triangles, halfedges = _halfedges;
+        int stackSize = 0;
+        int ar;
+
+        // Iterate (with edge stack instead of recursion)
+        while (true) {
+            int b = halfedges[a];
+            int a0 = a - a % 3;
+            ar = a0 + (a + 2) % 3;
+
+            // If hull edge, pop next edge or stop
+            if (b == -1) {
+                if (stackSize == 0) break;
+                a = _edgeStack[--stackSize];
+                continue;
+            }
+
+            // Get points of the two triangles that share edge
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+            int p0 = triangles[ar];
+            int pr = triangles[a];
+            int pl = triangles[al];
+            int p1 = triangles[bl];
+
+            // If opposite point is inside circumcircle, flip edge
+            if (isInCircle(_xs[p0], _ys[p0], _xs[pr], _ys[pr], _xs[pl], _ys[pl], _xs[p1], _ys[p1])) {
+                triangles[a] = p1;
+                triangles[b] = p0;
+
+                // If edge swapped on other side of hull (rare), fix hull triangle reference
+                int hbl = halfedges[bl];
+                if (hbl == -1) {
+                    int e = _hullStart;
+                    do {
+                        if (_hullTri[e] == bl) {
+                            _hullTri[e] = a;
+                            break;
+                        }
+                        e = _hullPrev[e];
+                    } while (e != _hullStart);
+                }
+                link(a, hbl);
+                link(b, halfedges[ar]);
+                link(ar, bl);
+
+                // Push edge to check (stack can only overflow for extremely degenerate input)
+                int br = b0 + (b + 1) % 3;
+                if (stackSize < _edgeStack.length)
+                    _edgeStack[stackSize++] = br;
+            }
+
+            // Otherwise, pop next edge or stop
+            else {
+                if (stackSize == 0) break;
+                a = _edgeStack[--stackSize];
+            }
+        }
+
+        // Return
+        return ar;
+    }
+
+    /**
+     * Links two half-edges.
+     */
+    private void link(int a, int b)
+    {
+        _halfedges[a] = b;
+        if (b != -1)
+            _halfedges[b] = a;
+    }
+
+    /**
+     * Adds a triangle for given points and half-edges and returns its first half-edge index.
+     */
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c)
+    {
+        int t = _trianglesLen;
+        _triangles[t] = i0;
+        _triangles[t + 1] = i1;
+        _triangles[t + 2] = i2;
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        _trianglesLen += 3;
+        return t;
+    }
+
+    /**
+     * Returns the hull hash key for given point (monotonic with angle from center).
+     */
+    private int getHashKey(double aX, double aY)
+    {
+        double dx = aX - _centerX;
+        double dy = aY - _centerY;
+        double p = dx / (Math.abs(dx) + Math.abs(dy));
+        double angle = (dy > 0 ? 3 - p : 1 + p) / 4;
+        return (int) Math.floor(angle * _hashSize) % _hashSize;
+    }
+
+    /**
+     * Sets the circumcenter of given triangle points.
+     */
+    private void setCircumCenter(double ax, double ay, double bx, double by, double cx, double cy)
+    {
+        double dx = bx - ax, dy = by - ay;
+        double ex = cx - ax, ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = .5 / (dx * ey - dy * ex);
+        _centerX = ax + (ey * bl - dy * cl) * d;
+        _centerY = ay + (dx * cl - ex * bl) * d;
+    }
+
+    /**
+     * Returns the squared circumradius of given triangle points (infinite or NaN if collinear).
+     */
+    private static double getCircumRadiusSq(double ax, double ay, double bx, double by, double cx, double cy)
+    {
+        double dx = bx - ax, dy = by - ay;
+        double ex = cx - ax, ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = .5 / (dx * ey - dy * ex);
+        double x = (ey * bl - dy * cl) * d;
+        double y = (dx * cl - ex * bl) * d;
+        return x * x + y * y;
+    }
+
+    /**
+     * Returns whether given points are in clockwise order.
+     */
+    private static boolean isOrientCW(double px, double py, double qx, double qy, double rx, double ry)
+    {
+        return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+    }
+
+    /**
+     * Returns whether point P is inside circumcircle of triangle A, B, C.
+     */
+    private static boolean isInCircle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py)
+    {
+        double dx = ax - px, dy = ay - py;
+        double ex = bx - px, ey = by - py;
+        double fx = cx - px, fy = cy - py;
+        double ap = dx * dx + dy * dy;
+        double bp = ex * ex + ey * ey;
+        double cp = fx * fx + fy * fy;
+        return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+    }
+
+    /**
+     * Returns the squared distance between two points.
+     */
+    private static double getDistSq(double ax, double ay, double bx, double by)
+    {
+        double dx = ax - bx, dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Sorts given point indexes by given distances (quicksort with insertion sort for short runs).
+     */
+    private static void sortIds(int[] ids, double[] dists, int left, int right)
+    {
+        while (right - left > 20) {
+
+            // Get median of three as pivot and partition
+            int median = (left + right) >>> 1;
+            swap(ids, median, left + 1);
+            if (dists[ids[left]] > dists[ids[right]]) swap(ids, left, right);
+            if (dists[ids[left + 1]] > dists[ids[right]]) swap(ids, left + 1, right);
+            if (dists[ids[left]] > dists[ids[left + 1]]) swap(ids, left, left + 1);
+            int i = left + 1;
+            int j = right;
+            int temp = ids[left + 1];
+            double tempDist = dists[temp];
+            while (true) {
+                do i++; while (dists[ids[i]] < tempDist);
+                do j--; while (dists[ids[j]] > tempDist);
+                if (j < i) break;
+                swap(ids, i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = temp;
+
+            // Recurse into smaller side, loop on larger side
+            if (right - i + 1 >= j - left) {
+                sortIds(ids, dists, left, j - 1);
+                left = i;
+            }
+            else {
+                sortIds(ids, dists, i, right);
+                right = j - 1;
+            }
+        }
+
+        // Insertion sort for short run
+        for (int i = left + 1; i <= right; i++) {
+            int temp = ids[i];
+            double tempDist = dists[temp];
+            int j = i - 1;
+            while (j >= left && dists[ids[j]] > tempDist)
+                ids[j + 1] = ids[j--];
+            ids[j + 1] = temp;
+        }
+    }
+
+    /**
+     * Swaps two array elements.
+     */
+    private static void swap(int[] anArray, int i, int j)
+    {
+        int temp = anArray[i];
+        anArray[i] = anArray[j];
+        anArray[j] = temp;
+    }
+}
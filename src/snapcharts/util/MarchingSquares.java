@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.util;
+import snap.geom.Path2D;
+import snap.geom.Shape;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class generates contour shapes for a grid of Z values (like DataSetXYZZ) using marching squares. It reads the
+ * grid X/Y/Z arrays directly and traces contour lines cell to cell (with no triangles, edges or isoline objects).
+ *
+ * Contour lines are traced with the region above contour value on the left. Lines that hit the grid perimeter are
+ * joined by walking the perimeter through points above contour value, so each contour shape is the closed region
+ * above the value (like ContourMaker.getContourShape() for triangle meshes). Saddle cells are disambiguated with the
+ * average of cell corners.
+ *
+ * Instances hold trace state for the current contour, so they shouldn't be shared between threads.
+ */
+public class MarchingSquares {
+
+    // The grid column X values, row Y values and Z values (row major)
+    private double[]  _xs, _ys, _zs;
+
+    // The grid column/row counts
+    private int  _colCount, _rowCount;
+
+    // The contour value for current shape
+    private double  _valZ;
+
+    // The cell segments already traced (4 bits per cell, for entry edge)
+    private BitSet  _traced;
+
+    // The point buffer for traced boundary chains
+    private double[]  _chainXs = new double[256], _chainYs = new double[256];
+    private int  _chainPointCount;
+
+    // Constants for cell edges (counter-clockwise from bottom, in grid index space)
+    private static final int BOTTOM = 0, RIGHT = 1, TOP = 2, LEFT = 3;
+
+    /**
+     * Constructor for given grid column X values, row Y values and Z values (row major).
+     */
+    public MarchingSquares(double[] theXs, double[] theYs, double[] theZs)
+    {
+        _xs = theXs;
+        _ys = theYs;
+        _zs = theZs;
+        _colCount = theXs.length;
+        _rowCount = theYs.length;
+    }
+
+    /**
+     * Returns the contour shape (region above given value) or null if no contour lines cross grid.
+     */
+    public Shape getContourShape(double valZ)
+    {
+        // If no grid cells, just return
+        Path2D path = new Path2D();
+        if (_colCount < 2 || _rowCount < 2)
+            return path;
+
+        // Reset trace state
+        _valZ = valZ;
+        _traced = new BitSet((_colCount - 1) * (_rowCount - 1) * 4);
+        _chainPointCount = 0;
+
+        // Trace boundary chains and add them to path, joined along perimeter
+        boolean hasContours = addBoundaryChains(path);
+
+        // Trace remaining closed loops and add to path
+        for (int row = 0, rowMax = _rowCount - 1; row < rowMax; row++) {
+            for (int col = 0, colMax = _colCount - 1; col < colMax; col++) {
+
+                // Get cell case (just continue if all corners above or below)
+                int cellCase = getCellCase(col, row);
+                if (cellCase == 0 || cellCase == 15)
+                    continue;
+
+                // Iterate over cell edges and trace loop for any untraced entry edge
+                for (int edge = 0; edge < 4; edge++) {
+                    if (isEntryEdge(cellCase, edge) && !isTraced(col, row, edge)) {
+                        traceLoop(path, col, row, edge);
+                        hasContours = true;
+                    }
+                }
+            }
+        }
+
+        // Release trace state and return path (or null if no contours)
+        _traced = null;
+        return hasContours ? path : null;
+    }
+
+    /**
+     * Traces the chains that start and end on grid perimeter and adds them to path, joining each chain end to next
+     * chain start by walking perimeter. Returns whether any chains were found.
+     */
+    private boolean addBoundaryChains(Path2D aPath)
+    {
+        // Get perimeter edge count and arrays for chain start/end in chain points and exit perimeter edge
+        int perimCount = getPerimeterCount();
+        int[] chainStarts = new int[perimCount];
+        int[] chainEnds = new int[perimCount];
+        int[] chainExits = new int[perimCount];
+        Arrays.fill(chainStarts, -1);
+        boolean hasChains = false;
+
+        // Iterate over perimeter edges and trace chain for each entry edge (perimeter point above, next below)
+        for (int i = 0; i < perimCount; i++) {
+            if (!isAbove(getPerimeterPointIndex(i)) || isAbove(getPerimeterPointIndex((i + 1) % perimCount)))
+                continue;
+            chainStarts[i] = _chainPointCount;
+            chainExits[i] = traceChain(i);
+            chainEnds[i] = _chainPointCount;
+            hasChains = true;
+        }
+
+        // Iterate over chains and add subpaths
+        boolean[] chainsUsed = new boolean[perimCount];
+        for (int i = 0; i < perimCount; i++) {
+
+            // If no chain at edge or already used, just continue
+            if (chainStarts[i] < 0 || chainsUsed[i])
+                continue;
+
+            // Iterate over chains in subpath (joined by perimeter walk) until back at first
+            int chainIndex = i;
+            boolean isFirst = true;
+            do {
+
+                // Add chain points
+                chainsUsed[chainIndex] = true;
+                for (int j = chainStarts[chainIndex], jMax = chainEnds[chainIndex]; j < jMax; j++) {
+                    if (isFirst) {
+                        aPath.moveTo(_chainXs[j], _chainYs[j]);
+                        isFirst = false;
+                    }
+                    else aPath.lineTo(_chainXs[j], _chainYs[j]);
+                }
+
+                // Walk perimeter points (all above value) from chain exit until next chain entry
+                int perimIndex = chainExits[chainIndex];
+                for (int count = 0; count < perimCount; count++) {
+                    perimIndex = (perimIndex + 1) % perimCount;
+                    int pointIndex = getPerimeterPointIndex(perimIndex);
+                    aPath.lineTo(_xs[pointIndex % _colCount], _ys[pointIndex / _colCount]);
+                    if (chainStarts[perimIndex] >= 0)
+                        break;
+                }
+
+                // Sanity check: Perimeter walk should always find a chain
+                if (chainStarts[perimIndex] < 0) {
+                    System.err.println("MarchingSquares.addBoundaryChains: Can't find next chain on perimeter");
+                    break;
+                }
+                chainIndex = perimIndex;
+
+            // Stop when back at first chain
+            } while (chainIndex != i);
+
+            // Close path
+            aPath.close();
+        }
+
+        // Return whether chains found
+        return hasChains;
+    }
+
+    /**
+     * Traces a chain from given perimeter entry edge into chain points buffer and returns perimeter exit edge.
+     */
+    private int traceChain(int aPerimIndex)
+    {
+        // Get cell and cell edge for perimeter edge
+        int col, row, edge;
+        int bottomCount = _colCount - 1, sideCount = _rowCount - 1;
+        if (aPerimIndex < bottomCount) { col = aPerimIndex; row = 0; edge = BOTTOM; }
+        else if (aPerimIndex < bottomCount + sideCount) { col = _colCount - 2; row = aPerimIndex - bottomCount; edge = RIGHT; }
+        else if (aPerimIndex < bottomCount * 2 + sideCount) {
+            col = bottomCount * 2 + sideCount - 1 - aPerimIndex; row = _rowCount - 2; edge = TOP; }
+        else { col = 0; row = bottomCount * 2 + sideCount * 2 - 1 - aPerimIndex; edge = LEFT; }
+
+        // Iterate over cells until chain leaves grid
+        while (true) {
+
+            // Add entry point and mark traced
+            addChainPoint(col, row, edge);
+            setTraced(col, row, edge);
+
+            // Get exit edge and add exit point
+            int exitEdge = getExitEdge(col, row, edge);
+
+            // Get next cell (if outside grid, add exit point and return exit perimeter edge)
+            int nextCol = exitEdge == RIGHT ? col + 1 : exitEdge == LEFT ? col - 1 : col;
+            int nextRow = exitEdge == TOP ? row + 1 : exitEdge == BOTTOM ? row - 1 : row;
+            if (nextCol < 0 || nextCol >= _colCount - 1 || nextRow < 0 || nextRow >= _rowCount - 1) {
+                addChainPoint(col, row, exitEdge);
+                return getPerimeterIndex(col, row, exitEdge);
+            }
+
+            // Move to next cell (entry edge is opposite of exit edge)
+            col = nextCol;
+            row = nextRow;
+            edge = (exitEdge + 2) % 4;
+        }
+    }
+
+    /**
+     * Traces a closed loop from given cell entry edge and adds it to path.
+     */
+    private void traceLoop(Path2D aPath, int aCol, int aRow, int anEdge)
+    {
+        int col = aCol, row = aRow, edge = anEdge;
+        boolean isFirst = true;
+
+        // Iterate over cells until back at start
+        while (!isTraced(col, row, edge)) {
+
+            // Add entry point and mark traced
+            double pointX = getEdgeX(col, row, edge);
+            double pointY = getEdgeY(col, row, edge);
+            if (isFirst) {
+                aPath.moveTo(pointX, pointY);
+                isFirst = false;
+            }
+            else aPath.lineTo(pointX, pointY);
+            setTraced(col, row, edge);
+
+            // Move to next cell through exit edge (entry edge is opposite of exit edge)
+            int exitEdge = getExitEdge(col, row, edge);
+            col = exitEdge == RIGHT ? col + 1 : exitEdge == LEFT ? col - 1 : col;
+            row = exitEdge == TOP ? row + 1 : exitEdge == BOTTOM ? row - 1 : row;
+            edge = (exitEdge + 2) % 4;
+
+            // Sanity check: Loop can't leave grid
+            if (col < 0 || col >= _colCount - 1 || row < 0 || row >= _rowCount - 1) {
+                System.err.println("MarchingSquares.traceLoop: Loop left grid (can't happen)");
+                break;
+            }
+        }
+
+        // Close path
+        aPath.close();
+    }
+
+    /**
+     * Returns the exit edge for given cell and entry edge (saddles are connected if cell center is above value).
+     */
+    private int getExitEdge(int aCol, int aRow, int anEdge)
+    {
+        // Handle saddle: Exit is next edge if center above (corners connected), otherwise previous edge
+        int cellCase = getCellCase(aCol, aRow);
+        if (cellCase == 5 || cellCase == 10) {
+            int index = aRow * _colCount + aCol;
+            double centerZ = (_zs[index] + _zs[index + 1] + _zs[index + _colCount] + _zs[index + _colCount + 1]) / 4;
+            return centerZ > _valZ ? (anEdge + 1) % 4 : (anEdge + 3) % 4;
+        }
+
+        // Otherwise return only exit edge
+        for (int edge = 0; edge < 4; edge++)
+            if (isExitEdge(cellCase, edge))
+                return edge;
+        return -1;
+    }
+
+    /**
+     * Returns the cell case: A bit for each corner above value (counter-clockwise from bottom left).
+     */
+    private int getCellCase(int aCol, int aRow)
+    {
+        int index = aRow * _colCount + aCol;
+        int cellCase = isAbove(index) ? 1 : 0;
+        if (isAbove(index + 1)) cellCase |= 2;
+        if (isAbove(index + _colCount + 1)) cellCase |= 4;
+        if (isAbove(index + _colCount)) cellCase |= 8;
+        return cellCase;
+    }
+
+    /**
+     * Returns whether grid point at index is above value.
+     */
+    private boolean isAbove(int anIndex)  { return _zs[anIndex] > _valZ; }
+
+    /**
+     * Returns whether given cell edge is an entry edge for case (counter-clockwise edge goes from above to below).
+     */
+    private static boolean isEntryEdge(int aCase, int anEdge)
+    {
+        return (aCase >> anEdge & 1) == 1 && (aCase >> (anEdge + 1) % 4 & 1) == 0;
+    }
+
+    /**
+     * Returns whether given cell edge is an exit edge for case (counter-clockwise edge goes from below to above).
+     */
+    private static boolean isExitEdge(int aCase, int anEdge)
+    {
+        return (aCase >> anEdge & 1) == 0 && (aCase >> (anEdge + 1) % 4 & 1) == 1;
+    }
+
+    /**
+     * Returns the contour point X on given cell edge.
+     */
+    private double getEdgeX(int aCol, int aRow, int anEdge)
+    {
+        if (anEdge == RIGHT) return _xs[aCol + 1];
+        if (anEdge == LEFT) return _xs[aCol];
+        int index = (anEdge == BOTTOM ? aRow : aRow + 1) * _colCount + aCol;
+        double ratio = getEdgeRatio(index, index + 1);
+        return _xs[aCol] + ratio * (_xs[aCol + 1] - _xs[aCol]);
+    }
+
+    /**
+     * Returns the contour point Y on given cell edge.
+     */
+    private double getEdgeY(int aCol, int aRow, int anEdge)
+    {
+        if (anEdge == BOTTOM) return _ys[aRow];
+        if (anEdge == TOP) return _ys[aRow + 1];
+        int index = aRow * _colCount + (anEdge == LEFT ? aCol : aCol + 1);
+        double ratio = getEdgeRatio(index, index + _colCount);
+        return _ys[aRow] + ratio * (_ys[aRow + 1] - _ys[aRow]);
+    }
+
+    /**
+     * Returns the ratio of contour value between Z values at given grid point indexes (from first to second).
+     */
+    private double getEdgeRatio(int anIndex1, int anIndex2)
+    {
+        double ratio = (_valZ - _zs[anIndex1]) / (_zs[anIndex2] - _zs[anIndex1]);
+        return ratio >= 0 && ratio <= 1 ? ratio : .5;
+    }
+
+    /**
+     * Adds contour point for given cell edge to chain points buffer.
+     */
+    private void addChainPoint(int aCol, int aRow, int anEdge)
+    {
+        if (_chainPointCount == _chainXs.length) {
+            _chainXs = Arrays.copyOf(_chainXs, _chainPointCount * 2);
+            _chainYs = Arrays.copyOf(_chainYs, _chainPointCount * 2);
+        }
+        _chainXs[_chainPointCount] = getEdgeX(aCol, aRow, anEdge);
+        _chainYs[_chainPointCount] = getEdgeY(aCol, aRow, anEdge);
+        _chainPointCount++;
+    }
+
+    /**
+     * Returns whether given cell entry edge has been traced.
+     */
+    private boolean isTraced(int aCol, int aRow, int anEdge)
+    {
+        return _traced.get((aRow * (_colCount - 1) + aCol) * 4 + anEdge);
+    }
+
+    /**
+     * Marks given cell entry edge as traced.
+     */
+    private void setTraced(int aCol, int aRow, int anEdge)
+    {
+        _traced.set((aRow * (_colCount - 1) + aCol) * 4 + anEdge);
+    }
+
+    /**
+     * Returns the number of grid perimeter points (and edges).
+     */
+    private int getPerimeterCount()  { return (_colCount - 1) * 2 + (_rowCount - 1) * 2; }
+
+    /**
+     * Returns the grid point index for perimeter point at index (counter-clockwise from bottom left).
+     */
+    private int getPerimeterPointIndex(int aPerimIndex)
+    {
+        int bottomCount = _colCount - 1, sideCount = _rowCount - 1;
+        if (aPerimIndex < bottomCount)
+            return aPerimIndex;
+        if (aPerimIndex < bottomCount + sideCount)
+            return (aPerimIndex - bottomCount) * _colCount + _colCount - 1;
+        if (aPerimIndex < bottomCount * 2 + sideCount)
+            return (_rowCount - 1) * _colCount + bottomCount * 2 + sideCount - aPerimIndex;
+        return (bottomCount * 2 + sideCount * 2 - aPerimIndex) * _colCount;
+    }
+
+    /**
+     * Returns the perimeter edge index for given cell edge on grid perimeter.
+     */
+    private int getPerimeterIndex(int aCol, int aRow, int anEdge)
+    {
+        int bottomCount = _colCount - 1, sideCount = _rowCount - 1;
+        switch (anEdge) {
+            case BOTTOM: return aCol;
+            case RIGHT: return bottomCount + aRow;
+            case TOP: return bottomCount * 2 + sideCount - 1 - aCol;
+            default: return bottomCount * 2 + sideCount * 2 - 1 - aRow;
+        }
+    }
+}
@@ -9,7 +9,8 @@ import snapcharts.data.DataSet;
 import java.util.*;
 
 /**
- * A class to create a Triangle mesh for a DataSet.
+ * A class to create a Triangle mesh for a DataSet (Delaunay triangulation for scattered points, or simple grid
+ * triangles for XYZZ matrix).
  */
 public class Mesh {
 
@@ -19,14 +20,23 @@ public class Mesh {
     // The number of points in dataset
     private int  _pointCount;
 
+    // The triangle vertex indexes (3 per triangle)
+    private int[]  _triangleIndexes;
+
     // The triangles
     private Triangle[]  _triangles;
 
     // A map of edges
     private Map<Long,Edge>  _edges = new HashMap<>();
 
-    // Extra points used for trianglulation 'super-triangle'
-    private Point[] _superPoints = new Point[4];
+    // The array of edges, for vertex edge index
+    private Edge[]  _edgeArray;
+
+    // The vertex to incident edges index: Start of each vertex's edges in VertexEdges array (with extra end entry)
+    private int[]  _vertexEdgeStarts;
+
+    // The edge indexes (into EdgeArray), sorted by vertex
+    private int[]  _vertexEdges;
 
     // The path through all the mesh edges
     private Shape  _meshPath;
@@ -34,9 +44,6 @@ public class Mesh {
     // The path around the mesh perimeter
     private Shape  _hullPath;
 
-    // A constant for circumcircle tolerance
-    private static final float EPSILON = 0.000001f;
-
     /**
      * Constructor to create mesh for given DataSet and array of triangle vertex indexes.
      */
@@ -47,100 +54,70 @@ public class Mesh {
     }
 
     /**
-     * Returns the triangles.
+     * Returns the triangle vertex indexes (3 per triangle).
      */
-    public Triangle[] getTriangles()
+    public int[] getTriangleIndexes()
     {
         // If already set, just return
-        if (_triangles != null) return _triangles;
+        if (_triangleIndexes != null) return _triangleIndexes;
 
         // If DataType is XYZZ, do simple matrix to triangles
         if (_dataSet.getDataType() == DataType.XYZZ)
-            return _triangles = getTrianglesXYZZ();
-
-        // Get vertices
-        int[] vertices = getPointIndexes();
-        List<Triangle> triangles = new ArrayList<>();
-
-        // Add super triangles
-        double xmin = _dataSet.getMinX();
-        double ymin = _dataSet.getMinY();
-        double xmax = _dataSet.getMaxX();
-        double ymax = _dataSet.getMaxY();
-        double dx = (xmax - xmin) * .1;
-        double dy = (ymax - ymin) * .1;
-        xmin -= dx; xmax += dx;
-        ymin -= dy; ymax += dy;
-        _superPoints[0] = new Point(xmin, ymin);
-        _superPoints[1] = new Point(xmin, ymax);
-        _superPoints[2] = new Point(xmax, ymax);
-        _superPoints[3] = new Point(xmax, ymin);
-        Triangle superTriangle1 = new Triangle(_pointCount, _pointCount + 1, _pointCount + 3);
-        Triangle superTriangle2 = new Triangle(_pointCount + 1, _pointCount + 2, _pointCount + 3);
-        triangles.add(superTriangle1);
-        triangles.add(superTriangle2);
-
-        // Add super-points to end of vertex array
-        vertices = Arrays.copyOf(vertices, vertices.length + 4);
-        vertices[vertices.length-4] = _pointCount;
-        vertices[vertices.length-3] = _pointCount + 1;
-        vertices[vertices.length-2] = _pointCount + 2;
-        vertices[vertices.length-1] = _pointCount + 3;
-
-        // Create edge buffer
-        Map<Long,Edge> edges = new HashMap<>();
-
-        // Iterate over vertices and triangles to find one that holds vertex
-        for (int i : vertices) {
-
-            // Initialize edges
-            edges.clear();
-
-            // Iterate over triangles to find one that holds vertex
-            for (int j=triangles.size()-1; j>=0; j--) { Triangle triangle = triangles.get(j);
-
-                // If point is inside triangle circumcircle, add edges to triangle vertices and remove triangle
-                if (triangle.getCircumCircle().containsVertexPoint(i)) {
-
-                    // add all triangle edges to edge buffer
-                    getEdgeFromMap(edges, triangle.v1, triangle.v2).bumpUsage();
-                    getEdgeFromMap(edges, triangle.v2, triangle.v3).bumpUsage();
-                    getEdgeFromMap(edges, triangle.v3, triangle.v1).bumpUsage();
-
-                    // remove triangle from the triangle list
-                    triangles.remove(j);
-                }
+            return _triangleIndexes = getTriangleIndexesXYZZ();
+
+        // Get point X/Y arrays for finite points (skip missing values) and map of point to DataSet index
+        double[] dataX = new double[_pointCount];
+        double[] dataY = new double[_pointCount];
+        int[] dataIndexes = new int[_pointCount];
+        int pointCount = 0;
+        for (int i = 0; i < _pointCount; i++) {
+            double x = _dataSet.getX(i);
+            double y = _dataSet.getY(i);
+            if (Double.isFinite(x) && Double.isFinite(y)) {
+                dataX[pointCount] = x;
+                dataY[pointCount] = y;
+                dataIndexes[pointCount++] = i;
             }
+        }
 
-            // delete all doubly specified edges from the edge buffer
-            for (Edge edge : edges.values().toArray(new Edge[0]))
-                if (edge.usage>1)
-                    edges.remove(getEdgeHashCode(edge.v1, edge.v2));
+        // Get Delaunay triangulation
+        Delaunay delaunay = new Delaunay(dataX, dataY, pointCount);
+        int[] triangleIndexes = delaunay.getTriangles();
 
-            // Add to the triangle list all triangles formed between the point and remaining edges
-            for (Edge edge : edges.values()) {
-                Triangle t = new Triangle(i, edge.v1, edge.v2);
-                triangles.add(t);
-            }
+        // If points were skipped, map triangle indexes back to DataSet indexes
+        if (pointCount < _pointCount) {
+            for (int i = 0; i < triangleIndexes.length; i++)
+                triangleIndexes[i] = dataIndexes[triangleIndexes[i]];
         }
 
-        // Clear edges that got set
-        _edges.clear();
-
-        // Remove any triangles from triangle list that use supertriangle vertices
-        for (int i=triangles.size()-1; i>=0; i--) {
-            Triangle triangle = triangles.get(i);
-            if (triangle.v1 >= _pointCount || triangle.v2 >= _pointCount || triangle.v3 >= _pointCount)
-                triangles.remove(i);
-            else {
-                triangle.e1 = getEdge(triangle.v1, triangle.v2); triangle.e1.bumpUsage();
-                triangle.e2 = getEdge(triangle.v2, triangle.v3); triangle.e2.bumpUsage();
-                triangle.e3 = getEdge(triangle.v3, triangle.v1); triangle.e3.bumpUsage();
-            }
+        // Set/return
+        return _triangleIndexes = triangleIndexes;
+    }
+
+    /**
+     * Returns the number of triangles.
+     */
+    public int getTriangleCount()  { return getTriangleIndexes().length / 3; }
+
+    /**
+     * Returns the triangles.
+     */
+    public Triangle[] getTriangles()
+    {
+        // If already set, just return
+        if (_triangles != null) return _triangles;
+
+        // Create triangles for triangle indexes (this also creates edges)
+        int[] triangleIndexes = getTriangleIndexes();
+        int triangleCount = triangleIndexes.length / 3;
+        Triangle[] triangles = new Triangle[triangleCount];
+        for (int i = 0; i < triangleCount; i++) {
+            int index = i * 3;
+            triangles[i] = new Triangle(triangleIndexes[index], triangleIndexes[index + 1], triangleIndexes[index + 2]);
         }
 
         // Set/return triangles
-        return _triangles = triangles.toArray(new Triangle[0]);
+        return _triangles = triangles;
     }
 
     /**
@@ -159,37 +136,72 @@ public class Mesh {
      */
     public Edge getNextPerimeterEdge(Edge anEdge, int vertInd)
     {
-        // Iterate over edges to find
-        Collection<Edge> edges = _edges.values();
-        for (Edge edge : edges)
-            if (edge != anEdge && edge.isPerimeter() && (edge.v1 == vertInd || edge.v2 == vertInd))
+        // Make sure vertex edge index is created
+        if (_vertexEdgeStarts == null)
+            createVertexEdgeIndex();
+        if (vertInd < 0 || vertInd >= _pointCount)
+            return null;
+
+        // Iterate over vertex edges to find
+        for (int i = _vertexEdgeStarts[vertInd], iMax = _vertexEdgeStarts[vertInd + 1]; i < iMax; i++) {
+            Edge edge = _edgeArray[_vertexEdges[i]];
+            if (edge != anEdge && edge.isPerimeter())
                 return edge;
+        }
 
         // Return null since not found
         return null;
     }
 
     /**
-     * Returns an edge for given vertex indexes.
+     * Creates the vertex to incident edges index (as flat int arrays), so perimeter walks are constant time per step.
      */
-    public Edge getEdge(int index1, int index2)
+    private void createVertexEdgeIndex()
     {
-        Long hash = getEdgeHashCode(index1, index2);
-        Edge edge = _edges.get(hash);
-        if (edge==null)
-            _edges.put(hash, edge = new Edge(index1, index2));
-        return edge;
+        // Make sure triangles (and edges) are created and get edges array
+        getTriangles();
+        Edge[] edges = _edges.values().toArray(new Edge[0]);
+        int pointCount = _pointCount;
+
+        // Count edges for each vertex
+        int[] vertexEdgeStarts = new int[pointCount + 1];
+        for (Edge edge : edges) {
+            vertexEdgeStarts[edge.v1 + 1]++;
+            vertexEdgeStarts[edge.v2 + 1]++;
+        }
+
+        // Convert counts to vertex starts
+        for (int i = 0; i < pointCount; i++)
+            vertexEdgeStarts[i + 1] += vertexEdgeStarts[i];
+
+        // Add edge indexes to vertices (in edge order)
+        int[] vertexEdges = new int[vertexEdgeStarts[pointCount]];
+        int[] vertexEdgeEnds = Arrays.copyOf(vertexEdgeStarts, pointCount);
+        for (int i = 0; i < edges.length; i++) {
+            Edge edge = edges[i];
+            vertexEdges[vertexEdgeEnds[edge.v1]++] = i;
+            vertexEdges[vertexEdgeEnds[edge.v2]++] = i;
+        }
+
+        // Set arrays
+        _edgeArray = edges;
+        _vertexEdgeStarts = vertexEdgeStarts;
+        _vertexEdges = vertexEdges;
     }
 
     /**
      * Returns an edge for given vertex indexes.
      */
-    public Edge getEdgeFromMap(Map<Long,Edge> edgeMap, int index1, int index2)
+    public Edge getEdge(int index1, int index2)
     {
         Long hash = getEdgeHashCode(index1, index2);
-        Edge edge = edgeMap.get(hash);
-        if (edge==null)
-            edgeMap.put(hash, edge = new Edge(index1, index2));
+        Edge edge = _edges.get(hash);
+        if (edge==null) {
+            edge = new Edge(index1, index2);
+            edge.index = _edges.size();
+            _edges.put(hash, edge);
+            _vertexEdgeStarts = null;
+        }
         return edge;
     }
 
@@ -210,27 +222,23 @@ public class Mesh {
     public int getPointCount()  { return _pointCount; }
 
     /**
-     * Returns X value at given dataset point index (accounts for 'super-triangle' points).
+     * Returns X value at given dataset point index.
      */
     public double getX(int anIndex)
     {
-        if (anIndex >= _pointCount)
-            return _superPoints[anIndex-_pointCount].x;
         return _dataSet.getX(anIndex);
     }
 
     /**
-     * Returns Y at given dataset point index (accounts for 'super-triangle' points).
+     * Returns Y at given dataset point index.
      */
     public double getY(int anIndex)
     {
-        if (anIndex >= _pointCount)
-            return _superPoints[anIndex-_pointCount].y;
         return _dataSet.getY(anIndex);
     }
 
     /**
-     * Returns Z at given dataset point index (accounts for 'super-triangle' points).
+     * Returns Z at given dataset point index.
      */
     public double getZ(int anIndex)
     {
@@ -245,16 +253,16 @@ public class Mesh {
         // If already set, just return
         if (_meshPath!=null) return _meshPath;
 
-        // Create path and get triangles
+        // Create path and get triangle indexes
         Path2D path = new Path2D();
-        Triangle[] triangles = getTriangles();
+        int[] triangleIndexes = getTriangleIndexes();
 
-        for (Mesh.Triangle triangle : triangles) {
+        for (int i = 0; i < triangleIndexes.length; i += 3) {
 
             // Get index of triangle vertices
-            int index1 = triangle.v1;
-            int index2 = triangle.v2;
-            int index3 = triangle.v3;
+            int index1 = triangleIndexes[i];
+            int index2 = triangleIndexes[i + 1];
+            int index3 = triangleIndexes[i + 2];
 
             // Get points of triangle vertices in data coords
             double dataX1 = getX(index1);
@@ -282,17 +290,29 @@ public class Mesh {
         // If already set, just return
         if (_hullPath != null) return _hullPath;
 
-        // Create path add first point
+        // If DataType is XYZZ, just return grid bounds rect
+        if (_dataSet.getDataType() == DataType.XYZZ)
+            return _hullPath = getHullPathXYZZ();
+
+        // Make sure vertex edge index is created (this also creates triangles and edges)
+        if (_vertexEdgeStarts == null)
+            createVertexEdgeIndex();
+
+        // Get first perimeter edge (just return empty path if none)
         Path2D path = new Path2D();
-        Edge edge0 = getEdge(0, 1);
-        Edge[] edges = _edges.values().toArray(new Edge[0]);
-        for (int i=0; i<edges.length; i++) {
-            edge0 = edges[i];
-            if (edge0.isPerimeter())
+        Edge edge0 = null;
+        for (Edge edge : _edgeArray) {
+            if (edge.isPerimeter()) {
+                edge0 = edge;
                 break;
+            }
         }
-        double p0x = getX(0);
-        double p0y = getY(0);
+        if (edge0 == null)
+            return _hullPath = path;
+
+        // Add first point
+        double p0x = getX(edge0.v1);
+        double p0y = getY(edge0.v1);
         path.moveTo(p0x, p0y);
 
         // Iterate over perimeter edges
@@ -326,17 +346,39 @@ public class Mesh {
     }
 
     /**
-     * Returns the triangles from XYZZ matrix by simply building them.
+     * Returns the hull path for XYZZ matrix (the grid corners).
      */
-    private Triangle[] getTrianglesXYZZ()
+    private Shape getHullPathXYZZ()
+    {
+        // Get dataset row/col counts (just return empty path if no grid cells)
+        Path2D path = new Path2D();
+        int colCount = _dataSet instanceof DataSetXYZZ ? ((DataSetXYZZ) _dataSet).getColCount() : 0;
+        int rowCount = _dataSet instanceof DataSetXYZZ ? ((DataSetXYZZ) _dataSet).getRowCount() : 0;
+        if (colCount < 2 || rowCount < 2)
+            return path;
+
+        // Add grid corner points
+        int lastRowStart = (rowCount - 1) * colCount;
+        path.moveTo(getX(0), getY(0));
+        path.lineTo(getX(colCount - 1), getY(0));
+        path.lineTo(getX(colCount - 1), getY(lastRowStart));
+        path.lineTo(getX(0), getY(lastRowStart));
+        path.close();
+        return path;
+    }
+
+    /**
+     * Returns the triangle indexes from XYZZ matrix by simply building them.
+     */
+    private int[] getTriangleIndexesXYZZ()
     {
         // Get dataset row/col counts
         int colCount = _dataSet instanceof DataSetXYZZ ? ((DataSetXYZZ) _dataSet).getColCount() : 0;
         int rowCount = _dataSet instanceof DataSetXYZZ ? ((DataSetXYZZ) _dataSet).getRowCount() : 0;
 
-        // Create triangles array (2 triangles for every grid square)
-        int triangleCount = (colCount - 1) * (rowCount - 1) * 2;
-        Triangle[] triangles = new Triangle[triangleCount];
+        // Create triangle indexes array (2 triangles for every grid square)
+        int triangleCount = Math.max(colCount - 1, 0) * Math.max(rowCount - 1, 0) * 2;
+        int[] triangleIndexes = new int[triangleCount * 3];
         int tc = 0;
 
         // Iterate over rows, cols (just 1 short of ends)
@@ -344,15 +386,17 @@ public class Mesh {
             for (int col=0, colMax=colCount-1; col<colMax; col++) {
                 int indexRow1 = row * colCount + col;
                 int indexRow2 = indexRow1 + colCount;
-                Triangle triangle1 = new Triangle(indexRow1, indexRow1 + 1, indexRow2 + 1);
-                Triangle triangle2 = new Triangle(indexRow2 + 1, indexRow2, indexRow1);
-                triangles[tc++] = triangle1;
-                triangles[tc++] = triangle2;
+                triangleIndexes[tc++] = indexRow1;
+                triangleIndexes[tc++] = indexRow1 + 1;
+                triangleIndexes[tc++] = indexRow2 + 1;
+                triangleIndexes[tc++] = indexRow2 + 1;
+                triangleIndexes[tc++] = indexRow2;
+                triangleIndexes[tc++] = indexRow1;
             }
         }
 
-        // Return triangles
-        return triangles;
+        // Return triangle indexes
+        return triangleIndexes;
     }
 
     /*
@@ -391,9 +435,6 @@ public class Mesh {
         // Triangle edges
         public Edge e1, e2, e3;
 
-        // The circle around vertex points
-        private CircumCircle  _circumCircle;
-
         /**
          * Constructor.
          */
@@ -409,15 +450,6 @@ public class Mesh {
             e3 = getEdge(v3, v1); e3.bumpUsage();
         }
 
-        /**
-         * Returns the circle formed by the 3 vertex points.
-         */
-        public CircumCircle getCircumCircle()
-        {
-            if (_circumCircle != null) return _circumCircle;
-            return _circumCircle = new CircumCircle(v1, v2, v3);
-        }
-
         /**
          * Standard toString implementation.
          */
@@ -439,6 +471,9 @@ public class Mesh {
         // The number of triangle that contain this edge (1 means it's on the perimeter)
         public int usage;
 
+        // The index of edge in mesh (in order created)
+        public int index;
+
         /**
          * Constructor.
          */
@@ -507,111 +542,4 @@ public class Mesh {
             return "Edge { v1=" + v1 + ", v2=" + v2 + ", usage=" + usage + " }";
         }
     }
-
-    /**
-     * A class to represent a circle around 3 points (triangle vertex indexes).
-     */
-    private class CircumCircle {
-
-        // Points in circle
-        double x1, y1;
-        double x2, y2;
-        double x3, y3;
-
-        // Center point
-        private double centerX, centerY;
-
-        // Radius
-        private double radiusSqr;
-
-        // Whether circle is too small
-        private boolean _isTooSmall;
-
-        /**
-         * Constructor.
-         */
-        public CircumCircle(int v1, int v2, int v3)
-        {
-            x1 = getX(v1);
-            y1 = getY(v1);
-            x2 = getX(v2);
-            y2 = getY(v2);
-            x3 = getX(v3);
-            y3 = getY(v3);
-            calcCenterAndRadius();
-        }
-
-        /**
-         * Calculate center X/Y and radius.
-         */
-        private void calcCenterAndRadius()
-        {
-            // Get diff
-            double y1y2 = Math.abs(y1 - y2);
-            double y2y3 = Math.abs(y2 - y3);
-
-            // Handle very small triangle height
-            if (y1y2 < EPSILON) {
-
-                if (y2y3 < EPSILON) {
-                    _isTooSmall = true;
-                    return;
-                }
-
-                double m2 = -(x3 - x2) / (y3 - y2);
-                double mx2 = (x2 + x3) / 2;
-                double my2 = (y2 + y3) / 2;
-                centerX = (x2 + x1) / 2;
-                centerY = m2 * (centerX - mx2) + my2;
-            }
-
-            // Handle reasonable triangle height
-            else {
-                double m1 = -(x2 - x1) / (y2 - y1);
-                double mx1 = (x1 + x2) / 2;
-                double my1 = (y1 + y2) / 2;
-
-                if (y2y3 < EPSILON) {
-                    centerX = (x3 + x2) / 2;
-                    centerY = m1 * (centerX - mx1) + my1;
-                }
-
-                else {
-                    double m2 = -(x3 - x2) / (y3 - y2);
-                    double mx2 = (x2 + x3) / 2;
-                    double my2 = (y2 + y3) / 2;
-                    centerX = (m1 * mx1 - m2 * mx2 + my2 - my1) / (m1 - m2);
-                    centerY = m1 * (centerX - mx1) + my1;
-                }
-            }
-
-            // Now with Center X/Y, calc radius squared from one of perimeter points
-            double dx = x2 - centerX;
-            double dy = y2 - centerY;
-            radiusSqr = dx * dx + dy * dy;
-        }
-
-        /**
-         * Returns whether point index is inside circle.
-         */
-        public boolean containsVertexPoint(int vertIndex)
-        {
-            // If too small, just bail
-            if (_isTooSmall)
-                return false;
-
-            // Get X/Y for vertex index point, X/Y offset from circle center, and offset squares
-            double px = getX(vertIndex);
-            double py = getY(vertIndex);
-            double dx = px - centerX;
-            double dy = py - centerY;
-            double dxSqr = dx * dx;
-            double dySqr = dy * dy;
-
-            // If sum of offsets (sides) less than radius (hypotenuse), return true
-            if (dxSqr + dySqr - radiusSqr <= EPSILON)
-                return true;
-            return false;
-        }
-    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.util;
+
+/**
+ * A spatial index of X/Y points (like TraceView display points) for fast nearest point queries. Points inside index
+ * bounds are bucketed in a uniform grid of cells (stored as flat int arrays), so queries only check points in cells
+ * near the query point and don't allocate.
+ */
+public class PointIndex {
+
+    // The point X/Y coords (not copied)
+    private double[]  _xs, _ys;
+
+    // The grid origin, cell size and column/row counts
+    private double  _gridX, _gridY, _cellSize;
+    private int  _colCount, _rowCount;
+
+    // The start of each cell's points in CellPoints array (with extra end entry)
+    private int[]  _cellStarts;
+
+    // The point indexes, sorted by cell
+    private int[]  _cellPoints;
+
+    // Constants for average points per cell, min cell size and max cell count
+    private static final int POINTS_PER_CELL = 4;
+    private static final double MIN_CELL_SIZE = 4;
+    private static final int MAX_CELL_COUNT = 1 << 20;
+
+    /**
+     * Constructor for given point coords, point count and index bounds (points outside bounds are ignored).
+     */
+    public PointIndex(double[] theXs, double[] theYs, int aCount, double aX, double aY, double aW, double aH)
+    {
+        _xs = theXs;
+        _ys = theYs;
+        _gridX = aX;
+        _gridY = aY;
+
+        // Get cell size for average points per cell (with min cell size and max cell count)
+        double area = Math.max(aW, 1) * Math.max(aH, 1);
+        int cellCountIdeal = Math.max(Math.min(aCount / POINTS_PER_CELL, MAX_CELL_COUNT), 1);
+        _cellSize = Math.max(Math.sqrt(area / cellCountIdeal), MIN_CELL_SIZE);
+        _colCount = Math.max((int) Math.ceil(aW / _cellSize), 1);
+        _rowCount = Math.max((int) Math.ceil(aH / _cellSize), 1);
+        int cellCount = _colCount * _rowCount;
+
+        // Get cell index for each point and count points in each cell (-1 for points outside grid)
+        int[] pointCells = new int[aCount];
+        int[] cellStarts = new int[cellCount + 1];
+        for (int i = 0; i < aCount; i++) {
+            int cellIndex = getCellIndex(theXs[i], theYs[i]);
+            pointCells[i] = cellIndex;
+            if (cellIndex >= 0)
+                cellStarts[cellIndex + 1]++;
+        }
+
+        // Convert counts to cell starts
+        for (int i = 0; i < cellCount; i++)
+            cellStarts[i + 1] += cellStarts[i];
+
+        // Add point indexes to cells (in point order, so ties resolve to lowest index)
+        int[] cellPoints = new int[cellStarts[cellCount]];
+        int[] cellEnds = new int[cellCount];
+        System.arraycopy(cellStarts, 0, cellEnds, 0, cellCount);
+        for (int i = 0; i < aCount; i++) {
+            int cellIndex = pointCells[i];
+            if (cellIndex >= 0)
+                cellPoints[cellEnds[cellIndex]++] = i;
+        }
+
+        // Set arrays
+        _cellStarts = cellStarts;
+        _cellPoints = cellPoints;
+    }
+
+    /**
+     * Returns the index of the point closest to given X/Y that is less than given max distance (or -1 if none).
+     */
+    public int getNearestIndex(double aX, double aY, double aMaxDist)
+    {
+        // Get query cell column/row
+        int col = (int) Math.floor((aX - _gridX) / _cellSize);
+        int row = (int) Math.floor((aY - _gridY) / _cellSize);
+
+        // Local vars for closest point
+        int bestIndex = -1;
+        double bestDistSq = aMaxDist * aMaxDist;
+
+        // Iterate over rings of cells around query cell, until ring is farther than closest point (or max distance)
+        int ringMax = (int) Math.ceil(aMaxDist / _cellSize) + 1;
+        for (int ring = 0; ring <= ringMax; ring++) {
+
+            // If all cells in ring are farther than closest point, just break
+            double ringDist = (ring - 1) * _cellSize;
+            if (ring > 1 && ringDist * ringDist >= bestDistSq)
+                break;
+
+            // Get ring bounds (clamped to grid)
+            int col0 = Math.max(col - ring, 0);
+            int col1 = Math.min(col + ring, _colCount - 1);
+            int row0 = Math.max(row - ring, 0);
+            int row1 = Math.min(row + ring, _rowCount - 1);
+
+            // Iterate over cells in ring bounds that are on ring perimeter
+            for (int r = row0; r <= row1; r++) {
+                boolean isEdgeRow = r == row - ring || r == row + ring;
+                int colStep = isEdgeRow ? 1 : ring * 2;
+                for (int c = isEdgeRow ? col0 : col - ring; c <= col1; c += colStep) {
+                    if (c < col0) continue;
+
+                    // Iterate over cell points and get closest
+                    int cellIndex = r * _colCount + c;
+                    for (int i = _cellStarts[cellIndex], iMax = _cellStarts[cellIndex + 1]; i < iMax; i++) {
+                        int pointIndex = _cellPoints[i];
+                        double dx = _xs[pointIndex] - aX;
+                        double dy = _ys[pointIndex] - aY;
+                        double distSq = dx * dx + dy * dy;
+                        if (distSq < bestDistSq || distSq == bestDistSq && pointIndex < bestIndex) {
+                            bestDistSq = distSq;
+                            bestIndex = pointIndex;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Return closest point index
+        return bestIndex;
+    }
+
+    /**
+     * Returns the grid cell index for given X/Y (or -1 if outside grid).
+     */
+    private int getCellIndex(double aX, double aY)
+    {
+        double col = (aX - _gridX) / _cellSize;
+        double row = (aY - _gridY) / _cellSize;
+        if (!(col >= 0 && col < _colCount && row >= 0 && row < _rowCount))
+            return -1;
+        return (int) row * _colCount + (int) col;
+    }
+}
@@ -15,6 +15,7 @@ import snapcharts.charts.*;
 import snapcharts.data.MinMax;
 import snapcharts.viewx.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 /**
@@ -55,6 +56,15 @@ public abstract class ChartHelper {
     // A helper class to handle Pan/Zoom
     private ChartHelperPanZoom _panZoomer;
 
+    // The number of threads used to prepare TraceViews for paint (1 means prepare on paint thread)
+    private static int  _prepParallelism = ForkJoinPool.getCommonPoolParallelism();
+
+    // The pool used to prepare TraceViews for paint in parallel
+    private static ForkJoinPool  _prepPool;
+
+    // Constant for min number of TraceViews to prepare in parallel
+    private static final int PARALLEL_PREP_TRACE_COUNT = 4;
+
     /**
      * Constructor.
      */
@@ -549,6 +559,54 @@ public abstract class ChartHelper {
         return dispY;
     }
 
+    /**
+     * Returns whether data to view conversion is linear for each axis (view = data * scale + offset).
+     */
+    public boolean isDataToViewLinear()  { return true; }
+
+    /**
+     * Returns the scale for linear data to view conversion for given axis (view = data * scale + offset).
+     */
+    public double getDataToViewScale(AxisView axisView)
+    {
+        // Get axis min/max (data coords) and length
+        Intervals intervals = axisView.getIntervals();
+        double dataLength = intervals.getMax() - intervals.getMin();
+
+        // Handle X axis
+        if (axisView.getAxisType() == AxisType.X)
+            return axisView.getWidth() / dataLength;
+
+        // Handle Y axis (flipped)
+        return -axisView.getHeight() / dataLength;
+    }
+
+    /**
+     * Returns the offset for linear data to view conversion for given axis (view = data * scale + offset).
+     */
+    public double getDataToViewOffset(AxisView axisView)
+    {
+        Intervals intervals = axisView.getIntervals();
+        double scale = getDataToViewScale(axisView);
+        double viewStart = axisView.getAxisType() == AxisType.X ? 0 : axisView.getHeight();
+        return viewStart - intervals.getMin() * scale;
+    }
+
+    /**
+     * Returns whether user is currently panning with mouse drag.
+     */
+    public boolean isPanZoomDragging()  { return _panZoomer.isDragging(); }
+
+    /**
+     * Called when user finishes panning with mouse drag.
+     */
+    protected void panZoomDragDidEnd()
+    {
+        // Forward to TraceViews
+        for (TraceView traceView : getTraceViews())
+            traceView.panZoomDragDidEnd();
+    }
+
     /**
      * Converts a value from view coords to data coords.
      */
@@ -648,6 +706,75 @@ public abstract class ChartHelper {
             trace.setDisabled(false);
     }
 
+    /**
+     * Prepares cached TraceView data needed for paint (StagedData, DisplayData), so paint only walks ready geometry.
+     * For charts with many traces, TraceViews are prepared in parallel. Stacked StagedData and shared/lazy DataArray
+     * caches are prepared first in this thread, so workers only do pure data work confined to each TraceView.
+     */
+    public void prepareTraceViews()
+    {
+        // Get TraceViews to prepare (just return if none)
+        TraceView[] traceViews = getTraceViews();
+        TraceView[] prepTraceViews = ArrayUtils.filter(traceViews, tv -> tv.isTraceEnabled() || traceViews.length == 1);
+        if (prepTraceViews.length == 0)
+            return;
+
+        // Make sure axis intervals are set (they are shared by all TraceViews)
+        for (AxisView axisView : getAxisViews())
+            axisView.getIntervals();
+
+        // Prepare stacked StagedData in stacking order
+        for (TraceView traceView : prepTraceViews)
+            if (traceView.getTrace().isStacked())
+                traceView.getStagedData();
+
+        // Prepare shared/lazy data caches in this thread (they aren't safe to fill from multiple threads)
+        for (TraceView traceView : prepTraceViews)
+            traceView.prepareDataCaches();
+
+        // If few traces or no parallelism, just prepare in this thread
+        if (prepTraceViews.length < PARALLEL_PREP_TRACE_COUNT || _prepParallelism <= 1) {
+            for (TraceView traceView : prepTraceViews)
+                traceView.prepareForPaint();
+            return;
+        }
+
+        // Prepare TraceViews in parallel (and wait for all)
+        ForkJoinPool prepPool = getPrepPool();
+        prepPool.submit(() -> Arrays.stream(prepTraceViews).parallel().forEach(TraceView::prepareForPaint)).join();
+    }
+
+    /**
+     * Returns the number of threads used to prepare TraceViews for paint.
+     */
+    public static int getPrepParallelism()  { return _prepParallelism; }
+
+    /**
+     * Sets the number of threads used to prepare TraceViews for paint (1 means prepare on paint thread).
+     */
+    public static synchronized void setPrepParallelism(int aValue)
+    {
+        // If already set, just return
+        int value = Math.max(aValue, 1);
+        if (value == _prepParallelism) return;
+
+        // Set value and shutdown old pool
+        _prepParallelism = value;
+        if (_prepPool != null) {
+            _prepPool.shutdown();
+            _prepPool = null;
+        }
+    }
+
+    /**
+     * Returns the pool used to prepare TraceViews for paint in parallel.
+     */
+    private static synchronized ForkJoinPool getPrepPool()
+    {
+        if (_prepPool != null) return _prepPool;
+        return _prepPool = new ForkJoinPool(_prepParallelism);
+    }
+
     /**
      * Called before a chart area is removed from a chart view.
      */
@@ -769,7 +896,8 @@ public abstract class ChartHelper {
             _chartView.resetLater();
         }
 
-        // Forward to TraceViews
+        // Forward to ContentView and TraceViews
+        getContentView().chartPartDidChange(aPC);
         for (TraceView traceView : getTraceViews())
             traceView.chartPartDidChange(aPC);
 
@@ -793,7 +921,8 @@ public abstract class ChartHelper {
      */
     protected void axisViewDidChange(PropChange aPC)
     {
-        // Forward to TraceViews
+        // Forward to ContentView and TraceViews
+        getContentView().axisViewDidChange();
         for (TraceView traceView : getTraceViews())
             traceView.axisViewDidChange(aPC);
     }
@@ -34,6 +34,9 @@ public class ChartHelperPanZoom {
     // The ChartView.TargPoint on last MousePress
     private Point  _targPointOnPress;
 
+    // Whether user is panning with mouse drag
+    private boolean  _dragging;
+
     // Constants
     private static final Stroke ZOOM_RECT_STROKE = Stroke.StrokeDash1;
 
@@ -64,6 +67,22 @@ public class ChartHelperPanZoom {
         }
     }
 
+    /**
+     * Returns whether user is panning with mouse drag (TraceViews can transform cached display data until drag ends).
+     */
+    public boolean isDragging()  { return _dragging; }
+
+    /**
+     * Sets whether user is panning with mouse drag.
+     */
+    protected void setDragging(boolean aValue)
+    {
+        if (aValue == _dragging) return;
+        _dragging = aValue;
+        if (!aValue)
+            _chartHelper.panZoomDragDidEnd();
+    }
+
     /**
      * Some conveniences.
      */
@@ -114,6 +133,9 @@ public class ChartHelperPanZoom {
         else if (aView instanceof AxisView)
             processEventForAxisView((AxisView) aView, anEvent);
 
+        // Handle MouseRelease: If dragging, end drag so display data is updated for final axes
+        if (anEvent.isMouseRelease())
+            setDragging(false);
     }
 
     /**
@@ -152,6 +174,7 @@ public class ChartHelperPanZoom {
                 double fromY = _pressPoint.y;
                 double toX = anEvent.getX();
                 double toY = anEvent.getY();
+                setDragging(true);
                 shiftAxesMinMaxForDrag(fromX, fromY, toX, toY);
             }
         }
@@ -235,6 +258,7 @@ public class ChartHelperPanZoom {
             else {
                 double fromXY = axisType.isX() ? _pressPoint.x : _pressPoint.y;
                 double toXY = axisType.isX() ? anEvent.getX() : anEvent.getY();
+                setDragging(true);
                 shiftAxisMinMaxForDrag(axisView, fromXY, toXY);
             }
         }
@@ -1,4 +1,6 @@
 package snapcharts.view;
+import snap.geom.Transform;
+import snap.gfx.Painter;
 
 /**
  * Some utility methods for ChartView and friends.
@@ -24,4 +26,17 @@ public class ChartViewUtils {
         return Math.pow(10, aValue);
     }
 
+    /**
+     * Returns the device scale for painter transform, for cached images. Scale is rounded up to whole number (so images
+     * aren't blurry and minor zoom changes reuse images) and limited to given max.
+     */
+    public static double getDeviceScale(Painter aPntr, double aMaxScale)
+    {
+        Transform xfm = aPntr.getTransform();
+        double dx = xfm.transformX(1, 0) - xfm.transformX(0, 0);
+        double dy = xfm.transformY(1, 0) - xfm.transformY(0, 0);
+        double scale = Math.ceil(Math.sqrt(dx * dx + dy * dy) - .01);
+        return Math.max(1, Math.min(scale, aMaxScale));
+    }
+
 }
@@ -5,8 +5,10 @@ package snapcharts.view;
 import snap.geom.Point;
 import snap.gfx.Painter;
 import snap.view.ViewEvent;
+import snap.props.PropChange;
 import snap.view.ViewUtils;
 import snapcharts.charts.*;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -23,9 +25,27 @@ public class ContentView extends ChartPartView<Content> {
     // The TraceViews
     private TraceView[]  _traceViews;
 
+    // Whether gridlines, traces and annotations are painted from cached layer images
+    private boolean  _layerCacheEnabled;
+
+    // The cached layers for gridlines and annotations (tags and markers)
+    private LayerCache  _gridLayer = new LayerCache();
+    private LayerCache  _annotationLayer = new LayerCache();
+
+    // The TagPlacer to place tags of all TraceViews (and the TraceView tag versions and size from last tag layout)
+    private TagPlacer  _tagPlacer = new TagPlacer();
+    private int[]  _tagsVersions;
+    private double  _tagsWidth, _tagsHeight;
+
+    // The device scale of last painter (used to decimate TraceView display data to device pixel columns)
+    private double  _deviceScale = 1;
+
     // Constants
     public static int DEFAULT_REVEAL_TIME = 2000;
 
+    // Constant for max device scale for display data decimation
+    private static final double MAX_DEVICE_SCALE = 4;
+
     /**
      * Constructor.
      */
@@ -78,6 +98,10 @@ public class ContentView extends ChartPartView<Content> {
             addChild(traceView);
             traceView.setContentView(this);
         }
+
+        // Clear cached layers and tag layout
+        clearLayerCaches();
+        _tagsVersions = null;
     }
 
     /**
@@ -110,6 +134,61 @@ public class ContentView extends ChartPartView<Content> {
         return revealTime;
     }
 
+    /**
+     * Returns whether gridlines, traces and annotations are painted from cached layer images (off by default).
+     * Layers are only repainted when their content changes, so selection/target changes and repaints for unrelated
+     * traces don't repaint everything.
+     */
+    public boolean isLayerCacheEnabled()  { return _layerCacheEnabled; }
+
+    /**
+     * Sets whether gridlines, traces and annotations are painted from cached layer images.
+     */
+    public void setLayerCacheEnabled(boolean aValue)
+    {
+        if (aValue == _layerCacheEnabled) return;
+        _layerCacheEnabled = aValue;
+        clearLayerCaches();
+        if (_traceViews != null) {
+            for (TraceView traceView : _traceViews)
+                traceView.clearLayerCache();
+        }
+        repaint();
+    }
+
+    /**
+     * Returns whether layer caches can be used for given painter (not for print, reveal animation or pan drag, since
+     * layers would change for every paint).
+     */
+    protected boolean isLayerCacheUsable(Painter aPntr)
+    {
+        if (!_layerCacheEnabled || aPntr.isPrinting())
+            return false;
+        return getReveal() >= 1 && !_chartHelper.isPanZoomDragging();
+    }
+
+    /**
+     * Returns the device scale of last painter (device pixels per point).
+     */
+    public double getDeviceScale()  { return _deviceScale; }
+
+    /**
+     * Clears the gridline and annotation layer caches.
+     */
+    protected void clearLayerCaches()
+    {
+        _gridLayer.clear();
+        _annotationLayer.clear();
+    }
+
+    /**
+     * Clears the annotation layer cache (called when a TraceView layer changes, since tags are painted from traces).
+     */
+    protected void clearAnnotationLayer()
+    {
+        _annotationLayer.clear();
+    }
+
     /**
      * Actual method to layout children.
      */
@@ -127,8 +206,24 @@ public class ContentView extends ChartPartView<Content> {
     @Override
     protected void paintFront(Painter aPntr)
     {
-        // Paint Chart Gridlines
-        _chartHelper.paintGridlines(aPntr);
+        // If device scale changed, clear TraceView display data (decimation depends on it)
+        double deviceScale = ChartViewUtils.getDeviceScale(aPntr, MAX_DEVICE_SCALE);
+        if (deviceScale != _deviceScale && !aPntr.isPrinting()) {
+            _deviceScale = deviceScale;
+            TraceView[] traceViews = getTraceViews();
+            if (traceViews != null) {
+                for (TraceView traceView : traceViews)
+                    traceView.clearDisplayData();
+            }
+        }
+
+        // Prepare TraceViews for paint
+        _chartHelper.prepareTraceViews();
+
+        // Paint Chart Gridlines (from cached layer if enabled)
+        if (isLayerCacheUsable(aPntr))
+            _gridLayer.paintLayer(aPntr, 0, 0, getWidth(), getHeight(), _chartHelper::paintGridlines);
+        else _chartHelper.paintGridlines(aPntr);
 
         // Paint Chart Border
         _chartHelper.paintBorder(aPntr);
@@ -140,6 +235,23 @@ public class ContentView extends ChartPartView<Content> {
     @Override
     protected void paintAbove(Painter aPntr)
     {
+        // Paint Tags and Markers (from cached layer if enabled - layer covers ChartView, since markers can be outside)
+        if (isLayerCacheUsable(aPntr))
+            _annotationLayer.paintLayer(aPntr, -getX(), -getY(), _chartView.getWidth(), _chartView.getHeight(), this::paintAnnotations);
+        else paintAnnotations(aPntr);
+
+        // Forward to ChartHelper hook
+        _chartHelper.paintAboveForChartPartView(this, aPntr);
+    }
+
+    /**
+     * Paints annotations above TraceViews: Trace tags and Chart Markers.
+     */
+    private void paintAnnotations(Painter aPntr)
+    {
+        // Layout tags of all TraceViews (if changed)
+        layoutTags();
+
         // Paint Tags
         TraceView[] traceViews = getTraceViews();
         for (TraceView traceView : traceViews)
@@ -147,9 +259,34 @@ public class ContentView extends ChartPartView<Content> {
 
         // Paint Chart Markers
         paintMarkers(aPntr);
+    }
 
-        // Forward to ChartHelper hook
-        _chartHelper.paintAboveForChartPartView(this, aPntr);
+    /**
+     * Places tags of all TraceViews (in trace order), so tags don't overlap tags of any trace. Layout is skipped if
+     * no TraceView tags have changed since last layout.
+     */
+    private void layoutTags()
+    {
+        // Get TraceView tag versions
+        TraceView[] traceViews = getTraceViews();
+        int[] tagsVersions = new int[traceViews.length];
+        for (int i = 0; i < traceViews.length; i++)
+            tagsVersions[i] = traceViews[i].getTagsVersion();
+
+        // If no tags changed since last layout, just return
+        double viewW = getWidth();
+        double viewH = getHeight();
+        if (Arrays.equals(tagsVersions, _tagsVersions) && viewW == _tagsWidth && viewH == _tagsHeight)
+            return;
+        _tagsVersions = tagsVersions;
+        _tagsWidth = viewW;
+        _tagsHeight = viewH;
+
+        // Reset TagPlacer and layout tags for TraceViews
+        _tagPlacer.reset(0, 0, viewW, viewH);
+        for (TraceView traceView : traceViews)
+            if (traceView.getTrace().isShowTags())
+                traceView.layoutTags(_tagPlacer);
     }
 
     /**
@@ -238,6 +375,7 @@ public class ContentView extends ChartPartView<Content> {
     {
         if (aValue==getWidth()) return;
         super.setWidth(aValue);
+        clearLayerCaches();
         _chartHelper.contentViewSizeDidChange();
     }
 
@@ -249,9 +387,43 @@ public class ContentView extends ChartPartView<Content> {
     {
         if (aValue==getHeight()) return;
         super.setHeight(aValue);
+        clearLayerCaches();
         _chartHelper.contentViewSizeDidChange();
     }
 
+    /**
+     * Called when a ChartPart changes to clear cached layers.
+     */
+    protected void chartPartDidChange(PropChange aPC)
+    {
+        // If change is for a Trace (or its styles), TraceView clears its own layer, so just clear annotations
+        Object src = aPC.getSource();
+        if (getTraceForSource(src) != null)
+            clearAnnotationLayer();
+
+        // Otherwise clear all
+        else clearLayerCaches();
+    }
+
+    /**
+     * Called when AxisView changes properties.
+     */
+    protected void axisViewDidChange()
+    {
+        clearLayerCaches();
+    }
+
+    /**
+     * Returns the Trace for given change source, if it is a Trace or part of a Trace (like PointStyle/TagStyle).
+     */
+    protected static Trace getTraceForSource(Object aSrc)
+    {
+        for (Object part = aSrc; part instanceof ChartPart; part = ((ChartPart) part).getParent())
+            if (part instanceof Trace)
+                return (Trace) part;
+        return null;
+    }
+
     /**
      * Override to suppress Border.
      */
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.view;
+import snap.gfx.Image;
+import snap.gfx.Painter;
+import java.util.function.Consumer;
+
+/**
+ * This class caches a layer of view painting in an off-screen image, so it can be painted as a single image blit until
+ * the layer is cleared (or the layer bounds or device scale change).
+ */
+public class LayerCache {
+
+    // The cached image
+    private Image  _image;
+
+    // The layer bounds and device scale used to create cached image
+    private double  _layerX, _layerY, _layerW, _layerH, _scale;
+
+    // Constant for max device scale
+    private static final double MAX_SCALE = 4;
+
+    /**
+     * Returns whether layer image is cached.
+     */
+    public boolean isCached()  { return _image != null; }
+
+    /**
+     * Clears the cached layer image.
+     */
+    public void clear()
+    {
+        _image = null;
+    }
+
+    /**
+     * Paints layer for given bounds: Cached image is painted if still valid, otherwise given paint method is called
+     * to paint layer into new cached image.
+     */
+    public void paintLayer(Painter aPntr, double aX, double aY, double aW, double aH, Consumer<Painter> aPaintMethod)
+    {
+        // If layer empty, just return
+        if (aW <= 0 || aH <= 0) return;
+
+        // If cached image not valid for bounds and device scale, create new image
+        double scale = ChartViewUtils.getDeviceScale(aPntr, MAX_SCALE);
+        if (_image == null || aX != _layerX || aY != _layerY || aW != _layerW || aH != _layerH || scale != _scale) {
+
+            // Create image and paint layer
+            Image image = Image.getImageForSizeAndDpiScale(aW, aH, true, scale);
+            Painter pntr = image.getPainter();
+            pntr.translate(-aX, -aY);
+            aPaintMethod.accept(pntr);
+
+            // Set image and key values
+            _image = image;
+            _layerX = aX;
+            _layerY = aY;
+            _layerW = aW;
+            _layerH = aH;
+            _scale = scale;
+        }
+
+        // Draw image
+        aPntr.drawImage(_image, aX, aY, aW, aH);
+    }
+}
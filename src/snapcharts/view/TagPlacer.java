@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.view;
+import snap.geom.Pos;
+import java.util.Arrays;
+
+/**
+ * This class places tag boxes (like data point value labels) so they don't overlap previously placed tags. Each tag
+ * tries a list of positions around its anchor point and gets the first that is inside bounds and doesn't collide.
+ * Placed boxes are kept in a spatial hash (a uniform grid of cells with linked lists of box entries), so each
+ * placement only checks boxes in nearby cells and total placement stays near-linear in number of tags.
+ */
+public class TagPlacer {
+
+    // The placement bounds
+    private double  _boundsX, _boundsY, _boundsMaxX, _boundsMaxY;
+
+    // The grid cell column/row counts
+    private int  _colCount, _rowCount;
+
+    // The head entry for each grid cell (or -1)
+    private int[]  _cellHeads = new int[0];
+
+    // The grid entries: box index and next entry in cell (or -1)
+    private int[]  _entryBoxes = new int[64], _entryNexts = new int[64];
+    private int  _entryCount;
+
+    // The placed boxes (x, y, maxX, maxY) and count
+    private double[]  _boxes = new double[64 * 4];
+    private int  _boxCount;
+
+    // The last placed box X/Y
+    private double  _placedX, _placedY;
+
+    // Constant for grid cell size
+    private static final double CELL_SIZE = 32;
+
+    // Constant for positions to try for tags (in order)
+    public static final Pos[] TAG_POSITIONS = {
+        Pos.TOP_CENTER, Pos.BOTTOM_CENTER, Pos.CENTER_RIGHT, Pos.CENTER_LEFT,
+        Pos.TOP_RIGHT, Pos.TOP_LEFT, Pos.BOTTOM_RIGHT, Pos.BOTTOM_LEFT
+    };
+
+    /**
+     * Clears placed boxes and resets placement bounds.
+     */
+    public void reset(double aX, double aY, double aW, double aH)
+    {
+        // Set bounds
+        _boundsX = aX;
+        _boundsY = aY;
+        _boundsMaxX = aX + aW;
+        _boundsMaxY = aY + aH;
+
+        // Reset grid (reuse cells if big enough)
+        _colCount = Math.max((int) Math.ceil(aW / CELL_SIZE), 1);
+        _rowCount = Math.max((int) Math.ceil(aH / CELL_SIZE), 1);
+        int cellCount = _colCount * _rowCount;
+        if (_cellHeads.length < cellCount)
+            _cellHeads = new int[cellCount];
+        Arrays.fill(_cellHeads, 0, cellCount, -1);
+
+        // Clear entries and boxes
+        _entryCount = 0;
+        _boxCount = 0;
+    }
+
+    /**
+     * Returns the number of placed boxes.
+     */
+    public int getBoxCount()  { return _boxCount; }
+
+    /**
+     * Returns the X of last placed box.
+     */
+    public double getPlacedX()  { return _placedX; }
+
+    /**
+     * Returns the Y of last placed box.
+     */
+    public double getPlacedY()  { return _placedY; }
+
+    /**
+     * Places box of given size near given anchor point at given distance, trying each of TAG_POSITIONS. Returns the
+     * position used (and box X/Y is available from getPlacedX/Y) or null if all positions collide.
+     */
+    public Pos placeBox(double anchorX, double anchorY, double aW, double aH, double aDist, double aSpacing)
+    {
+        // Iterate over positions
+        for (Pos pos : TAG_POSITIONS) {
+
+            // Get box X/Y: Box is centered on anchor, offset in position direction by distance, then offset by
+            // half box size, so box edge/corner is at offset point
+            double angle = Math.toRadians(getAngleDeg(pos));
+            double offsetX = Math.round(Math.cos(angle) * aDist);
+            double offsetY = Math.round(Math.sin(angle) * aDist);
+            double edgeX = Math.round(aW * pos.getHPos().doubleValue() - aW / 2);
+            double edgeY = Math.round(aH * pos.getVPos().doubleValue() - aH / 2);
+            double boxX = anchorX - aW / 2 + offsetX + edgeX;
+            double boxY = anchorY - aH / 2 + offsetY + edgeY;
+
+            // If box fits, add and return position
+            if (placeBox(boxX, boxY, aW, aH, aSpacing))
+                return pos;
+        }
+
+        // Return null since no positions fit
+        return null;
+    }
+
+    /**
+     * Places box with given bounds if it is inside placement bounds and doesn't intersect placed boxes (plus spacing).
+     */
+    public boolean placeBox(double aX, double aY, double aW, double aH, double aSpacing)
+    {
+        // If box outside bounds, return false
+        double maxX = aX + aW;
+        double maxY = aY + aH;
+        if (aX < _boundsX || aY < _boundsY || maxX > _boundsMaxX || maxY > _boundsMaxY)
+            return false;
+
+        // Get grid cells for box (expanded by spacing)
+        int col0 = getCol(aX - aSpacing);
+        int col1 = getCol(maxX + aSpacing);
+        int row0 = getRow(aY - aSpacing);
+        int row1 = getRow(maxY + aSpacing);
+
+        // If box (expanded by spacing) intersects any placed box in cells, return false
+        for (int row = row0; row <= row1; row++) {
+            for (int col = col0; col <= col1; col++) {
+                for (int entry = _cellHeads[row * _colCount + col]; entry >= 0; entry = _entryNexts[entry]) {
+                    int boxStart = _entryBoxes[entry] * 4;
+                    if (aX - aSpacing < _boxes[boxStart + 2] && maxX + aSpacing > _boxes[boxStart] &&
+                        aY - aSpacing < _boxes[boxStart + 3] && maxY + aSpacing > _boxes[boxStart + 1])
+                        return false;
+                }
+            }
+        }
+
+        // Add box
+        int boxIndex = _boxCount++;
+        if (_boxes.length < _boxCount * 4)
+            _boxes = Arrays.copyOf(_boxes, _boxes.length * 2);
+        int boxStart = boxIndex * 4;
+        _boxes[boxStart] = aX;
+        _boxes[boxStart + 1] = aY;
+        _boxes[boxStart + 2] = maxX;
+        _boxes[boxStart + 3] = maxY;
+
+        // Add box entry to each cell it touches
+        for (int row = getRow(aY); row <= getRow(maxY); row++) {
+            for (int col = getCol(aX); col <= getCol(maxX); col++) {
+                if (_entryCount == _entryBoxes.length) {
+                    _entryBoxes = Arrays.copyOf(_entryBoxes, _entryCount * 2);
+                    _entryNexts = Arrays.copyOf(_entryNexts, _entryCount * 2);
+                }
+                int cellIndex = row * _colCount + col;
+                _entryBoxes[_entryCount] = boxIndex;
+                _entryNexts[_entryCount] = _cellHeads[cellIndex];
+                _cellHeads[cellIndex] = _entryCount++;
+            }
+        }
+
+        // Set placed X/Y and return
+        _placedX = aX;
+        _placedY = aY;
+        return true;
+    }
+
+    /**
+     * Returns the grid column for given X (clamped to grid).
+     */
+    private int getCol(double aX)
+    {
+        int col = (int) Math.floor((aX - _boundsX) / CELL_SIZE);
+        return Math.max(0, Math.min(col, _colCount - 1));
+    }
+
+    /**
+     * Returns the grid row for given Y (clamped to grid).
+     */
+    private int getRow(double aY)
+    {
+        int row = (int) Math.floor((aY - _boundsY) / CELL_SIZE);
+        return Math.max(0, Math.min(row, _rowCount - 1));
+    }
+
+    /**
+     * Returns the angle for position in degrees.
+     */
+    private static double getAngleDeg(Pos aPos)
+    {
+        switch (aPos) {
+            case CENTER_RIGHT: return 0;
+            case BOTTOM_RIGHT: return 45;
+            case BOTTOM_CENTER: return 90;
+            case BOTTOM_LEFT: return 135;
+            case CENTER_LEFT: return 180;
+            case TOP_LEFT: return 225;
+            case TOP_CENTER: return 270;
+            case TOP_RIGHT: return 315;
+            default: return 0;
+        }
+    }
+}
@@ -3,11 +3,13 @@
  */
 package snapcharts.view;
 import snap.geom.Point;
+import snap.geom.Transform;
 import snap.gfx.*;
 import snap.util.ArrayUtils;
 import snap.props.PropChange;
 import snapcharts.data.*;
 import snapcharts.charts.*;
+import snapcharts.util.PointIndex;
 
 /**
  * A view to display the actual contents of a chart.
@@ -32,6 +34,37 @@ public abstract class TraceView extends ChartPartView<Trace> {
     // The ProcessedData converted to TraceView display coords
     private DataSet  _dispData;
 
+    // Whether display data was decimated to visible range
+    private boolean  _dispDataDecimated;
+
+    // The StagedData index of first display data point (display data might only include visible range)
+    private int  _dispDataStart;
+
+    // The linear data to view mapping used to create display data (scaleX, offsetX, scaleY, offsetY) or null
+    private double[]  _dispDataMapping;
+
+    // The transform from display data coords to current view coords during pan drag (scaleX, transX, scaleY, transY)
+    private double[]  _dispTransform;
+
+    // The cached indexes of display points needed to draw line for visible range (M4) and display data/range for them
+    private int[]  _dispLineIndexes;
+    private DataSet  _dispLineData;
+    private double  _dispLineMinX, _dispLineMaxX;
+
+    // The spatial index of points in view coords (for hit testing) and StagedData index of its first point
+    private PointIndex  _pointIndex;
+    private int  _pointIndexStart;
+
+    // The cached layer image of trace painting (if ContentView.LayerCacheEnabled) and whether painting it
+    private LayerCache  _layerCache = new LayerCache();
+    private boolean  _paintingLayer;
+
+    // Constant for minimum points per pixel column for display data to be decimated
+    private static final int DECIMATE_POINTS_PER_COLUMN = 8;
+
+    // Constant for maximum display distance (in points) for data point hit testing
+    protected static final int MAX_SELECT_DISTANCE = 60;
+
     /**
      * Constructor.
      */
@@ -203,37 +236,240 @@ public abstract class TraceView extends ChartPartView<Trace> {
         // If already set, just return
         if (_dispData != null) return _dispData;
 
-        // Get display coords DataSet, set and return
+        // Get display coords DataSet and data to view mapping used to create it
+        _dispDataDecimated = false;
+        _dispDataStart = 0;
         DataSet displayData = getDisplayDataImpl();
+        _dispDataMapping = getDataToViewMapping();
+        _dispTransform = null;
+
+        // Set and return
         return _dispData = displayData;
     }
 
     /**
-     * Returns the Trace points in display coords for this TraceView.
+     * Returns the StagedData index of the first display data point. Display data only includes the visible range of
+     * points (plus adjacent points outside) when X values are sorted, so display index plus this is StagedData index.
+     */
+    public int getDispDataStart()  { return _dispDataStart; }
+
+    /**
+     * Returns the Trace points in display coords for this TraceView. If X values are sorted, only the visible range of
+     * points is included. If trace is also just a line with many more points than pixel columns, only the visible
+     * points needed to draw each column are included (see isDisplayDataDecimatable).
      */
     protected DataSet getDisplayDataImpl()
     {
         // Get StagedData
         DataSet stagedData = getStagedData();
         int pointCount = stagedData.getPointCount();
-        double[] dispX = new double[pointCount];
-        double[] dispY = new double[pointCount];
 
         // Get ChartHelper and AxisViews
         ChartHelper chartHelper = getChartHelper();
         AxisView axisViewX = getAxisViewX();
         AxisView axisViewY = getAxisViewY();
 
-        // Iterate over data points and convert to display coords
-        for (int i = 0; i < pointCount; i++) {
-            double dataX = stagedData.getX(i);
-            double dataY = stagedData.getY(i);
-            dispX[i] = chartHelper.dataToView(axisViewX, dataX);
-            dispY[i] = chartHelper.dataToView(axisViewY, dataY);
+        // If many more points than pixel columns, try to get decimated indexes for visible X range (M4)
+        int[] dispIndexes = null;
+        int columnCount = getDecimateColumnCount();
+        if (isDisplayDataDecimatableForCount(pointCount, columnCount)) {
+            double minX = chartHelper.viewToData(axisViewX, 0);
+            double maxX = chartHelper.viewToData(axisViewX, getWidth());
+            dispIndexes = DataSetUtils.getDecimatedIndexesForRange(stagedData, minX, maxX, columnCount);
+            _dispDataDecimated = dispIndexes != null;
+        }
+
+        // Otherwise, if X values are sorted, just include visible range (so points outside aren't read or copied)
+        int dispStart = 0;
+        int dispCount = dispIndexes != null ? dispIndexes.length : pointCount;
+        if (dispIndexes == null && pointCount > 0 && DataSetUtils.isSortedX(stagedData)) {
+            int[] range = getStagedDataRangeForViewX(0, getWidth());
+            dispStart = range[0];
+            dispCount = range[1] - range[0];
+        }
+        _dispDataStart = dispStart;
+
+        // Create display point arrays
+        double[] dispX = new double[dispCount];
+        double[] dispY = new double[dispCount];
+
+        // If linear data to view mapping, get scale/offset once and convert points
+        if (chartHelper.isDataToViewLinear()) {
+            double scaleX = chartHelper.getDataToViewScale(axisViewX);
+            double offsetX = chartHelper.getDataToViewOffset(axisViewX);
+            double scaleY = chartHelper.getDataToViewScale(axisViewY);
+            double offsetY = chartHelper.getDataToViewOffset(axisViewY);
+            for (int i = 0; i < dispCount; i++) {
+                int index = dispIndexes != null ? dispIndexes[i] : dispStart + i;
+                dispX[i] = stagedData.getX(index) * scaleX + offsetX;
+                dispY[i] = stagedData.getY(index) * scaleY + offsetY;
+            }
+        }
+
+        // Otherwise, iterate over data points and convert to display coords
+        else {
+            for (int i = 0; i < dispCount; i++) {
+                int index = dispIndexes != null ? dispIndexes[i] : dispStart + i;
+                double dataX = stagedData.getX(index);
+                double dataY = stagedData.getY(index);
+                dispX[i] = chartHelper.dataToView(axisViewX, dataX);
+                dispY[i] = chartHelper.dataToView(axisViewY, dataY);
+            }
         }
 
         // Create DataSet for points and return
-        return new DataSetImpl(DataType.XY, dispX, dispY);
+        return new DataSetImpl(DataType.XY, DoubleArray.wrap(dispX), DoubleArray.wrap(dispY));
+    }
+
+    /**
+     * Returns the StagedData index range (start inclusive, end exclusive) of points for given view X range, including
+     * two adjacent points outside on each side (for line and spline joins). StagedData X values must be sorted.
+     */
+    private int[] getStagedDataRangeForViewX(double aMinX, double aMaxX)
+    {
+        // Get data X range for view range (axis might be reversed)
+        DataSet stagedData = getStagedData();
+        AxisView axisViewX = getAxisViewX();
+        double dataX0 = _chartHelper.viewToData(axisViewX, aMinX);
+        double dataX1 = _chartHelper.viewToData(axisViewX, aMaxX);
+        double minX = Math.min(dataX0, dataX1);
+        double maxX = Math.max(dataX0, dataX1);
+
+        // Get start/end index for range (if none, return empty)
+        int pointCount = stagedData.getPointCount();
+        int startIndex = DataSetUtils.getStartIndexForRange(stagedData, minX, maxX);
+        int endIndex = DataSetUtils.getEndIndexForRange(stagedData, minX, maxX);
+        if (startIndex > endIndex || startIndex >= pointCount)
+            return new int[] { 0, 0 };
+
+        // Return range with extra point outside on each side
+        return new int[] { Math.max(startIndex - 1, 0), Math.min(endIndex + 2, pointCount) };
+    }
+
+    /**
+     * Returns the number of device pixel columns for decimating display data to view width (M4), so decimated line is
+     * exact on HiDPI devices.
+     */
+    protected int getDecimateColumnCount()
+    {
+        double deviceScale = _contentView != null ? _contentView.getDeviceScale() : 1;
+        return (int) Math.ceil(getWidth() * deviceScale);
+    }
+
+    /**
+     * Returns whether display data should be decimated for given point count and decimation column count.
+     */
+    private boolean isDisplayDataDecimatableForCount(int aPointCount, int aColumnCount)
+    {
+        if (aColumnCount <= 0 || aPointCount <= aColumnCount * DECIMATE_POINTS_PER_COLUMN)
+            return false;
+        return isDisplayDataDecimatable();
+    }
+
+    /**
+     * Returns whether display data can be decimated to a few points per pixel column (M4), which doesn't change the
+     * painted line. This is only true for straight line joins without points or tags (which need every point).
+     */
+    protected boolean isDisplayDataDecimatable()
+    {
+        Trace trace = getTrace();
+        if (trace.isShowPoints() || trace.isShowTags())
+            return false;
+        return trace.getPointJoin() == PointJoin.Line;
+    }
+
+    /**
+     * Returns whether cached display data can be painted with a transform while user pans with mouse drag (instead of
+     * being recreated for every drag event). Subclasses that paint from display data can override to return true.
+     */
+    protected boolean isDisplayDataTransformable()  { return false; }
+
+    /**
+     * Returns the linear data to view mapping for current axes (scaleX, offsetX, scaleY, offsetY) or null if not linear.
+     */
+    private double[] getDataToViewMapping()
+    {
+        ChartHelper chartHelper = getChartHelper();
+        if (!chartHelper.isDataToViewLinear())
+            return null;
+        AxisView axisViewX = getAxisViewX();
+        AxisView axisViewY = getAxisViewY();
+        if (axisViewX == null || axisViewY == null)
+            return null;
+        return new double[] {
+            chartHelper.getDataToViewScale(axisViewX), chartHelper.getDataToViewOffset(axisViewX),
+            chartHelper.getDataToViewScale(axisViewY), chartHelper.getDataToViewOffset(axisViewY)
+        };
+    }
+
+    /**
+     * Updates the transform from cached display data coords to current view coords (returns false if not possible).
+     */
+    protected boolean updateDisplayTransform()
+    {
+        // If display data not set, not transformable or doesn't cover all points, return false
+        if (_dispData == null || _dispDataMapping == null || _dispDataDecimated || !isDisplayDataTransformable())
+            return false;
+        if (_dispDataStart > 0 || _dispData.getPointCount() != getStagedData().getPointCount())
+            return false;
+        if (_stagedData instanceof DataSetWrapper)
+            return false;
+
+        // Get current mapping (just return if not linear or degenerate)
+        double[] mapping = getDataToViewMapping();
+        if (mapping == null || mapping[0] == 0 || mapping[2] == 0)
+            return false;
+
+        // Get transform from old display coords to new: view = (disp - offset0) / scale0 * scale1 + offset1
+        double scaleX = mapping[0] / _dispDataMapping[0];
+        double scaleY = mapping[2] / _dispDataMapping[2];
+        double transX = mapping[1] - _dispDataMapping[1] * scaleX;
+        double transY = mapping[3] - _dispDataMapping[3] * scaleY;
+        if (Double.isNaN(scaleX + scaleY + transX + transY) || Double.isInfinite(scaleX + scaleY + transX + transY))
+            return false;
+        _dispTransform = new double[] { scaleX, transX, scaleY, transY };
+        _pointIndex = null;
+        return true;
+    }
+
+    /**
+     * Returns the transform from display data coords to view coords (null if display data is in view coords).
+     */
+    public Transform getDisplayTransform()
+    {
+        if (_dispTransform == null) return null;
+        return new Transform(_dispTransform[0], 0, 0, _dispTransform[2], _dispTransform[1], _dispTransform[3]);
+    }
+
+    /**
+     * Returns the given data point X/Y in display data coords (same as local coords unless display transform is set).
+     */
+    public Point getDispXYForDataPoint(TracePoint aDP)
+    {
+        Point pnt = getLocalXYForDataPoint(aDP);
+        if (_dispTransform != null) {
+            pnt.x = (pnt.x - _dispTransform[1]) / _dispTransform[0];
+            pnt.y = (pnt.y - _dispTransform[3]) / _dispTransform[2];
+        }
+        return pnt;
+    }
+
+    /**
+     * Returns the min visible X in display data coords.
+     */
+    private double getDispDataVisibleMinX()
+    {
+        if (_dispTransform == null) return 0;
+        return (0 - _dispTransform[1]) / _dispTransform[0];
+    }
+
+    /**
+     * Returns the max visible X in display data coords.
+     */
+    private double getDispDataVisibleMaxX()
+    {
+        if (_dispTransform == null) return getWidth();
+        return (getWidth() - _dispTransform[1]) / _dispTransform[0];
     }
 
     /**
@@ -244,10 +480,15 @@ public abstract class TraceView extends ChartPartView<Trace> {
         // Get DisplayData and PointCount
         DataSet dispData = getDisplayData();
         int pointCount = dispData.getPointCount();
+        double areaMinX = getDispDataVisibleMinX();
+
+        // If X values sorted, use binary search for first visible point index
+        if (DataSetUtils.isSortedX(dispData))
+            return DataSetUtils.getIndexForXBinarySearch(dispData, areaMinX, 0);
 
         // Iterate over DispData to find first visible point index
         int startIndex = 0;
-        while (startIndex < pointCount && dispData.getX(startIndex) < 0)
+        while (startIndex < pointCount && dispData.getX(startIndex) < areaMinX)
             startIndex++;
 
         // Return start index
@@ -263,9 +504,15 @@ public abstract class TraceView extends ChartPartView<Trace> {
         DataSet dispData = getDisplayData();
         int pointCount = dispData.getPointCount();
 
+        // If X values sorted, use binary search for last visible point index
+        double areaMaxX = getDispDataVisibleMaxX();
+        if (pointCount > 0 && DataSetUtils.isSortedX(dispData)) {
+            int index = DataSetUtils.getIndexForXBinarySearch(dispData, Math.nextUp(areaMaxX), 0);
+            return Math.max(index - 1, 0);
+        }
+
         // Iterate over DispData (back-to-front) to find last visible point index
         int endIndex = pointCount - 1;
-        double areaMaxX = getWidth();
         while (endIndex > 0 && dispData.getX(endIndex) > areaMaxX)
             endIndex--;
 
@@ -273,6 +520,34 @@ public abstract class TraceView extends ChartPartView<Trace> {
         return endIndex;
     }
 
+    /**
+     * Returns the indexes of display points needed to draw trace line for visible range without changing painted
+     * pixels: The first, min Y, max Y and last point of each pixel column (M4), plus adjacent points outside range.
+     * Returns null if there aren't many more visible points than columns (or points can't be decimated).
+     */
+    public int[] getDispDataLineIndexes()
+    {
+        // If already set for DisplayData and visible range, just return
+        DataSet dispData = getDisplayData();
+        double minX = getDispDataVisibleMinX();
+        double maxX = getDispDataVisibleMaxX();
+        if (dispData == _dispLineData && minX == _dispLineMinX && maxX == _dispLineMaxX)
+            return _dispLineIndexes;
+
+        // If many more visible points than columns, get decimated indexes
+        int[] lineIndexes = null;
+        int columnCount = getDecimateColumnCount();
+        int visPointCount = getDispDataEndIndex() - getDispDataStartIndex() + 1;
+        if (columnCount > 0 && visPointCount > columnCount * 4)
+            lineIndexes = DataSetUtils.getDecimatedIndexesForRange(dispData, minX, maxX, columnCount);
+
+        // Set and return
+        _dispLineData = dispData;
+        _dispLineMinX = minX;
+        _dispLineMaxX = maxX;
+        return _dispLineIndexes = lineIndexes;
+    }
+
     /**
      * Returns the start index for display data, starting with first point outside display range.
      */
@@ -296,6 +571,40 @@ public abstract class TraceView extends ChartPartView<Trace> {
         return endIndex;
     }
 
+    /**
+     * Prepares data caches that DisplayData reads but that aren't safe to fill from multiple threads: StagedData and
+     * lazy DataArray stats, sort order and MinMaxPyramid (DataArrays can be shared by traces). This is called by
+     * ChartHelper.prepareTraceViews() on the paint thread, before prepareForPaint().
+     */
+    protected void prepareDataCaches()
+    {
+        // If DisplayData already set, just return
+        if (_dispData != null) return;
+
+        // Get StagedData and DataArrays
+        DataSet stagedData = getStagedData();
+        NumberArray dataArrayX = stagedData.getDataArrayX();
+        NumberArray dataArrayY = stagedData.getDataArrayY();
+
+        // Fill DataArray caches used to create DisplayData (sort order, NaN count and MinMaxPyramid for decimation)
+        if (dataArrayX != null)
+            dataArrayX.isSortedAscending();
+        if (dataArrayY != null) {
+            dataArrayY.getNaNCount();
+            int pointCount = stagedData.getPointCount();
+            if (isDisplayDataDecimatableForCount(pointCount, getDecimateColumnCount()))
+                dataArrayY.getMinMaxPyramid();
+        }
+    }
+
+    /**
+     * Prepares this TraceView's own cached paint data (like DisplayData). This is called by
+     * ChartHelper.prepareTraceViews() before paint, possibly on a worker thread. So it should only do pure data work
+     * on data confined to this TraceView: Shared or lazily cached state (DataArray caches, formatters, fonts, views)
+     * must be prepared in prepareDataCaches() or left for paint.
+     */
+    protected void prepareForPaint()  { }
+
     /**
      * Returns the previous stacked TraceView.
      */
@@ -413,6 +722,17 @@ public abstract class TraceView extends ChartPartView<Trace> {
         return _chartHelper.dataToView(axisType, dataY);
     }
 
+    /**
+     * Converts a Y coord from data coords to display data coords (same as view coords unless display transform is set).
+     */
+    public double dataToDispY(double dataY)
+    {
+        double dispY = dataToViewY(dataY);
+        if (_dispTransform != null)
+            dispY = (dispY - _dispTransform[3]) / _dispTransform[2];
+        return dispY;
+    }
+
     /**
      * Paints chart axis lines.
      */
@@ -426,10 +746,25 @@ public abstract class TraceView extends ChartPartView<Trace> {
         aPntr.save();
         aPntr.clipRect(0, 0, areaW, areaH);
 
+        // If display transform is set (user is panning), paint cached display data with transform
+        Transform dispTransform = getDisplayTransform();
+        if (dispTransform != null)
+            aPntr.transform(dispTransform);
+
         // Paint chart
         Trace trace = getTrace();
-        if (trace.isEnabled() || getParent().getChildCount() == 1)
-            paintTrace(aPntr);
+        if (trace.isEnabled() || getParent().getChildCount() == 1) {
+
+            // If layer cache is usable, paint trace from cached layer image and paint selection highlight over it
+            if (dispTransform == null && isLayerCacheable() && _contentView.isLayerCacheUsable(aPntr)) {
+                _layerCache.paintLayer(aPntr, 0, 0, areaW, areaH, this::paintTraceLayer);
+                if (isSelectedOrTargeted())
+                    paintTraceHighlight(aPntr);
+            }
+
+            // Otherwise, just paint trace
+            else paintTrace(aPntr);
+        }
 
         // Restore Graphics state
         aPntr.restore();
@@ -440,14 +775,61 @@ public abstract class TraceView extends ChartPartView<Trace> {
      */
     protected void paintTrace(Painter aPntr)  { }
 
+    /**
+     * Paints the Trace into cached layer image (without selection highlight).
+     */
+    private void paintTraceLayer(Painter aPntr)
+    {
+        _paintingLayer = true;
+        paintTrace(aPntr);
+        _paintingLayer = false;
+    }
+
+    /**
+     * Returns whether trace is being painted into cached layer image (subclasses should skip selection highlight).
+     */
+    public boolean isPaintingLayer()  { return _paintingLayer; }
+
+    /**
+     * Returns whether trace painting can be cached in layer image (if ContentView.LayerCacheEnabled). Subclasses that
+     * implement paintTraceHighlight() can override to return true.
+     */
+    protected boolean isLayerCacheable()  { return false; }
+
+    /**
+     * Paints the selection/target highlight over cached trace layer image.
+     */
+    protected void paintTraceHighlight(Painter aPntr)  { }
+
+    /**
+     * Clears the cached trace layer image (and ContentView annotations, since they include trace tags).
+     */
+    protected void clearLayerCache()
+    {
+        _layerCache.clear();
+        if (_contentView != null)
+            _contentView.clearAnnotationLayer();
+    }
+
     /**
      * Paints the Trace above all ContentView.TraceViews.paintTrace() painting.
      */
     protected void paintTraceAbove(Painter aPntr)
     {
+        // If not ShowTags, just return
         Trace trace = getTrace();
-        if (trace.isShowTags())
-            paintDataTags(aPntr);
+        if (!trace.isShowTags())
+            return;
+
+        // Paint tags (with display transform if set)
+        Transform dispTransform = getDisplayTransform();
+        if (dispTransform != null) {
+            aPntr.save();
+            aPntr.transform(dispTransform);
+        }
+        paintDataTags(aPntr);
+        if (dispTransform != null)
+            aPntr.restore();
     }
 
     /**
@@ -455,35 +837,84 @@ public abstract class TraceView extends ChartPartView<Trace> {
      */
     protected void paintDataTags(Painter aPntr)  { }
 
+    /**
+     * Returns a version number for trace tags that changes whenever tag points change (so tag layout can be cached).
+     */
+    protected int getTagsVersion()  { return 0; }
+
+    /**
+     * Places trace tags with given TagPlacer (shared by all TraceViews, so tags of different traces don't overlap).
+     */
+    protected void layoutTags(TagPlacer aPlacer)  { }
+
     /**
      * Returns the data point closest to given x/y in local coords (null if none).
      */
     public TracePoint getDataPointForLocalXY(double aX, double aY)
     {
-        // Constant for maximum display distance (in points)
-        int MAX_SELECT_DISTANCE = 60;
+        PointIndex pointIndex = getPointIndex();
+        int index = pointIndex.getNearestIndex(aX, aY, MAX_SELECT_DISTANCE);
+        return index >= 0 ? getTrace().getPoint(_pointIndexStart + index) : null;
+    }
 
-        // Get data info
-        DataSet stagedData = getStagedData();
-        int pointCount = stagedData.getPointCount();
-        TracePoint dataPoint = null;
-        double dist = MAX_SELECT_DISTANCE;
-
-        // Iterate over points and get closest DataPoint
-        for (int i = 0; i < pointCount; i++) {
-            double dataX = stagedData.getX(i);
-            double dataY = stagedData.getY(i);
-            double dispX = dataToViewX(dataX);
-            double dispY = dataToViewY(dataY);
-            double dst = Point.getDistance(aX, aY, dispX, dispY);
-            if (dst < dist) {
-                dist = dst;
-                dataPoint = getTrace().getPoint(i);
+    /**
+     * Returns the spatial index of trace points in view coords (cached until display data changes).
+     */
+    public PointIndex getPointIndex()
+    {
+        // If already set, just return
+        if (_pointIndex != null) return _pointIndex;
+
+        // Create, set, return
+        PointIndex pointIndex = createPointIndex();
+        return _pointIndex = pointIndex;
+    }
+
+    /**
+     * Creates the spatial index of trace points in view coords (index bounds are view bounds plus select distance).
+     * This also sets the StagedData index of the first indexed point (index might only include visible range).
+     */
+    protected PointIndex createPointIndex()
+    {
+        // Local vars for view coords of points
+        double[] viewX, viewY;
+        int pointCount;
+
+        // If display data has points in view coords, use it
+        DataSet dispData = getDisplayData();
+        if (!_dispDataDecimated && _dispTransform == null) {
+            pointCount = dispData.getPointCount();
+            viewX = dispData.getDataX();
+            viewY = dispData.getDataY();
+            _pointIndexStart = _dispDataStart;
+        }
+
+        // Otherwise, convert StagedData points to view coords (just index bounds range, if X values are sorted)
+        else {
+            DataSet stagedData = getStagedData();
+            int startIndex = 0;
+            int endIndex = stagedData.getPointCount();
+            if (endIndex > 0 && DataSetUtils.isSortedX(stagedData)) {
+                int[] range = getStagedDataRangeForViewX(-MAX_SELECT_DISTANCE, getWidth() + MAX_SELECT_DISTANCE);
+                startIndex = range[0];
+                endIndex = range[1];
             }
+            pointCount = endIndex - startIndex;
+            viewX = new double[pointCount];
+            viewY = new double[pointCount];
+            for (int i = 0; i < pointCount; i++) {
+                viewX[i] = dataToViewX(stagedData.getX(startIndex + i));
+                viewY[i] = dataToViewY(stagedData.getY(startIndex + i));
+            }
+            _pointIndexStart = startIndex;
         }
 
-        // Return DataPoint
-        return dataPoint;
+        // Create and return index
+        double indexX = -MAX_SELECT_DISTANCE;
+        double indexY = -MAX_SELECT_DISTANCE;
+        double indexW = getWidth() + MAX_SELECT_DISTANCE * 2;
+        double indexH = getHeight() + MAX_SELECT_DISTANCE * 2;
+        return new PointIndex(viewX, viewY, pointCount, indexX, indexY, indexW, indexH);
     }
 
     /**
@@ -524,6 +955,11 @@ public abstract class TraceView extends ChartPartView<Trace> {
     protected void clearDisplayData()
     {
         _dispData = null;
+        _dispTransform = null;
+        _dispLineData = null;
+        _dispLineIndexes = null;
+        _pointIndex = null;
+        clearLayerCache();
         repaint();
     }
 
@@ -539,6 +975,11 @@ public abstract class TraceView extends ChartPartView<Trace> {
         if (src == trace || src instanceof Axis || propName == Trace.Stacked_Prop) {
             clearStagedData();
         }
+
+        // Clear cached layer, unless change is for another (non-stacked) Trace
+        Trace srcTrace = ContentView.getTraceForSource(src);
+        if (srcTrace == null || srcTrace == trace || trace.isStacked())
+            clearLayerCache();
     }
 
     /**
@@ -554,6 +995,26 @@ public abstract class TraceView extends ChartPartView<Trace> {
      */
     protected void axisViewDidChange(PropChange aPC)
     {
+        // Clear cached layer
+        clearLayerCache();
+
+        // If user is panning and cached display data can be transformed, just update transform
+        if (_chartHelper.isPanZoomDragging() && updateDisplayTransform()) {
+            repaint();
+            return;
+        }
+
+        // Clear display data
         clearDisplayData();
     }
+
+    /**
+     * Called when user finishes panning with mouse drag.
+     */
+    protected void panZoomDragDidEnd()
+    {
+        // If display data was transformed, clear it so it is recreated for final axes
+        if (_dispTransform != null)
+            clearDisplayData();
+    }
 }
\ No newline at end of file
@@ -54,10 +54,10 @@ public class Contour3DTraceView extends TraceView3D {
      */
     protected VertexArray createTriangleArray()
     {
-        // Get contour mesh and triangles
+        // Get contour mesh and triangle indexes
         DataSet dataSet = getStagedData();
         Mesh mesh = new Mesh(dataSet);
-        Mesh.Triangle[] triangles = mesh.getTriangles();
+        int[] triangleIndexes = mesh.getTriangleIndexes();
 
         // Get ContourHelper and ContourCount
         Contour3DChartHelper chartHelper = (Contour3DChartHelper) getChartHelper();
@@ -108,19 +108,20 @@ public class Contour3DTraceView extends TraceView3D {
         }
 
         // Create indexArray for triangles and set
-        int indexCount = triangles.length * 3;
+        int indexCount = triangleIndexes.length;
         int[] indexArray = new int[indexCount];
         int index = 0;
-        for (Mesh.Triangle triangle : triangles) {
+        for (int i = 0; i < indexCount; i += 3) {
 
             // If any triangle index out of bounds, skip triangle
-            if (outOfBoundsIndexes.get(triangle.v1) || outOfBoundsIndexes.get(triangle.v2) || outOfBoundsIndexes.get(triangle.v3))
+            int v1 = triangleIndexes[i], v2 = triangleIndexes[i + 1], v3 = triangleIndexes[i + 2];
+            if (outOfBoundsIndexes.get(v1) || outOfBoundsIndexes.get(v2) || outOfBoundsIndexes.get(v3))
                 continue;
 
             // Add triangle indexes
-            indexArray[index++] = triangle.v1;
-            indexArray[index++] = triangle.v2;
-            indexArray[index++] = triangle.v3;
+            indexArray[index++] = v1;
+            indexArray[index++] = v2;
+            indexArray[index++] = v3;
         }
         vertexArray.setIndexArray(indexArray);
 
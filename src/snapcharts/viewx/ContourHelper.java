@@ -139,12 +139,21 @@ public class ContourHelper {
         // If colors already set, just return
         if (_colors != null) return _colors;
 
+        // Get colors for ColorMapPaint and contour count, set and return
+        GradientPaint colorMapPaint = getColorMapPaint();
+        int count = getContourCount();
+        return _colors = getColorsForColorMapPaint(colorMapPaint, count);
+    }
+
+    /**
+     * Returns given number of colors evenly sampled from given color map paint.
+     */
+    public static Color[] getColorsForColorMapPaint(GradientPaint aColorMapPaint, int count)
+    {
         // Create Gradient
-        GradientPaint colorMapPaintV = getColorMapPaint();
-        GradientPaint colorMapPaintH = new GradientPaint(0, colorMapPaintV.getStops());
+        GradientPaint colorMapPaintH = new GradientPaint(0, aColorMapPaint.getStops());
 
         // Expand to rect
-        int count = getContourCount();
         colorMapPaintH = colorMapPaintH.copyForRect(new Rect(0, 0, count, 1));
 
         // Create image and fill with gradient
@@ -159,13 +168,21 @@ public class ContourHelper {
             colors[i] = new Color(img.getRGB(i, 0));
 
         // Return colors
-        return _colors = colors;
+        return colors;
     }
 
     /**
      * Returns the color map colors.
      */
     public Color[] getColorMapColors()
+    {
+        return getDefaultColorMapColors();
+    }
+
+    /**
+     * Returns the default color map colors.
+     */
+    public static Color[] getDefaultColorMapColors()
     {
         // Create Gradient
         String[] colorMapHexStrings = {
@@ -199,8 +216,16 @@ public class ContourHelper {
      */
     private GradientPaint createColorMapPaint()
     {
-        // Get ColorMapColors color array
         Color[] colorMapColors = getColorMapColors();
+        return getColorMapPaintForColors(colorMapColors);
+    }
+
+    /**
+     * Returns gradient paint for given color map colors.
+     */
+    public static GradientPaint getColorMapPaintForColors(Color[] colorMapColors)
+    {
+        // Get stop increment
         int count = colorMapColors.length;
         double incr = 1d / (count - 1);
 
@@ -145,16 +145,15 @@ public class ContourPainter {
         // If already set, just return
         if (_dataContours !=null) return _dataContours;
 
-        // Get number of contours, create shape array and get ContourMaker
+        // Get number of contours and contour values
         int count = _contourHelper.getContourCount();
-        Shape[] contours = new Shape[count];
-        ContourMaker contourMaker = getContourMaker();
+        double[] contourValues = new double[count];
+        for (int i=0; i<count; i++)
+            contourValues[i] = _contourHelper.getContourRange(i).getMin();
 
-        // Iterate for contour count and create/set contour data shape
-        for (int i=0; i<count; i++) {
-            double valZ = _contourHelper.getContourRange(i).getMin();
-            contours[i] = contourMaker.getContourShape(valZ);
-        }
+        // Get contour data shapes from ContourMaker (levels are made in parallel for large datasets)
+        ContourMaker contourMaker = getContourMaker();
+        Shape[] contours = contourMaker.getContourShapes(contourValues);
 
         // Set/return
         return _dataContours = contours;
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.viewx;
+import snap.gfx.*;
+import snapcharts.data.DataSet;
+import snapcharts.view.ChartViewUtils;
+import snapcharts.view.TraceView;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A class to paint TraceView points as density (a 2D histogram): Visible display points are binned into a device pixel
+ * aligned grid of counts, which is colored with the contour color map and painted as a single image. This is useful
+ * for traces with so many points that symbols just overdraw each other.
+ */
+public class DensityPainter {
+
+    // The TraceView
+    private TraceView  _traceView;
+
+    // The grid of point counts (reused when size doesn't change), size (in device pixels) and device scale
+    private int[]  _counts = new int[0];
+    private int  _gridW, _gridH;
+    private double  _gridScale = 1;
+
+    // The cached density image
+    private Image  _image;
+
+    // The DisplayData and visible range used to create cached image (cache is valid if these don't change)
+    private DataSet  _prepDispData;
+    private int  _prepStartIndex, _prepEndIndex;
+
+    // The color map colors for density levels (as ARGB ints, for writing image pixels)
+    private static Color[]  _levelColors;
+    private static int[]  _levelARGBs;
+
+    // Constant for number of density color levels
+    private static final int LEVEL_COUNT = 64;
+
+    // Constant for min number of points binned in each parallel chunk
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    // Constant for max device scale for density grid
+    private static final double MAX_SCALE = 4;
+
+    /**
+     * Constructor.
+     */
+    public DensityPainter(TraceView aTraceView)
+    {
+        _traceView = aTraceView;
+    }
+
+    /**
+     * Clears cached density image.
+     */
+    public void clearCache()
+    {
+        _prepDispData = null;
+        _image = null;
+    }
+
+    /**
+     * Paints density image for visible display points.
+     */
+    public void paintDensity(Painter aPntr)
+    {
+        // Get density image for painter device scale (just return if none)
+        double scale = ChartViewUtils.getDeviceScale(aPntr, MAX_SCALE);
+        Image image = getDensityImage(scale);
+        if (image == null)
+            return;
+
+        // Draw image
+        aPntr.drawImage(image, 0, 0, _gridW / _gridScale, _gridH / _gridScale);
+    }
+
+    /**
+     * Returns the density image for given device scale (rebinned if DisplayData, visible range or grid size changed).
+     */
+    public Image getDensityImage(double aScale)
+    {
+        // Get DispData, start/end index for current visible range and grid size (in device pixels)
+        DataSet dispData = _traceView.getDisplayData();
+        int startIndex = _traceView.getDispDataStartIndex();
+        int endIndex = _traceView.getDispDataEndIndex();
+        int gridW = (int) Math.ceil(_traceView.getWidth() * aScale);
+        int gridH = (int) Math.ceil(_traceView.getHeight() * aScale);
+
+        // If cache is still valid, just return
+        if (dispData == _prepDispData && startIndex == _prepStartIndex && endIndex == _prepEndIndex &&
+            gridW == _gridW && gridH == _gridH && aScale == _gridScale)
+            return _image;
+        _prepDispData = dispData;
+        _prepStartIndex = startIndex;
+        _prepEndIndex = endIndex;
+        _gridScale = aScale;
+
+        // If empty, clear image and return
+        if (gridW <= 0 || gridH <= 0 || endIndex < startIndex) {
+            _gridW = _gridH = 0;
+            return _image = null;
+        }
+
+        // Bin points, create image and return
+        binPoints(dispData, startIndex, endIndex + 1, gridW, gridH);
+        return _image = createDensityImage();
+    }
+
+    /**
+     * Bins display points in given range into count grid of given size (in parallel chunks for large ranges).
+     */
+    private void binPoints(DataSet aDataSet, int aStart, int anEnd, int gridW, int gridH)
+    {
+        // Get count grid (reuse if same size)
+        int gridSize = gridW * gridH;
+        if (_counts.length != gridSize)
+            _counts = new int[gridSize];
+        else Arrays.fill(_counts, 0);
+        _gridW = gridW;
+        _gridH = gridH;
+
+        // If small, just bin in this thread
+        int pointCount = anEnd - aStart;
+        int chunkCount = Math.min(pointCount / CHUNK_SIZE, ForkJoinPool.getCommonPoolParallelism());
+        if (chunkCount <= 1) {
+            binPoints(aDataSet, aStart, anEnd, _counts);
+            return;
+        }
+
+        // Bin chunks in parallel, each into its own grid
+        int chunkLength = (pointCount + chunkCount - 1) / chunkCount;
+        int[][] chunkCounts = new int[chunkCount][];
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int start = aStart + chunk * chunkLength;
+            int end = Math.min(start + chunkLength, anEnd);
+            int[] counts = new int[gridSize];
+            binPoints(aDataSet, start, end, counts);
+            chunkCounts[chunk] = counts;
+        });
+
+        // Sum chunk grids (in parallel rows)
+        int[] totalCounts = _counts;
+        IntStream.range(0, gridH).parallel().forEach(row -> {
+            int rowStart = row * gridW;
+            int rowEnd = rowStart + gridW;
+            for (int[] counts : chunkCounts)
+                for (int i = rowStart; i < rowEnd; i++)
+                    totalCounts[i] += counts[i];
+        });
+    }
+
+    /**
+     * Bins display points in given range into given count grid.
+     */
+    private void binPoints(DataSet aDataSet, int aStart, int anEnd, int[] theCounts)
+    {
+        int gridW = _gridW;
+        int gridH = _gridH;
+        double scale = _gridScale;
+        for (int i = aStart; i < anEnd; i++) {
+            double gridX = aDataSet.getX(i) * scale;
+            double gridY = aDataSet.getY(i) * scale;
+            if (!(gridX >= 0 && gridX < gridW && gridY >= 0 && gridY < gridH))
+                continue;
+            int col = (int) gridX;
+            int row = (int) gridY;
+            theCounts[row * gridW + col]++;
+        }
+    }
+
+    /**
+     * Creates the density image for current count grid (counts are log scaled to color map levels).
+     */
+    private Image createDensityImage()
+    {
+        // Get max count (just return if no points)
+        int maxCount = 0;
+        for (int count : _counts)
+            maxCount = Math.max(maxCount, count);
+        if (maxCount == 0)
+            return null;
+
+        // Get level colors and scale for log of count to level
+        int[] levelARGBs = getLevelARGBs();
+        double levelScale = (LEVEL_COUNT - 1) / Math.log1p(maxCount);
+
+        // Get image pixels for count grid (empty cells are clear)
+        int gridSize = _gridW * _gridH;
+        int[] pixels = new int[gridSize];
+        for (int i = 0; i < gridSize; i++) {
+            int count = _counts[i];
+            if (count > 0)
+                pixels[i] = levelARGBs[(int) Math.round(Math.log1p(count) * levelScale)];
+        }
+
+        // Create image for grid device pixels
+        Image image = Image.getImageForSizeAndDpiScale(_gridW / _gridScale, _gridH / _gridScale, true, _gridScale);
+
+        // If native image is BufferedImage, write pixels directly
+        Object nativeImage = image.getNative();
+        if (nativeImage instanceof BufferedImage) {
+            BufferedImage bufferedImage = (BufferedImage) nativeImage;
+            int imageW = Math.min(bufferedImage.getWidth(), _gridW);
+            int imageH = Math.min(bufferedImage.getHeight(), _gridH);
+            bufferedImage.setRGB(0, 0, imageW, imageH, pixels, 0, _gridW);
+        }
+
+        // Otherwise, paint pixels
+        else paintPixels(image, pixels);
+
+        // Return
+        return image;
+    }
+
+    /**
+     * Paints given grid pixels into given image with image painter (for platforms without BufferedImage native image).
+     */
+    private void paintPixels(Image anImage, int[] thePixels)
+    {
+        // Get painter (scaled to device pixels)
+        Painter pntr = anImage.getPainter();
+        pntr.setAntialiasing(false);
+        pntr.scale(1 / _gridScale, 1 / _gridScale);
+
+        // Iterate over rows and paint runs of pixels with same color as single rect
+        for (int row = 0; row < _gridH; row++) {
+            int rowStart = row * _gridW;
+            int col = 0;
+            while (col < _gridW) {
+
+                // Get pixel (skip empty)
+                int pixel = thePixels[rowStart + col];
+                if (pixel == 0) {
+                    col++;
+                    continue;
+                }
+
+                // Extend run while pixels are same and paint
+                int runEnd = col + 1;
+                while (runEnd < _gridW && thePixels[rowStart + runEnd] == pixel)
+                    runEnd++;
+                pntr.setColor(new Color((pixel >> 16 & 0xff) / 255d, (pixel >> 8 & 0xff) / 255d, (pixel & 0xff) / 255d,
+                    (pixel >>> 24) / 255d));
+                pntr.fillRect(col, row, runEnd - col, 1);
+                col = runEnd;
+            }
+        }
+    }
+
+    /**
+     * Returns the colors for density levels (sampled from default contour color map).
+     */
+    private static Color[] getLevelColors()
+    {
+        if (_levelColors != null) return _levelColors;
+        Color[] colorMapColors = ContourHelper.getDefaultColorMapColors();
+        GradientPaint colorMapPaint = ContourHelper.getColorMapPaintForColors(colorMapColors);
+        return _levelColors = ContourHelper.getColorsForColorMapPaint(colorMapPaint, LEVEL_COUNT);
+    }
+
+    /**
+     * Returns the ARGB ints for density level colors.
+     */
+    private static int[] getLevelARGBs()
+    {
+        if (_levelARGBs != null) return _levelARGBs;
+        Color[] levelColors = getLevelColors();
+        int[] levelARGBs = new int[levelColors.length];
+        for (int i = 0; i < levelColors.length; i++) {
+            Color color = levelColors[i];
+            int alpha = (int) Math.round(color.getAlpha() * 255);
+            levelARGBs[i] = alpha << 24 | color.getRedInt() << 16 | color.getGreenInt() << 8 | color.getBlueInt();
+        }
+        return _levelARGBs = levelARGBs;
+    }
+}
@@ -9,9 +9,10 @@ import snap.text.StringBox;
 import snap.util.FormatUtils;
 import snapcharts.data.DataSet;
 import snapcharts.charts.*;
+import snapcharts.view.TagPlacer;
 import snapcharts.view.TraceView;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A class to handle painting TraceView.Trace data symbols and tags.
@@ -21,15 +22,36 @@ public class PointPainter {
     // The TraceView
     private TraceView  _traceView;
 
-    // The Cached Symbol points
-    private Point[]  _symbolPoints;
+    // The cached Symbol center X/Y coords (buffers are reused and only grow) and count
+    private double[]  _symbolXs = new double[0], _symbolYs = new double[0];
+    private int  _symbolCount;
 
-    // The Cached TagBoxes
-    private TagBox[]  _tagBoxes;
+    // The cached Tag anchor X/Y coords and strings for visible points (buffers are reused and only grow) and count
+    private double[]  _tagXs = new double[0], _tagYs = new double[0];
+    private String[]  _tagStrings = new String[0];
+    private int  _tagCount;
+
+    // A version number for tags that changes whenever tags are prepared
+    private int  _tagsVersion;
+
+    // The placed TagBoxes and box X/Y (set by layoutTags) and count
+    private TagBox[]  _tagBoxes = new TagBox[0];
+    private double[]  _tagBoxXs = new double[0], _tagBoxYs = new double[0];
+    private int  _tagBoxCount;
+
+    // A cache of laid-out TagBoxes for tag strings
+    private Map<String,TagBox>  _tagBoxCache = new HashMap<>();
+
+    // The DisplayData and visible range used to create cached symbols/tags (cache is valid if these don't change)
+    private DataSet  _prepDispData;
+    private int  _prepStartIndex, _prepEndIndex;
 
     // Constant for offset from display point
     private int TAG_OFFSET = 10;
 
+    // Constant for max number of cached TagBoxes
+    private static final int MAX_TAG_BOX_CACHE_SIZE = 4096;
+
     /**
      * Constructor.
      */
@@ -39,47 +61,70 @@ public class PointPainter {
     }
 
     /**
-     * Returns the array of Symbol points.
+     * Returns the number of cached Symbol points.
+     */
+    public int getSymbolCount()  { return _symbolCount; }
+
+    /**
+     * Returns the Symbol center X for given Symbol index.
+     */
+    public double getSymbolX(int anIndex)  { return _symbolXs[anIndex]; }
+
+    /**
+     * Returns the Symbol center Y for given Symbol index.
+     */
+    public double getSymbolY(int anIndex)  { return _symbolYs[anIndex]; }
+
+    /**
+     * Returns the number of placed tags.
+     */
+    public int getTagBoxCount()  { return _tagBoxCount; }
+
+    /**
+     * Returns the version number for tags (changes whenever tags are prepared).
      */
-    public Point[] getSymbolPoints()  { return _symbolPoints; }
+    public int getTagsVersion()  { return _tagsVersion; }
 
     /**
-     * Returns the array of tag boxes.
+     * Clears cached Symbol points and Tag boxes (called when Trace, PointStyle or TagStyle change).
      */
-    public TagBox[] getTagBoxes()  { return _tagBoxes; }
+    public void clearCache()
+    {
+        _prepDispData = null;
+        _tagBoxCache.clear();
+    }
 
     /**
-     * Caches Symbol points and Tag boxes..
+     * Caches Symbol points and Tag boxes (if DisplayData or visible range changed since last time).
      */
     public void paintSymbolsAndTagsPrep()
     {
+        // Get DispData, start/end index for current visible range and StagedData index of first DispData point
+        DataSet dispData = _traceView.getDisplayData();
+        int startIndex = _traceView.getDispDataStartIndex();
+        int endIndex = _traceView.getDispDataEndIndex();
+        int dispDataStart = _traceView.getDispDataStart();
+
+        // If cache is still valid, just return
+        if (dispData == _prepDispData && startIndex == _prepStartIndex && endIndex == _prepEndIndex)
+            return;
+        _prepDispData = dispData;
+        _prepStartIndex = startIndex;
+        _prepEndIndex = endIndex;
+
         // Get ShowSymbol info
         Trace trace = _traceView.getTrace();
-        boolean showPoints = trace.isShowPoints();
         PointStyle pointStyle = trace.getPointStyle();
+        boolean showPoints = trace.isShowPoints() && !pointStyle.isRenderDensity();
         int symbolSize = pointStyle.getSymbolSize();
-        double symbolShift = symbolSize / 2d;
-        List<Point> symbolPointList = new ArrayList<>();
 
-        // Get ShowTag info because TagBoxes are created
+        // Get ShowTag info (tags are placed later by layoutTags(), along with tags of other traces)
         boolean showTags = trace.isShowTags();
         TagStyle tagStyle = trace.getTagStyle();
         DataSet procData = _traceView.getTrace().getProcessedData();
         boolean hasZ = procData.getDataType().hasZ();
-        Color tagBorderColor = tagStyle.getLineColor();
-        double tagBorderWidth = tagStyle.getLineWidth();
-        Border tagBorder = tagBorderWidth > 0 ? Border.createLineBorder(tagBorderColor, tagBorderWidth) : null;
-        Font tagFont = tagStyle.getFont();
         NumberFormat tagFormat = NumberFormat.getFormat(tagStyle.getTextFormat());
-        Pos tagPos = Pos.TOP_CENTER;
-        double tagOffset = TAG_OFFSET + Math.round(symbolSize / 2);
         Rect contentBounds = _traceView.getBoundsLocal();
-        List<StringBox> tagBoxList = new ArrayList<>();
-
-        // Get DispData and start/end index for current visible range
-        DataSet dispData = _traceView.getDisplayData();
-        int startIndex = _traceView.getDispDataStartIndex();
-        int endIndex = _traceView.getDispDataEndIndex();
 
         // Get VisPointCount and MaxPointCount
         int visPointCount = endIndex - startIndex + 1;
@@ -97,10 +142,24 @@ public class PointPainter {
         // If SkipPointCount produces larger increment, reset increment (and round startIndex down to increment so points don't jump)
         if (skipPointCount + 1 > incrementReal) {
             incrementReal = skipPointCount + 1;
-            while (startIndex > 0 && startIndex % (int) incrementReal != 0)
+            while (startIndex > 0 && (dispDataStart + startIndex) % (int) incrementReal != 0)
                 startIndex--;
         }
 
+        // Make sure symbol buffers are big enough for visible range
+        int symbolCountMax = endIndex - startIndex + 1;
+        if (showPoints && _symbolXs.length < symbolCountMax) {
+            _symbolXs = new double[symbolCountMax];
+            _symbolYs = new double[symbolCountMax];
+        }
+        if (showTags && _tagXs.length < symbolCountMax) {
+            _tagXs = new double[symbolCountMax];
+            _tagYs = new double[symbolCountMax];
+            _tagStrings = new String[symbolCountMax];
+        }
+        int symbolCount = 0;
+        int tagCount = 0;
+
         // Loop variables for point index (rounded) and point index (real)
         int index = startIndex;
         double indexReal = startIndex;
@@ -114,48 +173,37 @@ public class PointPainter {
             double dispX = dispData.getX(index);
             double dispY = dispData.getY(index);
 
-            // If ShowTags, create TagBox
-            if (showTags) {
-
-                // Get StringBox for string, X/Y and TagPos
-                double val = hasZ ? procData.getZ(index) : procData.getY(index);
-                String valStr;
-                if (tagFormat != null)
-                    valStr = tagFormat.format(val);
-                else valStr = FormatUtils.formatNum(val);
-
-                // Create/add TagBox
-                if (contentBounds.contains(dispX, dispY)) {
-                    StringBox strBox = getTagStringBox(valStr, tagFont, tagBorder, dispX, dispY, tagPos, tagOffset);
-                    if (pointSpacing > 0 && tagBoxList.size() > 0) {
-                        StringBox lastBox = tagBoxList.get(tagBoxList.size() - 1);
-                        if (intersectsCircleBounds(lastBox, strBox, pointSpacing)) {
-                            index++;
-                            indexReal = index;
-                            continue;
-                        }
-                    }
-                    tagBoxList.add(strBox);
-                }
-            }
-
-            // If not ShowTags and Spacing is
-            else if (pointSpacing > 0 && index > startIndex) {
+            // If PointSpacing, skip points too close to last point
+            if (pointSpacing > 0 && index > startIndex) {
                 double distBetween = Point.getDistance(lastDispX, lastDispY, dispX, dispY);
                 if (distBetween < symbolSize + pointSpacing) {
                     index++;
                     indexReal = index;
                     continue;
                 }
-                lastDispX = dispX;
-                lastDispY = dispY;
+            }
+            lastDispX = dispX;
+            lastDispY = dispY;
+
+            // If ShowTags and point is visible, add tag anchor and string
+            if (showTags && contentBounds.contains(dispX, dispY)) {
+                int dataIndex = dispDataStart + index;
+                double val = hasZ ? procData.getZ(dataIndex) : procData.getY(dataIndex);
+                String valStr;
+                if (tagFormat != null)
+                    valStr = tagFormat.format(val);
+                else valStr = FormatUtils.formatNum(val);
+                _tagXs[tagCount] = dispX;
+                _tagYs[tagCount] = dispY;
+                _tagStrings[tagCount] = valStr;
+                tagCount++;
             }
 
-            // Get disp X/Y of symbol origin add to SymbolPointList
+            // Add disp X/Y to symbol buffers
             if (showPoints) {
-                double symbX = dispX - symbolShift;
-                double symbY = dispY - symbolShift;
-                symbolPointList.add(new Point(symbX, symbY));
+                _symbolXs[symbolCount] = dispX;
+                _symbolYs[symbolCount] = dispY;
+                symbolCount++;
             }
 
             // Calculate next index
@@ -166,9 +214,77 @@ public class PointPainter {
             else index++;
         }
 
-        // Reset SymbolPoints, TagBoxes
-        _symbolPoints = symbolPointList.toArray(new Point[0]);
-        _tagBoxes = tagBoxList.toArray(new TagBox[0]);
+        // Reset SymbolCount, TagCount and TagsVersion
+        _symbolCount = symbolCount;
+        _tagCount = tagCount;
+        _tagBoxCount = 0;
+        _tagsVersion++;
+    }
+
+    /**
+     * Places tags for prepared tag points with given TagPlacer (tags that collide with placed tags in all positions
+     * are skipped).
+     */
+    public void layoutTags(TagPlacer aPlacer)
+    {
+        // Get tag info
+        Trace trace = _traceView.getTrace();
+        PointStyle pointStyle = trace.getPointStyle();
+        TagStyle tagStyle = trace.getTagStyle();
+        double tagOffset = TAG_OFFSET + Math.round(pointStyle.getSymbolSize() / 2);
+        int tagSpacing = pointStyle.getPointSpacing();
+
+        // Get tag font and border
+        Font tagFont = tagStyle.getFont();
+        Color tagBorderColor = tagStyle.getLineColor();
+        double tagBorderWidth = tagStyle.getLineWidth();
+        Border tagBorder = tagBorderWidth > 0 ? Border.createLineBorder(tagBorderColor, tagBorderWidth) : null;
+
+        // Make sure placed tag buffers are big enough
+        if (_tagBoxes.length < _tagCount) {
+            _tagBoxes = new TagBox[_tagCount];
+            _tagBoxXs = new double[_tagCount];
+            _tagBoxYs = new double[_tagCount];
+        }
+
+        // Iterate over tag points and place TagBox for each
+        int tagBoxCount = 0;
+        for (int i = 0; i < _tagCount; i++) {
+            TagBox tagBox = getTagBoxForString(_tagStrings[i], tagFont, tagBorder);
+            Pos tagPos = aPlacer.placeBox(_tagXs[i], _tagYs[i], tagBox.getWidth(), tagBox.getHeight(), tagOffset, tagSpacing);
+            if (tagPos == null)
+                continue;
+            _tagBoxes[tagBoxCount] = tagBox;
+            _tagBoxXs[tagBoxCount] = aPlacer.getPlacedX();
+            _tagBoxYs[tagBoxCount] = aPlacer.getPlacedY();
+            tagBoxCount++;
+        }
+
+        // Set TagBoxCount
+        _tagBoxCount = tagBoxCount;
+    }
+
+    /**
+     * Returns the laid-out TagBox for given string (cached).
+     */
+    private TagBox getTagBoxForString(String aStr, Font aFont, Border aBorder)
+    {
+        // If cached, just return
+        TagBox tagBox = _tagBoxCache.get(aStr);
+        if (tagBox != null)
+            return tagBox;
+
+        // If cache is full, clear it
+        if (_tagBoxCache.size() >= MAX_TAG_BOX_CACHE_SIZE)
+            _tagBoxCache.clear();
+
+        // Create, add, return
+        tagBox = new TagBox(aStr);
+        tagBox.setFont(aFont);
+        tagBox.setBorder(aBorder);
+        tagBox.setPadding(3, 5, 3, 5);
+        _tagBoxCache.put(aStr, tagBox);
+        return tagBox;
     }
 
     /**
@@ -181,7 +297,6 @@ public class PointPainter {
         PointStyle pointStyle = trace.getPointStyle();
         Symbol symbol = pointStyle.getSymbol();
         Color symbolColor = pointStyle.getFillColor();  //color.darker().darker()
-        Shape symbolShape = symbol.getShape();
 
         // Get Symbol border info
         Color symbolBorderColor = pointStyle.getLineColor();
@@ -192,32 +307,8 @@ public class PointPainter {
         if (symbolBorderWidth == 0 && pointsOnly)
             symbolBorderWidth = 1;
 
-        // Get SymbolBorderStroke
-        Stroke symbolBorderStroke = symbolBorderWidth > 0 ? Stroke.getStroke(symbolBorderWidth) : null;
-
-        // Iterate over SymbolPoints and paint
-        Point[] symbolPoints = getSymbolPoints();
-        for (Point symbolPoint : symbolPoints) {
-
-            // Get disp X/Y of symbol origin and translate there
-            double symbX = symbolPoint.x;
-            double symbY = symbolPoint.y;
-            aPntr.translate(symbX, symbY);
-
-            // Set color and fill symbol shape
-            aPntr.setColor(symbolColor);
-            aPntr.fill(symbolShape);
-
-            // If only points, also stroke outline of shape
-            if (symbolBorderStroke != null) {
-                aPntr.setStroke(symbolBorderStroke);
-                aPntr.setColor(symbolBorderColor);
-                aPntr.draw(symbolShape);
-            }
-
-            // Translate back
-            aPntr.translate(-symbX, -symbY);
-        }
+        // Paint symbols (as cached sprite images, or vector shapes if printing)
+        SymbolSpriteCache.paintSymbols(aPntr, symbol, symbolColor, symbolBorderColor, symbolBorderWidth, _symbolXs, _symbolYs, _symbolCount);
     }
 
     /**
@@ -225,13 +316,16 @@ public class PointPainter {
      */
     public void paintTags(Painter aPntr)
     {
-        TagBox[] tagBoxes = getTagBoxes();
         Trace trace = _traceView.getTrace();
         TagStyle tagStyle = trace.getTagStyle();
         Color fillColor = tagStyle.getFillColor();
 
-        for (TagBox sbox : tagBoxes)
+        for (int i = 0; i < _tagBoxCount; i++)
         {
+            // Move TagBox (boxes are cached by string, so may be shared) to placed X/Y
+            TagBox sbox = _tagBoxes[i];
+            sbox.setCenteredXY(_tagBoxXs[i] + sbox.getWidth() / 2, _tagBoxYs[i] + sbox.getHeight() / 2);
+
             if (fillColor != null) {
                 aPntr.setColor(fillColor);
                 aPntr.fill(sbox);
@@ -240,21 +334,6 @@ public class PointPainter {
         }
     }
 
-    /**
-     * Returns a StringBox for String, data point location (in display coords) and offset direction (as position).
-     */
-    private static StringBox getTagStringBox(String aStr, Font aFont, Border aBorder, double aX, double aY, Pos aPos, double aDist)
-    {
-        TagBox sbox = new TagBox(aStr);
-        sbox.setFont(aFont);
-        sbox.setBorder(aBorder);
-        sbox.setPadding(3, 5, 3, 5);
-        sbox.setCenteredXY(aX, aY);
-        sbox.offsetInDirection(aPos, aDist);
-        sbox.offsetFromCenterToBoundsPosition(aPos);
-        return sbox;
-    }
-
     /**
      * A StringBox subclass.
      */
@@ -267,118 +346,5 @@ public class PointPainter {
         {
             super(aStr);
         }
-
-        /**
-         * Offsets the box in given direction (position) by given distance (in display points).
-         * Box is also be offset by half box size (depending on direction).
-         */
-        public void offsetInDirection(Pos aPos, double aDist)
-        {
-            Point offset = getOffsetForDistance(aPos, aDist);
-            offset(Math.round(offset.x), Math.round(offset.y));
-        }
-
-        /**
-         * Offsets the box in given direction (position) by given distance (in display points).
-         * Box is also be offset by half box size (depending on direction).
-         */
-        public void offsetFromCenterToBoundsPosition(Pos aPos)
-        {
-            Point offset = getOffsetFromCenterOfRectSize(aPos, getWidth(), getHeight());
-            offset(Math.round(offset.x), Math.round(offset.y));
-        }
-    }
-
-    /**
-     * Returns the offset of given distance in the direction of this position.
-     */
-    private static Point getOffsetForDistance(Pos aPos, double aDist)
-    {
-        if (aPos == Pos.CENTER)
-            return Point.ZERO;
-        double angle = getAngleRad(aPos);
-        double dx = Math.cos(angle) * aDist;
-        double dy = Math.sin(angle) * aDist;
-        return new Point(dx, dy);
-    }
-
-    /**
-     * Returns the point for this position in given rect.
-     */
-    private static Point getPointForRect(Pos aPos, double aX, double aY, double aW, double aH)
-    {
-        double x = aX + aW * aPos.getHPos().doubleValue();
-        double y = aY + aH * aPos.getVPos().doubleValue();
-        return new Point(x, y);
-    }
-
-    /**
-     * Returns the offset (as point) from rect center to this position for given rect size.
-     */
-    private static Point getOffsetFromCenterOfRectSize(Pos aPos, double aW, double aH)
-    {
-        double dx = aW * aPos.getHPos().doubleValue() - aW / 2;
-        double dy = aH * aPos.getVPos().doubleValue() - aH / 2;
-        return new Point(dx, dy);
-    }
-
-    /**
-     * Returns the distance to rect position from center for given rect.
-     */
-    private static double getDistanceFromCenterOfRectSize(Pos aPos, double aW, double aH)
-    {
-        Point pnt = getPointForRect(aPos,0, 0, aW, aH);
-        return pnt.getDistance(aW/2, aH/2);
-    }
-
-    /**
-     * Returns the angle for position in degrees.
-     */
-    private static double getAngleDeg(Pos aPos)
-    {
-        switch (aPos)
-        {
-            case CENTER_RIGHT: return 0;
-            case BOTTOM_RIGHT: return 45;
-            case BOTTOM_CENTER: return 90;
-            case BOTTOM_LEFT: return 135;
-            case CENTER_LEFT: return 180;
-            case TOP_LEFT: return 225;
-            case TOP_CENTER: return 270;
-            case TOP_RIGHT: return 315;
-            default: return 0;
-        }
-    }
-
-    /**
-     * Returns the angle for position in radians.
-     */
-    private static double getAngleRad(Pos aPos)  { return Math.toRadians(getAngleDeg(aPos)); }
-
-    /**
-     * Returns the distance between two rects.
-     */
-    private static double getDistanceBetween(RectBase aRect1, RectBase aRect2)
-    {
-        if (aRect1.intersectsShape(aRect2))
-            return 0;
-        double dx1 = aRect2.x - aRect1.getMaxX();
-        double dx2 = aRect1.x - aRect2.getMaxX();
-        double dy1 = aRect2.y - aRect1.getMaxY();
-        double dy2 = aRect1.y - aRect2.getMaxY();
-        double dx = Math.max(dx1, dx2);
-        double dy = Math.max(dy1, dy2);
-        double dist = dx < 0 ? dy : dy < 0 ? dx : Math.min(dx, dy);
-        return dist;
-    }
-
-    /**
-     * Returns given rects overlap bounds circles with given extra spacing.
-     */
-    public boolean intersectsCircleBounds(RectBase box1, RectBase box2, int extraSpacing)
-    {
-        double radiusOfBoth = box1.width / 2 + box2.width / 2 + extraSpacing;
-        double dist = Point.getDistance(box1.getMidX(), box1.getMidY(), box2.getMidX(), box2.getMidY());
-        return dist < radiusOfBoth;
     }
 }
@@ -181,6 +181,12 @@ public class PolarChartHelper extends ChartHelper {
         return dataMin + Math.sin(aTheta) * radius;
     }
 
+    /**
+     * Override to return false, since polar display points are converted from theta/radius.
+     */
+    @Override
+    public boolean isDataToViewLinear()  { return false; }
+
     /**
      * Override to handle Polar special.
      */
@@ -9,6 +9,7 @@ import snap.gfx.Stroke;
 import snapcharts.data.DataSet;
 import snapcharts.data.DataSetImpl;
 import snapcharts.data.DataType;
+import snapcharts.data.DoubleArray;
 import snapcharts.data.DataUnit;
 import snapcharts.charts.*;
 import snapcharts.view.*;
@@ -24,6 +25,10 @@ public class PolarTraceView extends TraceView {
     // The TailShape
     private Shape  _tailShape;
 
+    // The data line shape as path with cached arc lengths (for reveal animation) and the DisplayData used to create it
+    private Shape  _revealPath;
+    private DataSet  _revealPathData;
+
     // Constants for defaults
     protected static Stroke Stroke3 = new Stroke(3, Stroke.Cap.Round, Stroke.Join.Round, 0);
     protected static Stroke Stroke5 = new Stroke(5, Stroke.Cap.Round, Stroke.Join.Round, 0);
@@ -45,6 +50,40 @@ public class PolarTraceView extends TraceView {
         return new DataLineShape();
     }
 
+    /**
+     * Returns the data line shape as path with cached cumulative arc lengths for reveal animation (created once per
+     * DisplayData).
+     */
+    public Shape getDataLineRevealPath()
+    {
+        // If already set for DisplayData, just return
+        DataSet dispData = getDisplayData();
+        if (_revealPath != null && dispData == _revealPathData) return _revealPath;
+
+        // Create, set, return
+        Shape revealPath = SplicerShape.getArcLengthPath(getDataLineShape());
+        _revealPathData = dispData;
+        return _revealPath = revealPath;
+    }
+
+    /**
+     * Override to prepare Trace.PolarData (it reads lazily cached DataArray arrays).
+     */
+    @Override
+    protected void prepareDataCaches()
+    {
+        getTrace().getPolarData();
+    }
+
+    /**
+     * Override to prepare display data.
+     */
+    @Override
+    protected void prepareForPaint()
+    {
+        getDisplayData();
+    }
+
     /**
      * Override to do polar data to display coords conversion.
      */
@@ -78,7 +117,7 @@ public class PolarTraceView extends TraceView {
         }
 
         // Create DataSet for points and return
-        return new DataSetImpl(DataType.XY, dispX, dispY);
+        return new DataSetImpl(DataType.XY, DoubleArray.wrap(dispX), DoubleArray.wrap(dispY));
     }
 
     /**
@@ -108,7 +147,7 @@ public class PolarTraceView extends TraceView {
         // Get path - if Reveal is active, get path spliced
         Shape path = getDataLineShape();
         if (reveal < 1)
-            path = new SplicerShape(path, 0, reveal);
+            path = new SplicerShape(getDataLineRevealPath(), 0, reveal);
 
         // Handle selected
         if (isSelected)
@@ -151,20 +190,15 @@ public class PolarTraceView extends TraceView {
         // Draw trace points
         if (showPoints) {
 
-            // Iterate over DisplayData points
+            // Get DisplayData points
             DataSet displayData = getDisplayData();
             int pointCount = displayData.getPointCount();
-            for (int i = 0; i < pointCount; i++) {
-                double dispX = displayData.getX(i);
-                double dispY = displayData.getY(i);
-
-                // Get symbol and color and paint
-                Symbol symbol = getDataSymbol();
-                double symbolOffset = symbol.getSize() / 2d;
-                Shape symbolShape = symbol.getShape().copyForTransform(new Transform(dispX - symbolOffset, dispY - symbolOffset));
-                aPntr.setColor(dataColor);
-                aPntr.fill(symbolShape);
-            }
+            double[] dispX = displayData.getDataX();
+            double[] dispY = displayData.getDataY();
+
+            // Paint symbols (as cached sprite images, or vector shapes if printing)
+            Symbol symbol = getDataSymbol();
+            SymbolSpriteCache.paintSymbols(aPntr, symbol, dataColor, null, 0, dispX, dispY, pointCount);
         }
 
         // Paint selected point
@@ -209,37 +243,6 @@ public class PolarTraceView extends TraceView {
         aPntr.draw(dataSymbolShape);
     }
 
-    /**
-     * Returns the data point closest to given x/y in local coords (null if none).
-     * @return
-     */
-    @Override
-    public TracePoint getDataPointForLocalXY(double aX, double aY)
-    {
-        // Constant for maximum display distance (in points)
-        int MAX_SELECT_DISTANCE = 60;
-
-        // Get data info
-        DataSet displayData = getDisplayData();
-        int pointCount = displayData.getPointCount();
-        TracePoint dataPoint = null;
-        double dist = MAX_SELECT_DISTANCE;
-
-        // Iterate over points and get closest DataPoint
-        for (int j = 0; j < pointCount; j++) {
-            double dispX = displayData.getX(j);
-            double dispY = displayData.getY(j);
-            double dst = Point.getDistance(aX, aY, dispX, dispY);
-            if (dst < dist) {
-                dist = dst;
-                dataPoint = getTrace().getPoint(j);
-            }
-        }
-
-        // Return DataPoint
-        return dataPoint;
-    }
-
     /**
      * Returns the given data point X/Y in this view coords.
      * @param aDP
@@ -6,7 +6,9 @@ import snap.geom.*;
 import snap.gfx.*;
 import snap.props.PropChange;
 import snapcharts.charts.*;
+import snapcharts.data.DataSet;
 import snapcharts.view.ChartHelper;
+import snapcharts.view.TagPlacer;
 import snapcharts.view.TraceView;
 import snapcharts.view.ContentView;
 
@@ -21,8 +23,12 @@ public class ScatterTraceView extends TraceView {
     // A PointPainter to handle painting symbols and tags
     private PointPainter  _pointPainter = new PointPainter(this);
 
-    // The arc length of the DataLineShape
-    private double  _dataLineArcLength;
+    // A DensityPainter to handle painting points as density
+    private DensityPainter  _densityPainter = new DensityPainter(this);
+
+    // The trace line shape as path with cached arc lengths (for reveal animation) and the DisplayData used to create it
+    private Shape  _revealPath;
+    private DataSet  _revealPathData;
 
     // Constants for defaults
     protected static Stroke Stroke3 = new Stroke(3, Stroke.Cap.Round, Stroke.Join.Round, 0);
@@ -53,14 +59,43 @@ public class ScatterTraceView extends TraceView {
     }
 
     /**
-     * Returns the length of the trace line shape.
+     * Returns the length of the trace line shape (from cached arc lengths of reveal path).
      */
     public double getTraceLineShapeArcLength()
     {
-        if (_dataLineArcLength > 0) return _dataLineArcLength;
-        Shape dataLineShape = ScatterTraceViewShapes.getLineShape(this, true);
-        double arcLength = dataLineShape.getArcLength();
-        return _dataLineArcLength = arcLength;
+        Shape revealPath = getTraceLineRevealPath();
+        return SplicerShape.getArcLength(revealPath);
+    }
+
+    /**
+     * Returns the trace line shape as path with cached cumulative arc lengths for reveal animation (created once per
+     * DisplayData, so each animation frame can splice path without copying or measuring it).
+     */
+    public Shape getTraceLineRevealPath()
+    {
+        // If already set for DisplayData, just return
+        DataSet dispData = getDisplayData();
+        if (_revealPath != null && dispData == _revealPathData) return _revealPath;
+
+        // Create, set, return
+        Shape revealPath = SplicerShape.getArcLengthPath(getTraceLineShape());
+        _revealPathData = dispData;
+        return _revealPath = revealPath;
+    }
+
+    /**
+     * Override to return true, since trace is painted from display data.
+     */
+    @Override
+    protected boolean isDisplayDataTransformable()  { return true; }
+
+    /**
+     * Override to prepare display data (symbols and tags are prepared at paint, since tags use shared formatters).
+     */
+    @Override
+    protected void prepareForPaint()
+    {
+        getDisplayData();
     }
 
     /**
@@ -73,8 +108,8 @@ public class ScatterTraceView extends TraceView {
         double areaW = getWidth();
         double areaH = getHeight();
 
-        // Get whether TraceView/Trace is selected or targeted
-        boolean isSelected = isSelectedOrTargeted();
+        // Get whether TraceView/Trace is selected or targeted (if painting cached layer, highlight is painted over it)
+        boolean isSelected = isSelectedOrTargeted() && !isPaintingLayer();
 
         // Get Trace info
         Trace trace = getTrace();
@@ -104,30 +139,11 @@ public class ScatterTraceView extends TraceView {
         // Get dataShape (path) (if Reveal is active, get shape as SplicerShape so we can draw partial/animated)
         Shape dataShape = getTraceLineShape();
         if (reveal < 1 && showLine)
-            dataShape = new SplicerShape(dataShape, 0, reveal);
-
-        // If ShowLine, draw path
-        if (isSelected && showLine) {
-            aPntr.setStrokePure(true);
+            dataShape = new SplicerShape(getTraceLineRevealPath(), 0, reveal);
 
-            // If selected, draw path
-            Color selColor = dataColor.blend(Color.CLEARWHITE, .75);
-            Stroke selStroke = dataStroke.copyForWidth(dataStroke.getWidth() * 3 + 8).copyForDashes(null);
-            aPntr.setColor(selColor);
-            aPntr.setStroke(selStroke);
-            aPntr.draw(dataShape);
-
-            // If selected, draw path
-            Color selColor2 = dataColor.blend(Color.WHITE, 1);
-            Stroke selStroke2 = dataStroke.copyForWidth(dataStroke.getWidth() + 2);
-            aPntr.setColor(selColor2);
-            aPntr.setStroke(selStroke2);
-            aPntr.draw(dataShape);
-
-            aPntr.setStrokePure(false);
-            aPntr.setColor(dataColor);
-            aPntr.setStroke(dataStroke);
-        }
+        // If selected, paint selected line highlight
+        if (isSelected && showLine)
+            paintSelDataLine(aPntr, dataShape);
 
         // Set color, stroke
         aPntr.setColor(dataColor);
@@ -148,9 +164,10 @@ public class ScatterTraceView extends TraceView {
         if (isSelected)
             paintSelDataPoint(aPntr);
 
-        // If ShowPoints or ShowTags
+        // If ShowPoints (as symbols) or ShowTags
         boolean showTags = trace.isShowTags();
-        if (showPoints || showTags)
+        boolean showDensity = showPoints && trace.getPointStyle().isRenderDensity();
+        if ((showPoints && !showDensity) || showTags)
             _pointPainter.paintSymbolsAndTagsPrep();
 
         // If ShowPoints, paint symbols
@@ -162,12 +179,81 @@ public class ScatterTraceView extends TraceView {
             aPntr.restore();
     }
 
+    /**
+     * Override to return true, since selection highlight is painted by paintTraceHighlight().
+     */
+    @Override
+    protected boolean isLayerCacheable()  { return true; }
+
+    /**
+     * Override to paint selected line highlight and selected point over cached trace layer image.
+     */
+    @Override
+    protected void paintTraceHighlight(Painter aPntr)
+    {
+        // If ShowLine, paint selected line highlight and line over it
+        Trace trace = getTrace();
+        if (trace.isShowLine()) {
+            Shape dataShape = getTraceLineShape();
+            paintSelDataLine(aPntr, dataShape);
+            aPntr.setStrokePure(true);
+            aPntr.draw(dataShape);
+            aPntr.setStrokePure(false);
+        }
+
+        // Paint selected point
+        paintSelDataPoint(aPntr);
+
+        // If ShowPoints, paint symbols over highlight (symbols are already prepared, unless density)
+        if (trace.isShowPoints()) {
+            if (!trace.getPointStyle().isRenderDensity())
+                _pointPainter.paintSymbolsAndTagsPrep();
+            paintSymbols(aPntr);
+        }
+    }
+
+    /**
+     * Paints selected line highlight for given line shape (leaves painter with trace line color and stroke).
+     */
+    protected void paintSelDataLine(Painter aPntr, Shape dataShape)
+    {
+        // Get DataColor, DataStroke
+        Color dataColor = getDataColor();
+        Stroke dataStroke = getTrace().getLineStroke();
+        aPntr.setStrokePure(true);
+
+        // Draw wide, light path
+        Color selColor = dataColor.blend(Color.CLEARWHITE, .75);
+        Stroke selStroke = dataStroke.copyForWidth(dataStroke.getWidth() * 3 + 8).copyForDashes(null);
+        aPntr.setColor(selColor);
+        aPntr.setStroke(selStroke);
+        aPntr.draw(dataShape);
+
+        // Draw white path just wider than line
+        Color selColor2 = dataColor.blend(Color.WHITE, 1);
+        Stroke selStroke2 = dataStroke.copyForWidth(dataStroke.getWidth() + 2);
+        aPntr.setColor(selColor2);
+        aPntr.setStroke(selStroke2);
+        aPntr.draw(dataShape);
+
+        // Reset color, stroke
+        aPntr.setStrokePure(false);
+        aPntr.setColor(dataColor);
+        aPntr.setStroke(dataStroke);
+    }
+
     /**
      * Paints symbols.
      */
     protected void paintSymbols(Painter aPntr)
     {
-        _pointPainter.paintSymbols(aPntr);
+        // If RenderMode is Density, paint density image
+        PointStyle pointStyle = getTrace().getPointStyle();
+        if (pointStyle.isRenderDensity())
+            _densityPainter.paintDensity(aPntr);
+
+        // Otherwise paint symbols
+        else _pointPainter.paintSymbols(aPntr);
     }
 
     /**
@@ -179,6 +265,21 @@ public class ScatterTraceView extends TraceView {
         _pointPainter.paintTags(aPntr);
     }
 
+    /**
+     * Override to return PointPainter tags version.
+     */
+    @Override
+    protected int getTagsVersion()  { return _pointPainter.getTagsVersion(); }
+
+    /**
+     * Override to place PointPainter tags.
+     */
+    @Override
+    protected void layoutTags(TagPlacer aPlacer)
+    {
+        _pointPainter.layoutTags(aPlacer);
+    }
+
     /**
      * Paints selected point.
      */
@@ -190,8 +291,8 @@ public class ScatterTraceView extends TraceView {
         if (dataPoint == null)
             return;
 
-        // Get disp X/Y for DataPoint
-        Point dispXY = getLocalXYForDataPoint(dataPoint);
+        // Get disp X/Y for DataPoint (in display data coords, since painter may have display transform)
+        Point dispXY = getDispXYForDataPoint(dataPoint);
         double dispX = dispXY.x;
         double dispY = dispXY.y;
 
@@ -283,7 +384,7 @@ public class ScatterTraceView extends TraceView {
      */
     private void clearDataPath()
     {
-        _dataLineArcLength = 0;
+        _revealPath = null;
         repaint();
     }
 
@@ -300,6 +401,12 @@ public class ScatterTraceView extends TraceView {
         if (src == getTrace() || src instanceof Axis) {
             clearDataPath();
         }
+
+        // Clear cached symbols/tags if Trace or PointStyle/TagStyle changed
+        if (src == getTrace() || src instanceof PointStyle || src instanceof TagStyle) {
+            _pointPainter.clearCache();
+            _densityPainter.clearCache();
+        }
     }
 
     /**
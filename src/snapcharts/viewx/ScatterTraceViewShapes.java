@@ -124,6 +124,9 @@ public class ScatterTraceViewShapes {
         // The start/end indexes
         protected int _startIndex, _endIndex;
 
+        // The indexes of display points to iterate over, if decimated (otherwise, all points from start to end)
+        protected int[] _indexes;
+
         // The count
         protected int _count;
 
@@ -159,6 +162,24 @@ public class ScatterTraceViewShapes {
                     _endIndex++;
                 _count = _endIndex - _startIndex + 1;
             }
+
+            // If visible points can be decimated to pixel columns without changing line (M4), use decimated indexes
+            if (!isShowAll && XYPointJoins.isDecimatable(pointJoin)) {
+                _indexes = aTraceView.getDispDataLineIndexes();
+                if (_indexes != null) {
+                    _startIndex = _indexes[0];
+                    _endIndex = _indexes[_indexes.length - 1];
+                    _count = _indexes.length;
+                }
+            }
+        }
+
+        /**
+         * Returns the display point index for given iteration index.
+         */
+        protected int getDispIndex(int anIndex)
+        {
+            return _indexes != null ? _indexes[anIndex] : _startIndex + anIndex;
         }
 
         /**
@@ -177,8 +198,9 @@ public class ScatterTraceViewShapes {
         public Seg getNext(double[] coords)
         {
             // Get next display X/Y coords
-            double dispX = _dispX[_startIndex + _index];
-            double dispY = _dispY[_startIndex + _index];
+            int dispIndex = getDispIndex(_index);
+            double dispX = _dispX[dispIndex];
+            double dispY = _dispY[dispIndex];
 
             // First segment is moveTo, then lineTos
             if (_index++ == 0)
@@ -207,8 +229,9 @@ public class ScatterTraceViewShapes {
         public Seg getNext(double[] coords)
         {
             // Get next display X/Y coords
-            double dispX = _dispX[_endIndex - _index];
-            double dispY = _dispY[_endIndex - _index];
+            int dispIndex = getDispIndex(_count - 1 - _index);
+            double dispX = _dispX[dispIndex];
+            double dispY = _dispY[dispIndex];
 
             // First segment is moveTo, then lineTos
             if (_index++ == 0)
@@ -258,7 +281,7 @@ public class ScatterTraceViewShapes {
             _endDispX = traceLinePathIter._dispX[traceLinePathIter._endIndex];
 
             // Calculate display Y for data Y == 0
-            _zeroDispY = aTraceView.dataToViewY(0);
+            _zeroDispY = aTraceView.dataToDispY(0);
         }
 
         /**
@@ -396,7 +419,7 @@ public class ScatterTraceViewShapes {
                     _nextTraceLinePathIter.getNext(coords);
 
                 // Handle lineTo connecting line between data sets
-                int endIndex = _nextTraceView.getDispDataEndOutsideIndex();
+                int endIndex = nextTraceLinePathIter._endIndex;
                 double dispX = nextTraceLinePathIter._dispX[endIndex];
                 double dispY = nextTraceLinePathIter._dispY[endIndex];
                 return lineTo(dispX, dispY, coords);
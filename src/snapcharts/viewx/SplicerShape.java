@@ -16,7 +16,7 @@ class SplicerShape extends Shape {
     private double _end;
 
     // The tail point
-    private Point _tailPoint = Point.ZERO;
+    private Point _tailPoint;
 
     // The tail angle
     private double _tailAngle = Double.NaN;
@@ -34,12 +34,71 @@ class SplicerShape extends Shape {
     /**
      * Returns the tail point.
      */
-    public Point getTailPoint()  { return _tailPoint; }
+    public Point getTailPoint()
+    {
+        if (_tailPoint == null) updateTail();
+        return _tailPoint;
+    }
 
     /**
      * Returns the tail angle.
      */
-    public double getTailAngle()  { return !Double.isNaN(_tailAngle) ? _tailAngle : 0; }
+    public double getTailAngle()
+    {
+        if (_tailPoint == null) updateTail();
+        return !Double.isNaN(_tailAngle) ? _tailAngle : 0;
+    }
+
+    /**
+     * Updates the tail point and angle for end (cut seg is found with binary search of cumulative arc lengths).
+     */
+    private void updateTail()
+    {
+        // Set defaults
+        _tailPoint = Point.ZERO;
+        _tailAngle = Double.NaN;
+        if (_start <= 0 && _end >= 1)
+            return;
+
+        // Get cut seg index for end length (just return if none or zero length seg)
+        double lenMax = _path.getArcLength() * _end;
+        int cutIndex = _path.getSegIndexForArcLength(lenMax);
+        if (cutIndex >= _path.getSegCount())
+            return;
+        Seg seg = _path.getSeg(cutIndex);
+        if (seg == Seg.MoveTo || seg == Seg.Close)
+            return;
+
+        // Get partial segment for ratio of cut seg
+        double len = _path.getArcLengthForSegIndex(cutIndex);
+        double segRatio = (lenMax - _path.getArcLengthBeforeSegIndex(cutIndex)) / len;
+        Segment segment = _path.getSegment(cutIndex, null);
+        segment.split(segRatio);
+
+        // Get tail point and angle
+        Segment.PointAndAngle pointAndAngle = segment.getPointAndAngle(1);
+        _tailPoint = pointAndAngle.point();
+        _tailAngle = pointAndAngle.angle();
+    }
+
+    /**
+     * Returns a path for given shape that caches cumulative arc lengths. Callers can cache this path and pass it to
+     * new SplicerShapes (like for every frame of reveal animation), so path and arc lengths are only created once.
+     */
+    public static Shape getArcLengthPath(Shape aShape)
+    {
+        return aShape instanceof PathWithArcLengths ? aShape : new PathWithArcLengths(aShape);
+    }
+
+    /**
+     * Returns the total arc length of given shape (from cached arc lengths, if shape is from getArcLengthPath()).
+     */
+    public static double getArcLength(Shape aShape)
+    {
+        if (aShape instanceof PathWithArcLengths)
+            return ((PathWithArcLengths) aShape).getArcLength();
+        return aShape.getArcLength();
+    }
 
     /**
      * Override to return iterator.
@@ -61,16 +120,13 @@ class SplicerShape extends Shape {
      */
     private class SplicerIter extends PathIter {
 
-        // The total length of shape
-        private double  _lenAll;
-
         // The max length
         private double  _lenMax;
 
-        // The current running length
-        private double  _lenRun;
+        // The index of seg that is cut by max length (segs before are returned whole)
+        private int  _cutIndex;
 
-        // Total number of original path Segs
+        // Number of Segs to return (through cut seg)
         private int  _segCount;
 
         // Current path Seg index
@@ -82,9 +138,9 @@ class SplicerShape extends Shape {
         public SplicerIter(Transform aTrans)
         {
             super(aTrans);
-            _segCount = _path.getSegCount();
-            _lenAll = _path.getArcLength();
-            _lenMax = _lenAll * _end;
+            _lenMax = _path.getArcLength() * _end;
+            _cutIndex = _path.getSegIndexForArcLength(_lenMax);
+            _segCount = Math.min(_cutIndex + 1, _path.getSegCount());
             if (_start > 0)
                 System.err.println("SplicerShape.SplicerIter: Start value not supported yet");
         }
@@ -101,37 +157,24 @@ class SplicerShape extends Shape {
         @Override
         public Seg getNext(double[] coords)
         {
-            // Get seg and points (just return if zero length - (MoveTo or Close))
+            // Get seg and points (just return if before cut seg or zero length - (MoveTo or Close))
             Seg seg = _path.getSegAndPointsForIndex(_segIndex, coords, _trans);
-            if (seg == Seg.MoveTo || seg == Seg.Close) {
+            if (_segIndex < _cutIndex || seg == Seg.MoveTo || seg == Seg.Close) {
                 _segIndex++;
                 return seg;
             }
 
-            // If running length plus current seg length under max, just return full seg
+            // Get length remainder and ratio of cut seg
             double len = _path.getArcLengthForSegIndex(_segIndex);
-            if (_lenRun + len <= _lenMax) {
-                _lenRun += len;
-                _segIndex++;
-                return seg;
-            }
-
-            // Get length remainder and ratio of final seg
-            double lenRem = _lenMax - _lenRun;
+            double lenRem = _lenMax - _path.getArcLengthBeforeSegIndex(_segIndex);
             double segRatio = lenRem / len;
 
-            // Get partial segment for ratio of final seg
+            // Get partial segment for ratio of cut seg
             Segment segment = _path.getSegment(_segIndex, _trans);
             segment.split(segRatio);
             segment.getEndCoords(coords);
 
-            // Get Tail angle
-            Segment.PointAndAngle pointAndAngle = segment.getPointAndAngle(1);
-            _tailPoint = _trans == null ? pointAndAngle.point() : _trans.transformXY(pointAndAngle.x(), pointAndAngle.y());
-            _tailAngle = pointAndAngle.angle();
-
             // Set finished and return
-            _lenRun = _lenMax;
             _segIndex = _segCount;
             return seg;
         }
@@ -142,10 +185,7 @@ class SplicerShape extends Shape {
      */
     private static class PathWithArcLengths extends Path2D {
 
-        // The total arc length of path
-        private double _arcLength;
-
-        // The arc lengths for each seg
+        // The cumulative arc lengths for each seg (path length through end of seg)
         private double[] _arcLengths;
 
         /**
@@ -217,9 +257,8 @@ class SplicerShape extends Shape {
          */
         public double getArcLength()
         {
-            if (_arcLengths != null) return _arcLength;
-            getArcLengths();
-            return _arcLength;
+            double[] arcLens = getArcLengths();
+            return arcLens.length > 0 ? arcLens[arcLens.length - 1] : 0;
         }
 
         /**
@@ -228,11 +267,37 @@ class SplicerShape extends Shape {
         public double getArcLengthForSegIndex(int anIndex)
         {
             double[] arcLens = getArcLengths();
-            return arcLens[anIndex];
+            return arcLens[anIndex] - (anIndex > 0 ? arcLens[anIndex - 1] : 0);
+        }
+
+        /**
+         * Returns the arc length of path up to start of segment at index.
+         */
+        public double getArcLengthBeforeSegIndex(int anIndex)
+        {
+            double[] arcLens = getArcLengths();
+            return anIndex > 0 ? arcLens[anIndex - 1] : 0;
+        }
+
+        /**
+         * Returns the index of first segment that ends after given arc length (or seg count if none), using binary search.
+         */
+        public int getSegIndexForArcLength(double aLength)
+        {
+            double[] arcLens = getArcLengths();
+            int low = 0;
+            int high = arcLens.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (arcLens[mid] <= aLength)
+                    low = mid + 1;
+                else high = mid;
+            }
+            return low;
         }
 
         /**
-         * Returns the array of arc lengths for all path segments.
+         * Returns the array of cumulative arc lengths (path length through end of each segment).
          */
         private double[] getArcLengths()
         {
@@ -245,12 +310,10 @@ class SplicerShape extends Shape {
 
             for (int i = 0; i < segCount; i++) {
                 Seg seg = getSegAndSegmentPointsForIndex(i, points, null);
-                double arcLen = seg.getArcLengthForPoints(points);
-                arcLengths[i] = arcLen;
-                arcLength += arcLen;
+                arcLength += seg.getArcLengthForPoints(points);
+                arcLengths[i] = arcLength;
             }
 
-            _arcLength = arcLength;
             return _arcLengths = arcLengths;
         }
 
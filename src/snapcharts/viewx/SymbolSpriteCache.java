@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2010, ReportMill Software. All rights reserved.
+ */
+package snapcharts.viewx;
+import snap.geom.Shape;
+import snap.gfx.*;
+import snapcharts.charts.Symbol;
+import snapcharts.view.ChartViewUtils;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class caches symbols pre-rendered to images (sprites), so dense scatter/polar markers can be painted as image
+ * blits instead of filling/stroking vector shapes for every point. Sprites are keyed by symbol, size, colors, border
+ * width and device scale. When painting for print/export, symbols are still painted as vector shapes.
+ */
+public class SymbolSpriteCache {
+
+    // The cache of sprites for keys (least recently used are removed when full)
+    private static Map<SpriteKey,Image>  _sprites = new LinkedHashMap<SpriteKey,Image>(16, .75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<SpriteKey,Image> anEntry)  { return size() > MAX_SPRITE_COUNT; }
+    };
+
+    // Constant for max number of cached sprites
+    private static final int MAX_SPRITE_COUNT = 64;
+
+    // Constant for max device scale
+    private static final double MAX_SCALE = 8;
+
+    /**
+     * Paints symbols centered at given X/Y coords with given fill, border color and border width.
+     */
+    public static void paintSymbols(Painter aPntr, Symbol aSymbol, Color fillColor, Color borderColor, double borderWidth,
+                                    double[] theXs, double[] theYs, int aCount)
+    {
+        // If no symbols, just return
+        if (aCount == 0) return;
+
+        // If printing, paint vector shapes
+        if (aPntr.isPrinting()) {
+            paintSymbolShapes(aPntr, aSymbol, fillColor, borderColor, borderWidth, theXs, theYs, aCount);
+            return;
+        }
+
+        // Get sprite image for symbol and device scale
+        double scale = ChartViewUtils.getDeviceScale(aPntr, MAX_SCALE);
+        Image sprite = getSpriteImage(aSymbol, fillColor, borderColor, borderWidth, scale);
+        double spriteOffset = getSpritePadding(borderWidth) + aSymbol.getSize() / 2d;
+        double spriteW = sprite.getWidth();
+        double spriteH = sprite.getHeight();
+
+        // Iterate over points and draw sprite
+        for (int i = 0; i < aCount; i++)
+            aPntr.drawImage(sprite, theXs[i] - spriteOffset, theYs[i] - spriteOffset, spriteW, spriteH);
+    }
+
+    /**
+     * Paints symbols centered at given X/Y coords as vector shapes (color and stroke are set once for all symbols).
+     */
+    public static void paintSymbolShapes(Painter aPntr, Symbol aSymbol, Color fillColor, Color borderColor, double borderWidth,
+                                         double[] theXs, double[] theYs, int aCount)
+    {
+        // Get symbol shape and offset from center to origin
+        Shape symbolShape = aSymbol.getShape();
+        double symbolOffset = aSymbol.getSize() / 2d;
+
+        // If fill color, set color once and fill all symbols
+        if (fillColor != null) {
+            aPntr.setColor(fillColor);
+            for (int i = 0; i < aCount; i++) {
+                double symbX = theXs[i] - symbolOffset;
+                double symbY = theYs[i] - symbolOffset;
+                aPntr.translate(symbX, symbY);
+                aPntr.fill(symbolShape);
+                aPntr.translate(-symbX, -symbY);
+            }
+        }
+
+        // If border, set stroke/color once and stroke outline of all symbols
+        if (borderColor != null && borderWidth > 0) {
+            aPntr.setStroke(Stroke.getStroke(borderWidth));
+            aPntr.setColor(borderColor);
+            for (int i = 0; i < aCount; i++) {
+                double symbX = theXs[i] - symbolOffset;
+                double symbY = theYs[i] - symbolOffset;
+                aPntr.translate(symbX, symbY);
+                aPntr.draw(symbolShape);
+                aPntr.translate(-symbX, -symbY);
+            }
+        }
+    }
+
+    /**
+     * Returns the sprite image for given symbol, fill, border color, border width and device scale.
+     */
+    public static synchronized Image getSpriteImage(Symbol aSymbol, Color fillColor, Color borderColor, double borderWidth, double aScale)
+    {
+        // If no border color, ignore border width
+        if (borderColor == null)
+            borderWidth = 0;
+
+        // Get cached sprite for key
+        SpriteKey key = new SpriteKey(aSymbol, fillColor, borderColor, borderWidth, aScale);
+        Image sprite = _sprites.get(key);
+        if (sprite != null)
+            return sprite;
+
+        // Create, add and return
+        sprite = createSpriteImage(aSymbol, fillColor, borderColor, borderWidth, aScale);
+        _sprites.put(key, sprite);
+        return sprite;
+    }
+
+    /**
+     * Creates the sprite image for given symbol, fill, border color, border width and device scale.
+     */
+    private static Image createSpriteImage(Symbol aSymbol, Color fillColor, Color borderColor, double borderWidth, double aScale)
+    {
+        // Create image big enough for symbol and border (plus padding for antialiasing)
+        double padding = getSpritePadding(borderWidth);
+        double spriteSize = aSymbol.getSize() + padding * 2;
+        Image sprite = Image.getImageForSizeAndDpiScale(spriteSize, spriteSize, true, aScale);
+
+        // Paint symbol in image
+        Painter pntr = sprite.getPainter();
+        pntr.translate(padding, padding);
+        Shape symbolShape = aSymbol.getShape();
+        if (fillColor != null) {
+            pntr.setColor(fillColor);
+            pntr.fill(symbolShape);
+        }
+        if (borderColor != null && borderWidth > 0) {
+            pntr.setStroke(Stroke.getStroke(borderWidth));
+            pntr.setColor(borderColor);
+            pntr.draw(symbolShape);
+        }
+
+        // Return
+        return sprite;
+    }
+
+    /**
+     * Returns the padding around symbol in sprite for given border width.
+     */
+    private static double getSpritePadding(double borderWidth)
+    {
+        return Math.ceil(borderWidth / 2) + 1;
+    }
+
+    /**
+     * A class to hold sprite key values.
+     */
+    private static class SpriteKey {
+
+        // The key values
+        private int  _symbolId, _symbolSize;
+        private Color  _fillColor, _borderColor;
+        private double  _borderWidth, _scale;
+
+        /**
+         * Constructor.
+         */
+        public SpriteKey(Symbol aSymbol, Color fillColor, Color borderColor, double borderWidth, double aScale)
+        {
+            _symbolId = aSymbol.getId();
+            _symbolSize = aSymbol.getSize();
+            _fillColor = fillColor;
+            _borderColor = borderColor;
+            _borderWidth = borderWidth;
+            _scale = aScale;
+        }
+
+        /**
+         * Standard equals implementation.
+         */
+        @Override
+        public boolean equals(Object anObj)
+        {
+            if (anObj == this) return true;
+            if (!(anObj instanceof SpriteKey)) return false;
+            SpriteKey other = (SpriteKey) anObj;
+            return other._symbolId == _symbolId && other._symbolSize == _symbolSize &&
+                Objects.equals(other._fillColor, _fillColor) && Objects.equals(other._borderColor, _borderColor) &&
+                other._borderWidth == _borderWidth && other._scale == _scale;
+        }
+
+        /**
+         * Standard hashCode implementation.
+         */
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(_symbolId, _symbolSize, _fillColor, _borderColor, _borderWidth, _scale);
+        }
+    }
+}
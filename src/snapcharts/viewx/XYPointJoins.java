@@ -24,6 +24,18 @@ public class XYPointJoins {
         };
     }
 
+    /**
+     * Returns whether PointJoin can be applied to a decimated (M4) line PathIter without changing painted pixels.
+     * This is true for joins that connect points with straight segments (not Spline curves or Y0Between zero drops).
+     */
+    public static boolean isDecimatable(PointJoin pointJoin)
+    {
+        return switch (pointJoin) {
+            case Line, StepHV, StepVH, StepHVH -> true;
+            case Spline, Y0Between -> false;
+        };
+    }
+
     /**
      * A PathIter for PointJoin.HV that turns LineTos into two segments.
      */
@@ -213,7 +225,7 @@ public class XYPointJoins {
             super(aPathIter);
 
             // Calculate display Y for data Y == 0
-            _zeroDispY = aTraceView.dataToViewY(0);
+            _zeroDispY = aTraceView.dataToDispY(0);
             Transform xfm = aPathIter.getTransform();
             if (xfm != null && !xfm.isIdentity())
                 _zeroDispY = xfm.transformY(0, _zeroDispY);